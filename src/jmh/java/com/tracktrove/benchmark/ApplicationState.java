@@ -0,0 +1,46 @@
+package com.tracktrove.benchmark;
+
+import com.tracktrove.support.LocalStandIns;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+
+/**
+ * The full application booted once per fork against local Postgres and Redis
+ * stand-ins. Quartz does not auto-start, so no background job competes with the
+ * code being measured; the pollers and flushers run as in production.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    private LocalStandIns standIns;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        standIns = LocalStandIns.start();
+        context = standIns.startApplication(Map.of(
+                "server.port", 0,
+                "spring.quartz.auto-startup", false,
+                "logging.level.root", "WARN"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+        if (standIns != null) {
+            standIns.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,93 @@
+package com.tracktrove.benchmark;
+
+import com.tracktrove.dto.RetryReport;
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.job.RetryJob;
+import com.tracktrove.repository.TransactionBatchRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full {@link RetryJob} run over a backlog of due FAILED rows. Every
+ * iteration starts from the same backlog: all seeded rows FAILED, never retried
+ * and due now, so each run claims all of them exactly once.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetryRunBenchmark {
+
+    private static final int SEED_CHUNK = 5_000;
+
+    @Param("100000")
+    public int rows;
+
+    private RetryJob retryJob;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void seed(ApplicationState application) {
+        retryJob = application.bean(RetryJob.class);
+        jdbcTemplate = application.bean(JdbcTemplate.class);
+        TransactionBatchRepository repository = application.bean(TransactionBatchRepository.class);
+        TransactionTemplate transactionTemplate = application.bean(TransactionTemplate.class);
+
+        UUID[] vendors = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+        Instant now = Instant.now();
+        for (int from = 0; from < rows; from += SEED_CHUNK) {
+            List<Transaction> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = from; i < Math.min(from + SEED_CHUNK, rows); i++) {
+                Transaction txn = new Transaction();
+                txn.setId(UUID.randomUUID());
+                txn.setAmount(BigDecimal.valueOf(1000 + i % 9000, 2));
+                txn.setCurrency("INR");
+                txn.setChannel(i % 3 == 0 ? "CARD" : "UPI");
+                txn.setVendorId(vendors[i % vendors.length]);
+                txn.setCurrentStatus(TransactionStatus.FAILED);
+                txn.setInitialPayload("{}");
+                txn.setSimulatedSuccessRate(0.5);
+                txn.setRetryCount(0);
+                txn.setNextAttemptAt(now);
+                txn.setCreatedAt(now);
+                txn.setUpdatedAt(now);
+                chunk.add(txn);
+            }
+            transactionTemplate.executeWithoutResult(status -> repository.insertAll(chunk));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetBacklog() {
+        jdbcTemplate.update("UPDATE transaction SET current_status = 'FAILED', retry_count = 0, "
+                + "next_attempt_at = now() - interval '1 second'");
+        jdbcTemplate.execute("VACUUM ANALYZE transaction");
+    }
+
+    @Benchmark
+    public RetryReport retryBacklog() {
+        return retryJob.runRetries();
+    }
+}
@@ -0,0 +1,76 @@
+package com.tracktrove.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.dto.TransactionDTO;
+import com.tracktrove.entity.Trace;
+import com.tracktrove.service.TraceService;
+import com.tracktrove.service.TraceWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TraceService#captureTrace}: serializing the before/after DTOs into a
+ * trace row. The writer is replaced by a sink, so only the caller's cost is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceCaptureBenchmark {
+
+    // Size of the initial payload carried in both DTOs, in JSON items
+    @Param({"1", "50"})
+    public int payloadItems;
+
+    private TraceService traceService;
+    private TransactionDTO before;
+    private TransactionDTO after;
+    private UUID transactionId;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        TraceWriter sink = new TraceWriter(null, new ObjectMapper(), 1, 1, 1000,
+                TraceWriter.OverflowPolicy.BLOCK, Path.of("unused-spill.ndjson")) {
+            @Override
+            public void submitAll(Collection<Trace> traces, boolean debug) {
+                blackhole.consume(traces);
+            }
+        };
+        traceService = new TraceService(null, sink, null, null);
+
+        StringBuilder payload = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < payloadItems; i++) {
+            payload.append(i == 0 ? "" : ",").append("{\"sku\":\"SKU-").append(i).append("\",\"qty\":").append(i % 5 + 1).append('}');
+        }
+        payload.append("]}");
+
+        transactionId = UUID.randomUUID();
+        before = new TransactionDTO(UUID.randomUUID(), new BigDecimal("1499.00"), "INR", "UPI",
+                payload.toString(), 0.8, "checkout", null);
+        after = new TransactionDTO(before.getVendorId(), before.getAmount(), "INR", "UPI",
+                payload.toString(), 0.8, "checkout", null);
+    }
+
+    @Benchmark
+    public void captureTrace() {
+        traceService.captureTrace("RETRIED_FAILURE", before, after, transactionId, "Gateway timeout", 1);
+    }
+}
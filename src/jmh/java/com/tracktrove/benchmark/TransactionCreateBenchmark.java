@@ -0,0 +1,62 @@
+package com.tracktrove.benchmark;
+
+import com.tracktrove.dto.TransactionDTO;
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code POST /api/transactions/initiate} minus HTTP: one transaction through
+ * {@link TransactionService#initiateTransaction}, committed to Postgres with its
+ * escrow timer in Redis and its trace and event handed off.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionCreateBenchmark {
+
+    private static final String PAYLOAD = "{\"orderId\":\"bench-order\",\"items\":[{\"sku\":\"A-1\",\"qty\":2}],"
+            + "\"customer\":{\"id\":\"c-42\",\"tier\":\"gold\"}}";
+
+    private TransactionService transactionService;
+    private UUID[] vendors;
+
+    @Setup
+    public void setUp(ApplicationState application) {
+        transactionService = application.bean(TransactionService.class);
+        vendors = new UUID[64];
+        for (int i = 0; i < vendors.length; i++) {
+            vendors[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public Transaction initiateTransaction() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TransactionDTO dto = new TransactionDTO();
+        dto.setVendorId(vendors[random.nextInt(vendors.length)]);
+        dto.setAmount(BigDecimal.valueOf(random.nextLong(100, 1_000_000), 2));
+        dto.setCurrency("INR");
+        dto.setChannel("UPI");
+        dto.setInitialPayloadJson(PAYLOAD);
+        dto.setSimulatedSuccessRate(0.8);
+        return transactionService.initiateTransaction(dto);
+    }
+}
@@ -0,0 +1,91 @@
+package com.tracktrove.benchmark;
+
+import com.tracktrove.service.WebSocketService;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WebSocketService#broadcast} fanning one message out to N sessions whose
+ * async remote completes every send immediately, i.e. the server-side cost of a
+ * broadcast without network or client in the way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebSocketBroadcastBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int sessions;
+
+    private final WebSocketService webSocketService = new WebSocketService();
+    private final List<Session> openSessions = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void openSessions(Blackhole blackhole) {
+        for (int i = 0; i < sessions; i++) {
+            Session session = mockSession("bench-" + i, blackhole);
+            webSocketService.onOpen(session);
+            openSessions.add(session);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeSessions() {
+        openSessions.forEach(webSocketService::onClose);
+        openSessions.clear();
+    }
+
+    @Benchmark
+    public void broadcast() {
+        webSocketService.broadcast("Settlement run finished: 500 transactions settled");
+    }
+
+    private static Session mockSession(String id, Blackhole blackhole) {
+        RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                WebSocketBroadcastBenchmark.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.Async.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("sendText") && args.length == 2) {
+                        blackhole.consume(args[0]);
+                        ((SendHandler) args[1]).onResult(new SendResult());
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(
+                WebSocketBroadcastBenchmark.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "getAsyncRemote" -> remote;
+                    case "getRequestParameterMap" -> Map.of();
+                    case "isOpen" -> true;
+                    case "hashCode" -> id.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> id;
+                    default -> null;
+                });
+    }
+}
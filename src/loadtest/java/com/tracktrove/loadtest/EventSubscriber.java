@@ -0,0 +1,82 @@
+package com.tracktrove.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * One {@code /ws} client. Reassembles the coalesced
+ * {@code {"type":"transactions","events":[...]}} frames and hands every event to
+ * the tracker, stamped with the time its frame arrived.
+ */
+final class EventSubscriber implements WebSocket.Listener {
+
+    private final LifecycleTracker tracker;
+    private final ObjectMapper objectMapper;
+    private final StringBuilder message = new StringBuilder();
+    private volatile boolean closing;
+    private WebSocket webSocket;
+
+    private EventSubscriber(LifecycleTracker tracker, ObjectMapper objectMapper) {
+        this.tracker = tracker;
+        this.objectMapper = objectMapper;
+    }
+
+    // Only the lifecycle statuses are needed; the server-side filter keeps the rest off the wire
+    static CompletableFuture<EventSubscriber> connect(HttpClient httpClient, URI target, LifecycleTracker tracker,
+                                                      ObjectMapper objectMapper) {
+        EventSubscriber subscriber = new EventSubscriber(tracker, objectMapper);
+        URI uri = URI.create(target.toString().replaceFirst("^http", "ws") + "/ws?status=ESCROW,SETTLED");
+        return httpClient.newWebSocketBuilder().buildAsync(uri, subscriber).thenApply(webSocket -> {
+            subscriber.webSocket = webSocket;
+            return subscriber;
+        });
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        message.append(data);
+        if (last) {
+            long receivedNanos = System.nanoTime();
+            try {
+                JsonNode frame = objectMapper.readTree(message.toString());
+                for (JsonNode event : frame.path("events")) {
+                    tracker.onEvent(UUID.fromString(event.get("transactionId").asText()),
+                            event.path("fromStatus").asText(null), event.get("toStatus").asText(), receivedNanos);
+                }
+            } catch (IOException e) {
+                tracker.onMalformedFrame();
+            }
+            message.setLength(0);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        if (!closing) {
+            tracker.onSubscriberLost(); // e.g. dropped by the server for falling behind
+        }
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        if (!closing) {
+            tracker.onSubscriberLost();
+        }
+    }
+
+    void close() {
+        closing = true;
+        webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "load test finished");
+    }
+}
@@ -0,0 +1,108 @@
+package com.tracktrove.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Joins initiate responses with the status changes subscribers receive and
+ * records the latencies, in microseconds. Every latency is measured from the
+ * moment the request was due to be sent, not when it actually went out, so a
+ * stalled sender shows up in the numbers instead of hiding them.
+ *
+ * <p>ESCROW and SETTLED are recorded once per subscriber that sees them, which is
+ * what a dashboard experiences; {@code settledFirst} only takes the first
+ * subscriber to hear about each transaction, i.e. the pipeline without fan-out.
+ */
+final class LifecycleTracker {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(30);
+
+    final Histogram initiate = histogram();
+    final Histogram escrow = histogram();
+    final Histogram settled = histogram();
+    final Histogram settledFirst = histogram();
+
+    final LongAdder sent = new LongAdder();
+    final LongAdder initiated = new LongAdder();
+    final LongAdder failedInitially = new LongAdder();
+    final LongAdder requestErrors = new LongAdder();
+    final LongAdder eventsReceived = new LongAdder();
+    final LongAdder subscribersLost = new LongAdder();
+    final LongAdder malformedFrames = new LongAdder();
+    final LongAdder noOpTransitions = new LongAdder();
+
+    // Intended send time of every transaction that started out INITIATED
+    private final Map<UUID, Long> startedAt = new ConcurrentHashMap<>();
+    private final Set<UUID> awaitingSettlement = ConcurrentHashMap.newKeySet();
+
+    void onSent() {
+        sent.increment();
+    }
+
+    void onResponse(long intendedStartNanos, UUID transactionId, String status) {
+        initiate.recordValue(micros(System.nanoTime() - intendedStartNanos));
+        if ("INITIATED".equals(status)) {
+            startedAt.put(transactionId, intendedStartNanos);
+            awaitingSettlement.add(transactionId);
+            initiated.increment();
+        } else {
+            // Only reaches ESCROW through a retry, minutes later; not part of the lifecycle timing
+            failedInitially.increment();
+        }
+    }
+
+    void onRequestError() {
+        requestErrors.increment();
+    }
+
+    void onEvent(UUID transactionId, String fromStatus, String toStatus, long receivedNanos) {
+        eventsReceived.increment();
+        if (toStatus.equals(fromStatus)) {
+            // Two paths applied the same change, e.g. a settlement run and the scheduled SETTLED transition
+            noOpTransitions.increment();
+            return;
+        }
+        Long start = startedAt.get(transactionId);
+        if (start == null) {
+            return; // a retried transaction, or one from before this run
+        }
+        long latency = micros(receivedNanos - start);
+        if ("ESCROW".equals(toStatus)) {
+            escrow.recordValue(latency);
+        } else if ("SETTLED".equals(toStatus)) {
+            settled.recordValue(latency);
+            if (awaitingSettlement.remove(transactionId)) {
+                settledFirst.recordValue(latency);
+            }
+        }
+    }
+
+    void onSubscriberLost() {
+        subscribersLost.increment();
+    }
+
+    void onMalformedFrame() {
+        malformedFrames.increment();
+    }
+
+    int awaitingSettlement() {
+        return awaitingSettlement.size();
+    }
+
+    private static Histogram histogram() {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        histogram.setAutoResize(true);
+        return histogram;
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
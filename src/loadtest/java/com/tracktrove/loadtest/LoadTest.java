@@ -0,0 +1,143 @@
+package com.tracktrove.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.support.LocalStandIns;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Capacity run for the whole transaction lifecycle: opens the {@code /ws}
+ * subscribers, drives {@code POST /api/transactions/initiate} at a fixed rate,
+ * then waits for the transactions to settle and writes the report.
+ *
+ * <p>Without a {@code target} it boots the application on a random port against
+ * local Postgres and Redis stand-ins (see {@link LocalStandIns}), with every
+ * scheduler and job running as in production. The report directory receives one
+ * {@code .hgrm} percentile distribution per histogram, in milliseconds, plus
+ * {@code summary.txt}.
+ */
+public final class LoadTest {
+
+    private static final String[] HISTOGRAM_NAMES = {"initiate", "escrow", "settled", "settled-first"};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        LocalStandIns standIns = null;
+        ConfigurableApplicationContext application = null;
+        try {
+            URI target = settings.target();
+            if (target == null) {
+                standIns = LocalStandIns.start();
+                application = standIns.startApplication(Map.of("server.port", 0, "logging.level.root", "WARN"));
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                target = URI.create("http://localhost:" + port);
+            }
+            run(settings, target);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (standIns != null) {
+                standIns.close();
+            }
+        }
+    }
+
+    private static void run(LoadTestSettings settings, URI target) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LifecycleTracker tracker = new LifecycleTracker();
+
+        List<CompletableFuture<EventSubscriber>> connecting = new ArrayList<>(settings.subscribers());
+        for (int i = 0; i < settings.subscribers(); i++) {
+            connecting.add(EventSubscriber.connect(httpClient, target, tracker, objectMapper));
+        }
+        List<EventSubscriber> subscribers = new ArrayList<>(connecting.size());
+        for (CompletableFuture<EventSubscriber> subscriber : connecting) {
+            subscribers.add(subscriber.get(30, TimeUnit.SECONDS));
+        }
+
+        log("%d subscribers connected to %s; sending %d/s for %s", subscribers.size(), target,
+                settings.rate(), settings.duration());
+        long startedAt = System.nanoTime();
+        new TrafficGenerator(httpClient, objectMapper, settings, tracker, target).run();
+        long trafficNanos = System.nanoTime() - startedAt;
+
+        long drainDeadline = System.nanoTime() + settings.drain().toNanos();
+        while (tracker.awaitingSettlement() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+        subscribers.forEach(EventSubscriber::close);
+
+        writeReport(settings, tracker, subscribers.size(), trafficNanos);
+    }
+
+    private static void writeReport(LoadTestSettings settings, LifecycleTracker tracker, int subscribers,
+                                    long trafficNanos) throws IOException {
+        Files.createDirectories(settings.reportDir());
+        Histogram[] histograms = {tracker.initiate, tracker.escrow, tracker.settled, tracker.settledFirst};
+
+        StringBuilder summary = new StringBuilder();
+        double seconds = trafficNanos / 1e9;
+        summary.append(String.format("requested rate      %d/s for %s%n", settings.rate(), settings.duration()));
+        summary.append(String.format("achieved rate       %.1f/s (%d sent)%n", tracker.sent.sum() / seconds,
+                tracker.sent.sum()));
+        summary.append(String.format("initiated / failed  %d / %d, request errors %d%n", tracker.initiated.sum(),
+                tracker.failedInitially.sum(), tracker.requestErrors.sum()));
+        summary.append(String.format("never settled       %d (after %s drain)%n", tracker.awaitingSettlement(),
+                settings.drain()));
+        summary.append(String.format("subscribers         %d, lost %d, events %d, malformed frames %d%n",
+                subscribers, tracker.subscribersLost.sum(), tracker.eventsReceived.sum(),
+                tracker.malformedFrames.sum()));
+        summary.append(String.format("no-op transitions   %d (same status repeated, seen per subscriber)%n",
+                tracker.noOpTransitions.sum()));
+        summary.append(String.format("%n%-14s %10s %10s %10s %10s %10s %10s%n",
+                "latency (ms)", "count", "p50", "p90", "p99", "p99.9", "max"));
+        for (int i = 0; i < histograms.length; i++) {
+            Histogram histogram = histograms[i];
+            summary.append(String.format("%-14s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", HISTOGRAM_NAMES[i],
+                    histogram.getTotalCount(), millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue())));
+
+            Path distribution = settings.reportDir().resolve(HISTOGRAM_NAMES[i] + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(distribution))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        Files.writeString(settings.reportDir().resolve("summary.txt"), summary);
+        System.out.println();
+        System.out.print(summary);
+        log("Report written to %s", settings.reportDir().toAbsolutePath());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Application logging is turned down to WARN, so progress goes straight to stdout
+    private static void log(String format, Object... args) {
+        System.out.println("[loadtest] " + String.format(format, args));
+    }
+}
@@ -0,0 +1,89 @@
+package com.tracktrove.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shape of one load run, parsed from {@code key=value} arguments (a leading
+ * {@code --} is accepted too). Every option has a default:
+ *
+ * <pre>
+ * target=             base URL of a running instance; empty boots stand-ins
+ * rate=200            initiate requests per second
+ * duration=PT1M       how long traffic is generated
+ * drain=PT1M          extra wait for in-flight transactions to settle
+ * success-rate=0.8    simulatedSuccessRate: fixed, or min:max drawn uniformly
+ * vendors=1000        distinct vendor ids
+ * channels=WEB:60,MOBILE:30,API:10   channel mix by weight
+ * currencies=INR,USD  picked uniformly
+ * subscribers=200     /ws connections timing the lifecycle
+ * report-dir=target/loadtest
+ * </pre>
+ */
+public record LoadTestSettings(
+        URI target,
+        int rate,
+        Duration duration,
+        Duration drain,
+        double minSuccessRate,
+        double maxSuccessRate,
+        int vendors,
+        Map<String, Integer> channelWeights,
+        List<String> currencies,
+        int subscribers,
+        Path reportDir
+) {
+
+    private static final Set<String> KEYS = Set.of("target", "rate", "duration", "drain", "success-rate", "vendors",
+            "channels", "currencies", "subscribers", "report-dir");
+
+    public static LoadTestSettings parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            if (separator < 0 || !KEYS.contains(option.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "', expected one of " + KEYS);
+            }
+            options.put(option.substring(0, separator), option.substring(separator + 1));
+        }
+
+        String target = options.getOrDefault("target", "");
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        if (rate <= 0) {
+            // The generator spaces requests 1s/rate apart
+            throw new IllegalArgumentException("rate must be at least 1 request per second");
+        }
+        String[] successRate = options.getOrDefault("success-rate", "0.8").split(":");
+        double minSuccessRate = Double.parseDouble(successRate[0]);
+        double maxSuccessRate = successRate.length > 1 ? Double.parseDouble(successRate[1]) : minSuccessRate;
+        if (minSuccessRate < 0 || maxSuccessRate > 1 || minSuccessRate > maxSuccessRate) {
+            throw new IllegalArgumentException("success-rate must be p or min:max within [0, 1]");
+        }
+
+        Map<String, Integer> channelWeights = new LinkedHashMap<>();
+        for (String entry : options.getOrDefault("channels", "WEB:60,MOBILE:30,API:10").split(",")) {
+            String[] parts = entry.split(":");
+            channelWeights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+
+        return new LoadTestSettings(
+                target.isBlank() ? null : URI.create(target),
+                rate,
+                Duration.parse(options.getOrDefault("duration", "PT1M")),
+                Duration.parse(options.getOrDefault("drain", "PT1M")),
+                minSuccessRate,
+                maxSuccessRate,
+                Integer.parseInt(options.getOrDefault("vendors", "1000")),
+                channelWeights,
+                List.of(options.getOrDefault("currencies", "INR,USD").split(",")),
+                Integer.parseInt(options.getOrDefault("subscribers", "200")),
+                Path.of(options.getOrDefault("report-dir", "target/loadtest")));
+    }
+}
@@ -0,0 +1,123 @@
+package com.tracktrove.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.dto.TransactionDTO;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model traffic: requests go out on a fixed schedule whether or not earlier
+ * ones have been answered, the way independent clients behave. Each
+ * {@link TransactionDTO} draws its vendor, channel, currency, amount and
+ * simulated success rate from the configured distributions.
+ */
+final class TrafficGenerator {
+
+    private static final String PAYLOAD = "{\"orderId\":\"load-order\",\"items\":[{\"sku\":\"A-1\",\"qty\":2}],"
+            + "\"customer\":{\"id\":\"c-42\",\"tier\":\"gold\"}}";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final LoadTestSettings settings;
+    private final LifecycleTracker tracker;
+    private final URI initiateUri;
+    private final UUID[] vendors;
+    private final List<String> channels = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    TrafficGenerator(HttpClient httpClient, ObjectMapper objectMapper, LoadTestSettings settings,
+                     LifecycleTracker tracker, URI target) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.tracker = tracker;
+        this.initiateUri = URI.create(target + "/api/transactions/initiate");
+        this.vendors = new UUID[settings.vendors()];
+        for (int i = 0; i < vendors.length; i++) {
+            vendors[i] = UUID.randomUUID();
+        }
+        this.cumulativeWeights = new int[settings.channelWeights().size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> channel : settings.channelWeights().entrySet()) {
+            total += channel.getValue();
+            cumulativeWeights[channels.size()] = total;
+            channels.add(channel.getKey());
+        }
+    }
+
+    /** Sends at the configured rate until the duration is up; responses are handled asynchronously. */
+    void run() throws JsonProcessingException {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long end = start + settings.duration().toNanos();
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * periodNanos;
+            if (intendedStart >= end) {
+                return;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(intendedStart);
+        }
+    }
+
+    private void send(long intendedStart) throws JsonProcessingException {
+        HttpRequest request = HttpRequest.newBuilder(initiateUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(nextTransaction())))
+                .build();
+        tracker.onSent();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() != 201) {
+                tracker.onRequestError();
+                return;
+            }
+            try {
+                JsonNode transaction = objectMapper.readTree(response.body());
+                tracker.onResponse(intendedStart, UUID.fromString(transaction.get("id").asText()),
+                        transaction.get("currentStatus").asText());
+            } catch (JsonProcessingException e) {
+                tracker.onRequestError();
+            }
+        });
+    }
+
+    private TransactionDTO nextTransaction() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TransactionDTO dto = new TransactionDTO();
+        dto.setVendorId(vendors[random.nextInt(vendors.length)]);
+        dto.setAmount(BigDecimal.valueOf(random.nextLong(100, 50_001), 2)); // 1.00 to 500.00
+        dto.setCurrency(settings.currencies().get(random.nextInt(settings.currencies().size())));
+        dto.setChannel(nextChannel(random));
+        dto.setInitialPayloadJson(PAYLOAD);
+        dto.setSimulatedSuccessRate(settings.minSuccessRate() == settings.maxSuccessRate()
+                ? settings.minSuccessRate()
+                : random.nextDouble(settings.minSuccessRate(), settings.maxSuccessRate()));
+        return dto;
+    }
+
+    private String nextChannel(ThreadLocalRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return channels.get(i);
+            }
+        }
+        return channels.get(channels.size() - 1);
+    }
+}
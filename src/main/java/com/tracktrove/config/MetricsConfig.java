@@ -0,0 +1,176 @@
+package com.tracktrove.config;
+
+import com.tracktrove.redis.EscrowTimerWheel;
+import com.tracktrove.scheduler.EscrowQueueConsumer;
+import com.tracktrove.service.IdempotencyService;
+import com.tracktrove.service.LedgerReconciliationService;
+import com.tracktrove.service.OutboxRelay;
+import com.tracktrove.service.PartitionManager;
+import com.tracktrove.service.TraceWriter;
+import com.tracktrove.service.TransactionCache;
+import com.tracktrove.service.TransitionEngine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the in-process stats of the background components as meters, next to
+ * the ones Spring Boot binds on its own (Hikari pool, JVM, HTTP server,
+ * {@code @Scheduled} tasks). Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Gauges read the sorted sets at scrape time, so they keep moving even when every poller is stuck
+    @Bean
+    public MeterBinder escrowTimerMetrics(EscrowTimerWheel escrowTimerWheel) {
+        return registry -> {
+            Gauge.builder("tracktrove.escrow.timers.lag", () -> escrowTimerWheel.lag().toMillis() / 1000.0)
+                    .description("Age of the earliest due escrow timer nobody has claimed yet")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("tracktrove.escrow.timers.pending", escrowTimerWheel::pendingCount)
+                    .description("Escrow deadlines scheduled and not claimed by any replica yet")
+                    .register(registry);
+            Gauge.builder("tracktrove.escrow.timers.inflight", escrowTimerWheel::inflightCount)
+                    .description("Escrow deadlines claimed and leased, waiting for their ack")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder escrowQueueMetrics(EscrowQueueConsumer escrowQueueConsumer) {
+        return registry -> {
+            Gauge.builder("tracktrove.escrow.queue.backlog", () -> escrowQueueConsumer.stats().backlog())
+                    .description("Entries in the escrow queue stream not processed yet, pending included")
+                    .register(registry);
+            Gauge.builder("tracktrove.escrow.queue.pending", () -> escrowQueueConsumer.stats().pending())
+                    .description("Entries delivered to a consumer and not acknowledged yet")
+                    .register(registry);
+            Gauge.builder("tracktrove.escrow.queue.lag",
+                            () -> escrowQueueConsumer.stats().oldestAge().toMillis() / 1000.0)
+                    .description("Age of the oldest unprocessed entry in the escrow queue stream")
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.escrow.queue.consumed", escrowQueueConsumer,
+                            EscrowQueueConsumer::consumedCount)
+                    .description("Entries processed and acknowledged by this replica")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.escrow.queue.escrowed", escrowQueueConsumer,
+                            EscrowQueueConsumer::escrowedCount)
+                    .description("Queued ids that were still INITIATED and have been escrowed")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.escrow.queue.reclaimed", escrowQueueConsumer,
+                            EscrowQueueConsumer::reclaimedCount)
+                    .description("Stalled entries this replica took over from another consumer")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.escrow.queue.dead.lettered", escrowQueueConsumer,
+                            EscrowQueueConsumer::deadLetteredCount)
+                    .description("Entries moved to the dead-letter stream after max-deliveries failed attempts")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder traceWriterMetrics(TraceWriter traceWriter) {
+        return registry -> {
+            Gauge.builder("tracktrove.trace.buffered", () -> traceWriter.stats().buffered())
+                    .description("Traces waiting in the writer's ring buffer")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.trace.written", traceWriter, writer -> writer.stats().written())
+                    .description("Traces inserted into the database")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.trace.dropped", traceWriter, writer -> writer.stats().dropped())
+                    .description("Traces lost: debug traces on overflow, and traces that could not be spilled")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.trace.spilled", traceWriter, writer -> writer.stats().spilled())
+                    .description("Traces appended to the spill file for replay on the next start")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder outboxRelayMetrics(OutboxRelay outboxRelay) {
+        return registry -> {
+            Gauge.builder("tracktrove.outbox.lag", () -> outboxRelay.lag().toMillis() / 1000.0)
+                    .description("Delay between a status change and its relay, for the latest event relayed")
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.outbox.relayed", outboxRelay, OutboxRelay::relayedCount)
+                    .description("Outbox events this replica delivered and removed from the outbox")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.outbox.failed.batches", outboxRelay, OutboxRelay::failedBatchCount)
+                    .description("Relay passes that failed; their rows stay in the outbox for the next pass")
+                    .register(registry);
+        };
+    }
+
+    // A steady share of lost transitions is normal (timers, sweeps and scheduled steps overlap)
+    @Bean
+    public MeterBinder transitionEngineMetrics(TransitionEngine transitionEngine) {
+        return registry -> {
+            FunctionCounter.builder("tracktrove.transitions", transitionEngine, TransitionEngine::wonCount)
+                    .description("Single-transaction status changes, by compare-and-set outcome")
+                    .tag("outcome", "won")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.transitions", transitionEngine, TransitionEngine::lostCount)
+                    .description("Single-transaction status changes, by compare-and-set outcome")
+                    .tag("outcome", "lost")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder ledgerReconciliationMetrics(LedgerReconciliationService reconciliationService) {
+        return registry -> {
+            FunctionCounter.builder("tracktrove.reconcile.checked", reconciliationService,
+                            LedgerReconciliationService::checkedCount)
+                    .description("Transactions checked against their ledger postings")
+                    .register(registry);
+            FunctionCounter.builder("tracktrove.reconcile.discrepancies", reconciliationService,
+                            LedgerReconciliationService::discrepancyCount)
+                    .description("Ledger discrepancies found, counted on every check that finds them")
+                    .register(registry);
+        };
+    }
+
+    // Anything above zero means the partition job fell behind or rows carry out-of-range timestamps
+    @Bean
+    public MeterBinder partitionMetrics(PartitionManager partitionManager) {
+        return registry -> {
+            for (String table : new String[]{"trace", "ledger_entry"}) {
+                Gauge.builder("tracktrove.partitions.default.rows", () -> partitionManager.defaultPartitionRows(table))
+                        .description("Rows in the table's DEFAULT partition, outside every monthly partition")
+                        .tag("table", table)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder idempotencyMetrics(IdempotencyService idempotencyService) {
+        return registry -> FunctionCounter.builder("tracktrove.idempotency.replays", idempotencyService,
+                        IdempotencyService::replayCount)
+                .description("Initiate requests answered with an earlier response for the same key")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder transactionCacheMetrics(TransactionCache transactionCache) {
+        return registry -> {
+            Gauge.builder("tracktrove.cache.hit.ratio", () -> transactionCache.stats().localHitRate())
+                    .description("Share of transaction cache lookups served from the local tier, or from either tier (overall)")
+                    .tag("tier", "local")
+                    .register(registry);
+            Gauge.builder("tracktrove.cache.hit.ratio", () -> transactionCache.stats().overallHitRate())
+                    .description("Share of transaction cache lookups served from the local tier, or from either tier (overall)")
+                    .tag("tier", "overall")
+                    .register(registry);
+            Gauge.builder("tracktrove.cache.size", () -> transactionCache.stats().localSize())
+                    .description("Entries in this replica's local status and transaction caches")
+                    .register(registry);
+        };
+    }
+}
@@ -1,7 +1,9 @@
 package com.tracktrove.config;
 
+import com.tracktrove.job.JobMetricsListener;
 import com.tracktrove.scheduler.SettlementJob;
 import org.quartz.*;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -24,6 +26,10 @@ public class QuartzConfig {
                 .withSchedule(CronScheduleBuilder.cronSchedule("0 0/5 * * * ?")) // Every 5 mins
                 .build();
     }
-}
-
 
+    // Times every job run and records how many rows it processed
+    @Bean
+    public SchedulerFactoryBeanCustomizer jobMetricsCustomizer(JobMetricsListener jobMetricsListener) {
+        return schedulerFactoryBean -> schedulerFactoryBean.setGlobalJobListeners(jobMetricsListener);
+    }
+}
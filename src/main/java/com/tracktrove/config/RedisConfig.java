@@ -1,20 +1,35 @@
 package com.tracktrove.config;
 
-import com.tracktrove.redis.KeyExpiredListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.listener.*;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
 
 @Configuration
 public class RedisConfig {
 
+    // Atomic pop-by-score for the escrow timer wheel, see redis/claim-due-timers.lua
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> claimDueTimersScript() {
+        return RedisScript.of(new ClassPathResource("redis/claim-due-timers.lua"), List.class);
+    }
+
+    // Cache write-back that loses to any invalidation since the read, see redis/cache-set-if-generation.lua
+    @Bean
+    public RedisScript<Long> cacheSetIfGenerationScript() {
+        return RedisScript.of(new ClassPathResource("redis/cache-set-if-generation.lua"), Long.class);
+    }
+
+    // Pub/sub subscriptions, e.g. cross-replica cache invalidation
     @Bean
-    public RedisMessageListenerContainer redisContainer(RedisConnectionFactory connectionFactory,
-                                                        KeyExpiredListener listener) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.addMessageListener(listener, new PatternTopic("__keyevent@0__:expired"));
         return container;
     }
 
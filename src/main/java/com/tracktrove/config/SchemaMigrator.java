@@ -0,0 +1,219 @@
+package com.tracktrove.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies versioned SQL from {@code classpath:db/migration/V<n>__<description>.sql}
+ * for what {@code ddl-auto: update} cannot express: composite and partial
+ * indexes, partitioning, data backfills. It runs once Hibernate has created or
+ * updated the tables (hence the EntityManagerFactory dependency) and before any
+ * scheduler starts. A Postgres advisory lock keeps replicas from racing.
+ * Scripts containing {@code $$} (function bodies, DO blocks) cannot be split on
+ * ';' and are sent as a single statement instead.
+ * <p>
+ * A script runs in one transaction together with its schema_migration row, so a
+ * failure leaves nothing behind and the next start retries it. Scripts using
+ * {@code CONCURRENTLY} cannot run inside a transaction and are executed in
+ * auto-commit; if one fails part-way its row is recorded as failed and startup
+ * is refused until someone has cleaned up (e.g. dropped the INVALID index) and
+ * deleted that row. Each row keeps the SHA-256 of its script, and startup is
+ * also refused when an applied script has since been edited.
+ */
+@Component
+public class SchemaMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final Pattern CONCURRENTLY = Pattern.compile("\\bCONCURRENTLY\\b", Pattern.CASE_INSENSITIVE);
+    private static final long ADVISORY_LOCK_KEY = 0x7472616b74726f76L; // "traktrov"
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaMigrator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() throws IOException {
+        List<Migration> migrations = discover();
+        jdbcTemplate.execute((Connection connection) -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        CREATE TABLE IF NOT EXISTS schema_migration (
+                            version INT PRIMARY KEY,
+                            description TEXT NOT NULL,
+                            applied_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                        )""");
+                // Rows written before these columns existed are taken as successful and baselined below
+                statement.execute("ALTER TABLE schema_migration ADD COLUMN IF NOT EXISTS checksum TEXT");
+                statement.execute("ALTER TABLE schema_migration "
+                        + "ADD COLUMN IF NOT EXISTS success BOOLEAN NOT NULL DEFAULT true");
+                statement.execute("SELECT pg_advisory_lock(" + ADVISORY_LOCK_KEY + ")");
+            }
+            try {
+                Map<Integer, AppliedMigration> applied = appliedMigrations(connection);
+                for (Migration migration : migrations) {
+                    AppliedMigration previous = applied.get(migration.version());
+                    if (previous == null) {
+                        apply(connection, migration);
+                    } else {
+                        verify(connection, migration, previous);
+                    }
+                }
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT pg_advisory_unlock(" + ADVISORY_LOCK_KEY + ")");
+                }
+            }
+            return null;
+        });
+    }
+
+    private List<Migration> discover() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+        List<Migration> migrations = new ArrayList<>(resources.length);
+        for (Resource resource : resources) {
+            Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+            if (matcher.matches()) {
+                String sql = readScript(new EncodedResource(resource, StandardCharsets.UTF_8));
+                migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                        matcher.group(2).replace('_', ' '), resource, sql, checksum(sql)));
+            }
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    private Map<Integer, AppliedMigration> appliedMigrations(Connection connection) throws SQLException {
+        Map<Integer, AppliedMigration> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum, success FROM schema_migration")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), new AppliedMigration(rs.getString(2), rs.getBoolean(3)));
+            }
+        }
+        return applied;
+    }
+
+    private void verify(Connection connection, Migration migration, AppliedMigration previous) throws SQLException {
+        if (!previous.success()) {
+            throw new IllegalStateException("Migration V" + migration.version() + " failed part-way on an earlier"
+                    + " start; undo what it left behind and delete its schema_migration row to retry it");
+        }
+        if (previous.checksum() == null) {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE schema_migration SET checksum = ? WHERE version = ?")) {
+                update.setString(1, migration.checksum());
+                update.setInt(2, migration.version());
+                update.executeUpdate();
+            }
+        } else if (!previous.checksum().equals(migration.checksum())) {
+            throw new IllegalStateException("Migration V" + migration.version() + " was edited after it was applied;"
+                    + " add a new version instead (applied " + previous.checksum()
+                    + ", now " + migration.checksum() + ")");
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        if (CONCURRENTLY.matcher(migration.sql()).find()) {
+            try {
+                execute(connection, migration);
+            } catch (RuntimeException e) {
+                // Statements before the failing one are committed already
+                record(connection, migration, false);
+                throw e;
+            }
+            record(connection, migration, true);
+        } else {
+            connection.setAutoCommit(false);
+            try {
+                execute(connection, migration);
+                record(connection, migration, true);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        log.info("Applied migration V{} ({})", migration.version(), migration.description());
+    }
+
+    private static void execute(Connection connection, Migration migration) {
+        EncodedResource script = new EncodedResource(migration.resource(), StandardCharsets.UTF_8);
+        if (migration.sql().contains("$$")) {
+            ScriptUtils.executeSqlScript(connection, script, false, false, ScriptUtils.DEFAULT_COMMENT_PREFIXES,
+                    ScriptUtils.EOF_STATEMENT_SEPARATOR, ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER,
+                    ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+        } else {
+            ScriptUtils.executeSqlScript(connection, script);
+        }
+    }
+
+    private static void record(Connection connection, Migration migration, boolean success) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO schema_migration (version, description, checksum, success) VALUES (?, ?, ?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.setString(3, migration.checksum());
+            insert.setBoolean(4, success);
+            insert.executeUpdate();
+        }
+    }
+
+    // Line endings are normalised so a checkout with CRLF does not count as an edit
+    private static String checksum(String sql) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readScript(EncodedResource script) {
+        try {
+            return script.getContentAsString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read migration " + script.getResource().getFilename(), e);
+        }
+    }
+
+    private record Migration(int version, String description, Resource resource, String sql, String checksum) {
+    }
+
+    private record AppliedMigration(String checksum, boolean success) {
+    }
+}
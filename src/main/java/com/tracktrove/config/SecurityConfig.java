@@ -38,6 +38,7 @@ public class SecurityConfig {
         ));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        config.setExposedHeaders(List.of("X-Next-Cursor")); // Keyset cursor for GET /api/transactions
         config.setAllowCredentials(true);
         config.setMaxAge(3600L); // Preflight cache duration
 
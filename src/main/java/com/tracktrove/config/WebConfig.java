@@ -13,6 +13,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:5173") // Allow requests from your frontend's origin
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS") // Allow common HTTP methods
                 .allowedHeaders("*") // Allow all headers
+                .exposedHeaders("X-Next-Cursor") // Let the frontend read the next-page cursor
                 .allowCredentials(true) // Allow sending cookies/auth headers
                 .maxAge(3600); // Max age of the CORS pre-flight request result
     }
@@ -1,47 +1,56 @@
 package com.tracktrove.controller;
 
-import com.tracktrove.entity.Transaction;
 import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.redis.EscrowQueue;
+import com.tracktrove.redis.EscrowTimerWheel;
 import com.tracktrove.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Set;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/admin/patch")
 public class AdminPatchController {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminPatchController.class);
+
     @Autowired
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private RedisTemplate<String, String> redisTemplate;
+    private EscrowQueue escrowQueue;
 
-    @PostMapping("/initiated-to-queue")
-    public ResponseEntity<String> patchInitiatedTxns() {
-        List<Transaction> txns = transactionRepository.findByCurrentStatus(TransactionStatus.INITIATED);
+    @Autowired
+    private EscrowTimerWheel escrowTimerWheel;
 
-        txns.forEach(txn -> {
-            redisTemplate.opsForList().rightPush("transaction_queue", txn.getId().toString());
-            System.out.println("📦 Pushed to Redis queue: " + txn.getId());
-        });
+    // The request thread is released while the pushes are in flight
+    @PostMapping("/initiated-to-queue")
+    public Mono<ResponseEntity<String>> patchInitiatedTxns() {
+        List<UUID> txnIds = transactionRepository.findIdsByCurrentStatus(TransactionStatus.INITIATED);
 
-        return ResponseEntity.ok("✅ Pushed " + txns.size() + " INITIATED txns to queue.");
+        return escrowQueue.enqueueAll(txnIds)
+                .doOnNext(added -> log.info("Added {} txns to the escrow queue stream", added))
+                .thenReturn(ResponseEntity.ok("✅ Pushed " + txnIds.size() + " INITIATED txns to queue."));
     }
 
     @GetMapping("/debug/ttl")
     public void printTTLs() {
-        Set<String> keys = redisTemplate.keys("txn:*");
-        for (String key : keys) {
-            Long ttl = redisTemplate.getExpire(key);
-            System.out.println("Key: " + key + " has TTL: " + ttl);
+        long now = System.currentTimeMillis();
+        log.info("Escrow timers pending: {}, in flight: {}", escrowTimerWheel.pendingCount(),
+                escrowTimerWheel.inflightCount());
+        for (ZSetOperations.TypedTuple<String> timer : escrowTimerWheel.peek(100)) {
+            long dueInSeconds = (timer.getScore().longValue() - now) / 1000;
+            log.info("Txn: {} escrow due in: {}s", timer.getValue(), dueInSeconds);
         }
     }
 
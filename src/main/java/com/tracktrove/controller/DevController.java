@@ -1,6 +1,17 @@
 package com.tracktrove.controller;
 
+import com.tracktrove.dto.CacheStats;
+import com.tracktrove.dto.EscrowQueueStats;
+import com.tracktrove.dto.TraceWriterStats;
+import com.tracktrove.dto.TransitionSchedulerStats;
+import com.tracktrove.dto.WebSocketStats;
+import com.tracktrove.job.RetryJob;
+import com.tracktrove.scheduler.EscrowQueueConsumer;
 import com.tracktrove.scheduler.SettlementJob;
+import com.tracktrove.service.TraceWriter;
+import com.tracktrove.service.TransactionCache;
+import com.tracktrove.service.TransitionScheduler;
+import com.tracktrove.service.WebSocketService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,19 +22,72 @@ import org.springframework.web.bind.annotation.RestController;
 public class DevController {
 
     private final SettlementJob settlementJob;
+    private final RetryJob retryJob;
+    private final WebSocketService webSocketService;
+    private final TransitionScheduler transitionScheduler;
+    private final TraceWriter traceWriter;
+    private final TransactionCache transactionCache;
+    private final EscrowQueueConsumer escrowQueueConsumer;
 
-    public DevController(SettlementJob settlementJob) {
+    public DevController(SettlementJob settlementJob, RetryJob retryJob, WebSocketService webSocketService,
+                         TransitionScheduler transitionScheduler, TraceWriter traceWriter,
+                         TransactionCache transactionCache, EscrowQueueConsumer escrowQueueConsumer) {
         this.settlementJob = settlementJob;
+        this.retryJob = retryJob;
+        this.webSocketService = webSocketService;
+        this.transitionScheduler = transitionScheduler;
+        this.traceWriter = traceWriter;
+        this.transactionCache = transactionCache;
+        this.escrowQueueConsumer = escrowQueueConsumer;
     }
 
+    // Returns the run report (settled count, rows/sec, remaining backlog) as JSON
     @GetMapping("/run-settlement")
-    public ResponseEntity<String> runSettlementJob() {
+    public ResponseEntity<?> runSettlementJob() {
         try {
-            settlementJob.execute(null); // You can pass a dummy JobExecutionContext if needed
-            return ResponseEntity.ok("✅ SettlementJob executed manually");
+            return ResponseEntity.ok(settlementJob.runSettlement());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("❌ SettlementJob failed: " + e.getMessage());
         }
     }
-}
 
+    // Runs one retry pass on this replica and returns its report
+    @GetMapping("/run-retry")
+    public ResponseEntity<?> runRetryJob() {
+        try {
+            return ResponseEntity.ok(retryJob.runRetries());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("❌ RetryJob failed: " + e.getMessage());
+        }
+    }
+
+    // Queue depth, drops and slow-client disconnects for the WebSocket fan-out
+    @GetMapping("/websocket-stats")
+    public ResponseEntity<WebSocketStats> webSocketStats() {
+        return ResponseEntity.ok(webSocketService.stats());
+    }
+
+    // Pending and overdue scheduled transitions, and how far behind the oldest one is
+    @GetMapping("/transition-stats")
+    public ResponseEntity<TransitionSchedulerStats> transitionStats() {
+        return ResponseEntity.ok(transitionScheduler.stats());
+    }
+
+    // Buffer depth, and how many traces were written, dropped or spilled to disk
+    @GetMapping("/trace-writer-stats")
+    public ResponseEntity<TraceWriterStats> traceWriterStats() {
+        return ResponseEntity.ok(traceWriter.stats());
+    }
+
+    // Hit and miss rates of the local (Caffeine) and Redis tiers of the transaction cache
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CacheStats> cacheStats() {
+        return ResponseEntity.ok(transactionCache.stats());
+    }
+
+    // Backlog, pending entries and age of the oldest entry of the escrow queue stream
+    @GetMapping("/escrow-queue-stats")
+    public ResponseEntity<EscrowQueueStats> escrowQueueStats() {
+        return ResponseEntity.ok(escrowQueueConsumer.stats());
+    }
+}
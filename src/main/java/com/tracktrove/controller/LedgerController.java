@@ -1,35 +1,49 @@
 package com.tracktrove.controller;
 
+import com.tracktrove.dto.LedgerBalance;
 import com.tracktrove.entity.LedgerEntry;
-import com.tracktrove.entity.Transaction;
-import com.tracktrove.repository.LedgerEntryRepository;
+import com.tracktrove.entity.enums.LedgerAccount;
+import com.tracktrove.service.LedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/ledger")
 public class LedgerController {
-    private final LedgerEntryRepository ledgerRepo;
+    private final LedgerService ledgerService;
 
-    public LedgerController(LedgerEntryRepository ledgerRepo) {
-        this.ledgerRepo = ledgerRepo;
+    public LedgerController(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
     }
 
     @GetMapping("/{transactionId}")
     public ResponseEntity<List<LedgerEntry>> getLedger(@PathVariable UUID transactionId) {
-        List<LedgerEntry> entries = ledgerRepo.findByTransactionId(transactionId);
+        List<LedgerEntry> entries = ledgerService.getEntriesForTransaction(transactionId);
         return entries.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(entries);
     }
+
+    // Recent entries only: defaults to the hot window so older monthly partitions are never scanned
     @GetMapping
-    public ResponseEntity<List<LedgerEntry>> getAllLedgerEntry() {
-        List<LedgerEntry> ledger = ledgerRepo.findAll();
+    public ResponseEntity<List<LedgerEntry>> getAllLedgerEntry(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        List<LedgerEntry> ledger = ledgerService.getRecentEntries(since);
         return ResponseEntity.ok(ledger);
     }
-}
 
+    // Running balances of the vendor's accounts, one row per account and currency, in minor units
+    @GetMapping("/balances/{vendorId}")
+    public ResponseEntity<List<LedgerBalance>> getBalances(
+            @PathVariable UUID vendorId,
+            @RequestParam(required = false) LedgerAccount account) {
+        return ResponseEntity.ok(ledgerService.getBalances(vendorId, account));
+    }
+}
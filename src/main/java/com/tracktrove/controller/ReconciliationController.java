@@ -0,0 +1,35 @@
+package com.tracktrove.controller;
+
+import com.tracktrove.dto.ReconciliationReport;
+import com.tracktrove.dto.ReconciliationRun;
+import com.tracktrove.service.LedgerReconciliationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/reconcile")
+public class ReconciliationController {
+    private static final int MAX_LIMIT = 1000;
+
+    private final LedgerReconciliationService ledgerReconciliationService;
+
+    public ReconciliationController(LedgerReconciliationService ledgerReconciliationService) {
+        this.ledgerReconciliationService = ledgerReconciliationService;
+    }
+
+    // Open discrepancies as of the last passes; reads the watermark and the findings table only
+    @GetMapping
+    public ResponseEntity<ReconciliationReport> getReport(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ledgerReconciliationService.report(Math.max(0, Math.min(limit, MAX_LIMIT))));
+    }
+
+    // Runs a pass now instead of waiting for the schedule; ran=false if another replica is mid-pass
+    @PostMapping("/run")
+    public ResponseEntity<ReconciliationRun> run() {
+        return ResponseEntity.ok(ledgerReconciliationService.reconcile());
+    }
+}
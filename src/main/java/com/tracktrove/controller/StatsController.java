@@ -0,0 +1,24 @@
+package com.tracktrove.controller;
+
+import com.tracktrove.dto.DashboardStats;
+import com.tracktrove.service.DashboardStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+    private final DashboardStatsService dashboardStatsService;
+
+    public StatsController(DashboardStatsService dashboardStatsService) {
+        this.dashboardStatsService = dashboardStatsService;
+    }
+
+    // Served from the in-memory snapshot: cost does not depend on the size of the transaction table
+    @GetMapping
+    public ResponseEntity<DashboardStats> getStats() {
+        return ResponseEntity.ok(dashboardStatsService.snapshot());
+    }
+}
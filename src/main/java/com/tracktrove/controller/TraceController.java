@@ -1,7 +1,7 @@
 package com.tracktrove.controller;
 
 import com.tracktrove.entity.Trace;
-import com.tracktrove.repository.TraceRepository;
+import com.tracktrove.service.TraceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,11 +17,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TraceController {
 
-    private final TraceRepository traceRepository;
+    private final TraceService traceService;
 
     @GetMapping("/{transactionId}")
     public ResponseEntity<List<Trace>> getTraces(@PathVariable UUID transactionId) {
-        List<Trace> traces = traceRepository.findByTransactionId(transactionId);
+        List<Trace> traces = traceService.getTracesForTransaction(transactionId);
 
         if (traces.isEmpty()) {
             return ResponseEntity.noContent().build();
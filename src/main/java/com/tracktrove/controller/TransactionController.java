@@ -1,18 +1,37 @@
 package com.tracktrove.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.dto.BatchIngestResponse;
+import com.tracktrove.dto.InitiateResult;
+import com.tracktrove.dto.TransactionCursor;
 import com.tracktrove.dto.TransactionDTO; // Import the DTO
+import com.tracktrove.dto.TransactionStatusView;
+import com.tracktrove.dto.TransactionTimeline;
 import com.tracktrove.entity.Trace;
 import com.tracktrove.entity.Transaction; // Import the Entity
 import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.service.IdempotencyService;
 import com.tracktrove.service.TraceService;
+import com.tracktrove.service.TransactionIngestService;
 import com.tracktrove.service.TransactionService;
 import com.tracktrove.service.WebSocketService; // Import the WebSocketService
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid; // Import for validation
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,26 +40,95 @@ import java.util.UUID;
 @RequestMapping("/api/transactions") // Base path for transaction related APIs
 public class TransactionController {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
+
     private final TransactionService transactionService;
+    private final TransactionIngestService transactionIngestService;
+    private final IdempotencyService idempotencyService;
     private final TraceService traceService;
     private final WebSocketService webSocketService; // Inject the WebSocketService
+    private final ObjectMapper objectMapper;
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
-    public TransactionController(TransactionService transactionService, TraceService traceService, WebSocketService webSocketService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionIngestService transactionIngestService,
+                                 IdempotencyService idempotencyService, TraceService traceService,
+                                 WebSocketService webSocketService, ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.transactionIngestService = transactionIngestService;
+        this.idempotencyService = idempotencyService;
         this.traceService = traceService;
         this.webSocketService = webSocketService;
+        this.objectMapper = objectMapper;
     }
 
     // API: POST /api/transactions/initiate
     // Goal: Creates an INITIATED transaction
+    // With an Idempotency-Key (header, or the idempotencyKey field) a repeat of the same
+    // vendor and key returns the original transaction instead of creating another one;
+    // 409 while the first request is still being processed elsewhere, 422 if the key was
+    // first used with a different request.
     @PostMapping("/initiate")
     public ResponseEntity<Transaction> initiateTransaction(
-            @Valid @RequestBody TransactionDTO transactionDTO
+            @Valid @RequestBody TransactionDTO transactionDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
     ) {
-        Transaction newTransaction = transactionService.initiateTransaction(transactionDTO);
-        System.out.println("🛬 Controller: /initiate endpoint hit");
+        log.debug("/initiate endpoint hit");
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                return ResponseEntity.badRequest().build();
+            }
+            transactionDTO.setIdempotencyKey(idempotencyKey);
+        }
+        if (transactionDTO.getIdempotencyKey() == null) {
+            Transaction newTransaction = transactionService.initiateTransaction(transactionDTO);
+            return new ResponseEntity<>(newTransaction, HttpStatus.CREATED);
+        }
 
-        return new ResponseEntity<>(newTransaction, HttpStatus.CREATED);
+        InitiateResult result = idempotencyService.initiate(transactionDTO);
+        if (result.outcome() == InitiateResult.Outcome.IN_PROGRESS) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        if (result.outcome() == InitiateResult.Outcome.MISMATCH) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER,
+                        String.valueOf(result.outcome() == InitiateResult.Outcome.REPLAYED))
+                .body(result.transaction());
+    }
+
+    // API: POST /api/transactions/batch
+    // Accepts a JSON array or an NDJSON stream of TransactionDTO. Items are parsed
+    // lazily, so the request body is never held in memory as a whole; the response
+    // lists a result per item in request order. A batch that stops early (400 for a
+    // malformed item, 413 past max-items, 500 for a failed chunk) still gets the
+    // results of every item before that point: chunks written so far stay committed.
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<BatchIngestResponse> ingestBatch(HttpServletRequest request) throws IOException {
+        BatchIngestResponse response;
+        try (MappingIterator<TransactionDTO> items = objectMapper.readerFor(TransactionDTO.class)
+                .readValues(request.getInputStream())) {
+            response = transactionIngestService.ingest(items);
+        } catch (JsonProcessingException e) {
+            response = new BatchIngestResponse(0, 0, 0, List.of(), TransactionIngestService.malformedItem(0, e));
+        }
+        if (response.aborted() == null) {
+            return ResponseEntity.ok(response);
+        }
+        HttpStatus status = switch (response.aborted().reason()) {
+            case LIMIT_EXCEEDED -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case MALFORMED_ITEM -> HttpStatus.BAD_REQUEST;
+            case WRITE_FAILED -> HttpStatus.INTERNAL_SERVER_ERROR;
+        };
+        return ResponseEntity.status(status).body(response);
     }
 
     @GetMapping("/retry-pending")
@@ -58,6 +146,21 @@ public class TransactionController {
         return ResponseEntity.ok(retryHistory);
     }
 
+    // API: GET /api/transactions/{id}/timeline?afterSeq=&limit=
+    // Current state from the snapshot plus the events numbered after afterSeq, oldest
+    // first. Poll with afterSeq = the lastSeq of the previous response for new events only.
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<TransactionTimeline> getTransactionTimeline(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") long afterSeq,
+            @RequestParam(defaultValue = "" + MAX_PAGE_SIZE) int limit
+    ) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return transactionService.getTimeline(id, Math.max(0, afterSeq), pageSize)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{id}/error-stack")
     public ResponseEntity<String> getTransactionErrorStack(@PathVariable UUID id) {
         String errorStack = traceService.getLastErrorStackForTransaction(id);
@@ -72,22 +175,22 @@ public class TransactionController {
         try {
             Transaction updatedTransaction = transactionService.forceManualRetry(id);
             return ResponseEntity.ok(updatedTransaction);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    // Only a SETTLED transaction can be disputed; the status guard is part of the update itself
     @PatchMapping("/{id}/open-dispute")
     public ResponseEntity<Transaction> openDispute(@PathVariable UUID id) {
         try {
-            Transaction transaction = transactionService.getById(id);
-            if (transaction.getCurrentStatus() == TransactionStatus.SETTLED) {
-                Transaction updatedTransaction = transactionService.updateTransactionStatus(id, TransactionStatus.DISPUTE_OPEN);
-                webSocketService.broadcast(String.format("Dispute opened for transaction %s.", id.toString().substring(0, 8)));
-                return ResponseEntity.ok(updatedTransaction);
-            } else {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
-            }
+            Transaction updatedTransaction = transactionService.updateTransactionStatus(id, TransactionStatus.DISPUTE_OPEN);
+            webSocketService.broadcast(String.format("Dispute opened for transaction %s.", id.toString().substring(0, 8)));
+            return ResponseEntity.ok(updatedTransaction);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -96,23 +199,67 @@ public class TransactionController {
     @PatchMapping("/{id}/resolve-dispute")
     public ResponseEntity<Transaction> resolveDispute(@PathVariable UUID id) {
         try {
-            Transaction transaction = transactionService.getById(id);
-            if (transaction.getCurrentStatus() == TransactionStatus.DISPUTE_OPEN) {
-                Transaction updatedTransaction = transactionService.updateTransactionStatus(id, TransactionStatus.DISPUTE_RESOLVED);
-                webSocketService.broadcast(String.format("Dispute resolved for transaction %s.", id.toString().substring(0, 8)));
-                return ResponseEntity.ok(updatedTransaction);
-            } else {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
-            }
+            Transaction updatedTransaction = transactionService.updateTransactionStatus(id, TransactionStatus.DISPUTE_RESOLVED);
+            webSocketService.broadcast(String.format("Dispute resolved for transaction %s.", id.toString().substring(0, 8)));
+            return ResponseEntity.ok(updatedTransaction);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    // API: GET /api/transactions?status=&vendorId=&channel=&cursor=&limit=
+    // Keyset-paginated on (createdAt, id). The body stays a plain array; when more rows
+    // may follow, the cursor for the next page is returned in the X-Next-Cursor header.
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        List<Transaction> transactions = transactionService.getAllTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<Transaction>> getAllTransactions(
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) UUID vendorId,
+            @RequestParam(required = false) String channel,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        TransactionCursor after;
+        try {
+            after = cursor != null ? TransactionCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<Transaction> transactions = transactionService.getTransactionsPage(status, vendorId, channel, after, pageSize);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (transactions.size() == pageSize) {
+            Transaction last = transactions.get(transactions.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, TransactionCursor.after(last).encode());
+        }
+        return response.body(transactions);
+    }
+
+    // API: GET /api/transactions/export?status=&vendorId=&channel=
+    // Streams every matching transaction as NDJSON from a server-side cursor,
+    // so memory use does not grow with the size of the export.
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) UUID vendorId,
+            @RequestParam(required = false) String channel
+    ) {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+            transactionService.streamTransactions(status, vendorId, channel, txn -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(txn));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().header("Content-Type", NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -125,11 +272,12 @@ public class TransactionController {
         }
     }
 
+    // Served from the status-only cache entry; the full entity is never loaded
     @GetMapping("/{id}/status")
     public ResponseEntity<String> getTransactionById(@PathVariable UUID id) {
         try {
-            Transaction transaction = transactionService.getById(id);
-            return ResponseEntity.ok(transaction.getCurrentStatus().toString());
+            TransactionStatusView status = transactionService.getStatusById(id);
+            return ResponseEntity.ok(status.currentStatus().toString());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -0,0 +1,21 @@
+package com.tracktrove.dto;
+
+import java.util.List;
+
+/**
+ * Result of a batch ingest. When {@code aborted} is set the batch stopped early:
+ * every item before {@code aborted.index()} is listed in {@code results} with
+ * what happened to it, and nothing from that index on was written.
+ */
+public record BatchIngestResponse(int received, int accepted, int rejected, List<BatchItemResult> results,
+                                  Aborted aborted) {
+
+    public enum Reason {
+        LIMIT_EXCEEDED, // more items than tracktrove.ingest.max-items; the rest of the body is not read
+        MALFORMED_ITEM, // the item at index is not valid JSON or not a TransactionDTO
+        WRITE_FAILED    // the chunk starting at index could not be written
+    }
+
+    public record Aborted(Reason reason, int index, String message) {
+    }
+}
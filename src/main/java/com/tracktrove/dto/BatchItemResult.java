@@ -0,0 +1,21 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome for one item of a batch ingest, matched to the request by position.
+ * Rejected items carry validation errors and no transaction id.
+ */
+public record BatchItemResult(int index, UUID transactionId, TransactionStatus status, List<String> errors) {
+
+    public static BatchItemResult accepted(int index, UUID transactionId, TransactionStatus status) {
+        return new BatchItemResult(index, transactionId, status, List.of());
+    }
+
+    public static BatchItemResult rejected(int index, List<String> errors) {
+        return new BatchItemResult(index, null, null, errors);
+    }
+}
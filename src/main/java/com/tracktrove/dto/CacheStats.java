@@ -0,0 +1,18 @@
+package com.tracktrove.dto;
+
+/**
+ * Hit and miss counters of the two-tier transaction cache since startup.
+ * A local miss that is answered by Redis counts as a local miss and a Redis hit.
+ *
+ * @param localHits       lookups answered from the in-process cache
+ * @param localMisses     lookups that fell through to Redis
+ * @param redisHits       lookups answered from Redis
+ * @param redisMisses     lookups that fell through to Postgres
+ * @param localHitRate    localHits / (localHits + localMisses)
+ * @param overallHitRate  lookups answered by either tier, over all lookups
+ * @param localSize       entries currently held in the in-process cache
+ * @param invalidations   transaction ids invalidated by this replica
+ */
+public record CacheStats(long localHits, long localMisses, long redisHits, long redisMisses,
+                         double localHitRate, double overallHitRate, long localSize, long invalidations) {
+}
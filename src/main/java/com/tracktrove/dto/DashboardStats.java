@@ -0,0 +1,52 @@
+package com.tracktrove.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Precomputed dashboard aggregates across all replicas, as served by {@code GET /api/stats}.
+ * Totals are kept incrementally at every status change and reconciled against
+ * Postgres periodically; windows are sliding approximations over minute buckets.
+ *
+ * @param total             all transactions ever created
+ * @param countByStatus     current number of transactions in each status
+ * @param countByCurrency   transactions created per currency
+ * @param volumeByCurrency  summed amount per currency
+ * @param countByChannel    transactions created per channel
+ * @param volumeByChannel   summed amount per channel, split by currency
+ * @param lastMinute        activity over the last minute
+ * @param last5Minutes      activity over the last five minutes
+ * @param lastHour          activity over the last hour
+ * @param computedAt        when this snapshot was built
+ * @param reconciledAt      last time the totals were reset from Postgres, null if never
+ */
+public record DashboardStats(
+        long total,
+        Map<String, Long> countByStatus,
+        Map<String, Long> countByCurrency,
+        Map<String, BigDecimal> volumeByCurrency,
+        Map<String, Long> countByChannel,
+        Map<String, Map<String, BigDecimal>> volumeByChannel,
+        Window lastMinute,
+        Window last5Minutes,
+        Window lastHour,
+        Instant computedAt,
+        Instant reconciledAt
+) {
+
+    /**
+     * Activity within one rolling window.
+     *
+     * @param created               transactions created
+     * @param transitions           status changes, creations excluded
+     * @param succeeded             moves into ESCROW (first attempt or successful retry)
+     * @param failed                moves into FAILED or PERMANENTLY_FAILED
+     * @param createdPerSecond      creation throughput
+     * @param transitionsPerSecond  status change throughput
+     * @param failureRate           failed / (succeeded + failed), 0 when both are 0
+     */
+    public record Window(long created, long transitions, long succeeded, long failed,
+                         double createdPerSecond, double transitionsPerSecond, double failureRate) {
+    }
+}
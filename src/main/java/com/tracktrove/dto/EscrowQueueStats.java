@@ -0,0 +1,15 @@
+package com.tracktrove.dto;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the escrow queue stream.
+ *
+ * @param backlog   entries not yet processed: never delivered, or delivered and not acknowledged
+ * @param pending   delivered to a consumer and not acknowledged yet
+ * @param oldestAge how long the oldest unprocessed entry has been waiting
+ */
+public record EscrowQueueStats(long backlog, long pending, Duration oldestAge) {
+
+    public static final EscrowQueueStats EMPTY = new EscrowQueueStats(0, 0, Duration.ZERO);
+}
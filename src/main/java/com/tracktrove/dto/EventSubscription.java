@@ -0,0 +1,29 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Filter a WebSocket client applies to the transaction event stream.
+ * An empty set means "no filter" on that dimension.
+ */
+public record EventSubscription(Set<UUID> vendorIds, Set<TransactionStatus> statuses) {
+
+    public static final EventSubscription ALL = new EventSubscription(Set.of(), Set.of());
+
+    public EventSubscription {
+        vendorIds = vendorIds == null ? Set.of() : Set.copyOf(vendorIds);
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+    }
+
+    public boolean isAll() {
+        return vendorIds.isEmpty() && statuses.isEmpty();
+    }
+
+    public boolean matches(TransactionEvent event) {
+        return (vendorIds.isEmpty() || vendorIds.contains(event.vendorId()))
+                && (statuses.isEmpty() || statuses.contains(event.toStatus()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.Transaction;
+
+/**
+ * Outcome of an idempotent {@code POST /api/transactions/initiate}.
+ *
+ * @param outcome     whether this call created the transaction, replayed an earlier one, found it still in
+ *                    flight, or found the key taken by a different request
+ * @param transaction the transaction as first returned; null when {@code IN_PROGRESS} or {@code MISMATCH}
+ */
+public record InitiateResult(Outcome outcome, Transaction transaction) {
+
+    public enum Outcome {
+        CREATED,
+        REPLAYED,
+        // Another request with the same key is still being processed elsewhere
+        IN_PROGRESS,
+        // The key was first used with a different request; nothing was created or replayed
+        MISMATCH
+    }
+
+    public static InitiateResult created(Transaction transaction) {
+        return new InitiateResult(Outcome.CREATED, transaction);
+    }
+
+    public static InitiateResult replayed(Transaction transaction) {
+        return new InitiateResult(Outcome.REPLAYED, transaction);
+    }
+
+    public static InitiateResult mismatch() {
+        return new InitiateResult(Outcome.MISMATCH, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.LedgerAccount;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Running totals of one ledger account of a vendor in one currency, kept up to
+ * date by every posting. Amounts are in the currency's minor unit.
+ *
+ * @param balanceMinor debits minus credits
+ * @param entryCount   ledger legs posted to the account
+ */
+public record LedgerBalance(
+        UUID vendorId,
+        LedgerAccount account,
+        String currency,
+        long debitsMinor,
+        long creditsMinor,
+        long balanceMinor,
+        long entryCount,
+        Instant updatedAt
+) {
+}
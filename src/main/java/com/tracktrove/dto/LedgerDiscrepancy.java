@@ -0,0 +1,26 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.DiscrepancyKind;
+import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An open reconciliation finding: the transaction's {@code ledgerType} postings are
+ * wrong in the way {@code kind} says.
+ *
+ * @param status          the transaction's status when last checked, null if it does not exist
+ * @param firstDetectedAt when a pass first found it; it has been found on every check since
+ */
+public record LedgerDiscrepancy(
+        UUID transactionId,
+        LedgerType ledgerType,
+        DiscrepancyKind kind,
+        TransactionStatus status,
+        String detail,
+        Instant firstDetectedAt,
+        Instant lastCheckedAt
+) {
+}
@@ -0,0 +1,64 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.LedgerType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * One double-entry posting: {@code amountMinor} debited to {@code type.debitAccount()}
+ * and credited to {@code type.creditAccount()} of the vendor, in {@code currency}.
+ *
+ * @param amountMinor the amount in the currency's minor unit
+ */
+public record LedgerPosting(
+        UUID transactionId,
+        UUID vendorId,
+        LedgerType type,
+        long amountMinor,
+        String currency,
+        String description
+) {
+
+    // Balances are keyed by vendor, so postings without one are booked here
+    public static final UUID UNKNOWN_VENDOR = new UUID(0, 0);
+    static final String UNKNOWN_CURRENCY = "XXX";
+
+    public static LedgerPosting of(TransactionEvent event, LedgerType type, String description) {
+        String currency = normalizeCurrency(event.currency());
+        return new LedgerPosting(event.transactionId(),
+                event.vendorId() != null ? event.vendorId() : UNKNOWN_VENDOR,
+                type, toMinorUnits(event.amount(), currency), currency, description);
+    }
+
+    public static String normalizeCurrency(String currency) {
+        return currency == null || currency.isBlank() ? UNKNOWN_CURRENCY : currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Exact conversion to minor units with the ISO 4217 exponent of the currency (2 when
+     * it has none or is not an ISO code). Amounts finer than the minor unit are rounded
+     * half-even here, once, which is the only rounding in the ledger. The SQL function
+     * {@code currency_minor_exponent} (migration V8) mirrors the exponents.
+     *
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(minorUnitExponent(currency), RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static int minorUnitExponent(String currency) {
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits >= 0 ? digits : 2;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.DiscrepancyKind;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of the transaction/ledger reconciliation, as served by {@code GET /api/reconcile}.
+ *
+ * @param transactionWatermark transactions updated up to here have been checked
+ * @param ledgerWatermark      ledger legs written up to here have been checked
+ * @param checkedTotal         transactions checked since reconciliation began
+ * @param advancedAt           when a pass last moved the watermark
+ * @param openByKind           open discrepancies per kind
+ * @param discrepancies        the most recently detected open discrepancies
+ */
+public record ReconciliationReport(
+        Instant transactionWatermark,
+        LocalDateTime ledgerWatermark,
+        long checkedTotal,
+        Instant advancedAt,
+        Map<DiscrepancyKind, Long> openByKind,
+        long openTotal,
+        List<LedgerDiscrepancy> discrepancies
+) {
+}
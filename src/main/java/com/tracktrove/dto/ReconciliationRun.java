@@ -0,0 +1,16 @@
+package com.tracktrove.dto;
+
+/**
+ * Outcome of one incremental reconciliation pass.
+ *
+ * @param ran           false if another replica was working the watermark
+ * @param pages         pages processed, transaction and ledger side together
+ * @param checked       transactions checked; one changed on both sides is counted twice
+ * @param discrepancies findings of this pass, including ones already open
+ * @param caughtUp      whether both sides reached the pass's upper bound
+ */
+public record ReconciliationRun(boolean ran, int pages, long checked, long discrepancies, boolean caughtUp,
+                                long durationMs) {
+
+    public static final ReconciliationRun SKIPPED = new ReconciliationRun(false, 0, 0, 0, false, 0);
+}
@@ -0,0 +1,23 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.time.Instant;
+
+/**
+ * Decision taken for one claimed FAILED transaction during a retry run.
+ *
+ * @param txn        the claimed row as it was before the attempt
+ * @param status     status to write back (ESCROW, FAILED or PERMANENTLY_FAILED)
+ * @param retryCount retry count to write back
+ * @param nextAttemptAt when the next retry is due; null unless the status stays FAILED
+ * @param step       trace step name recorded for the attempt
+ * @param message    trace message recorded for the attempt
+ */
+public record RetryOutcome(TransactionSummary txn, TransactionStatus status, int retryCount,
+                           Instant nextAttemptAt, String step, String message) {
+
+    public boolean statusChanged() {
+        return status != TransactionStatus.FAILED;
+    }
+}
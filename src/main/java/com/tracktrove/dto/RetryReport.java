@@ -0,0 +1,15 @@
+package com.tracktrove.dto;
+
+/**
+ * Outcome of one retry run on this replica, as returned by the dev endpoint and logged by the job.
+ *
+ * @param claimed     FAILED transactions claimed by this replica
+ * @param succeeded   retries that moved the transaction to ESCROW
+ * @param failed      retries that failed again and stay FAILED
+ * @param exhausted   transactions moved to PERMANENTLY_FAILED
+ * @param chunks      committed chunks across all workers
+ * @param durationMs  wall-clock time of the run
+ */
+public record RetryReport(long claimed, long succeeded, long failed, long exhausted,
+                          long chunks, long durationMs) {
+}
@@ -0,0 +1,15 @@
+package com.tracktrove.dto;
+
+/**
+ * Outcome of one settlement run, as returned by the dev endpoint and logged by the job.
+ *
+ * @param settled       transactions moved from ESCROW to SETTLED in this run
+ * @param chunks        committed chunks across all workers
+ * @param workers       size of the worker pool used
+ * @param durationMs    wall-clock time of the run
+ * @param rowsPerSecond settlement throughput for the run
+ * @param backlog       ESCROW transactions still waiting once the run finished
+ */
+public record SettlementReport(long settled, long chunks, int workers, long durationMs,
+                               double rowsPerSecond, long backlog) {
+}
@@ -0,0 +1,20 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.time.Instant;
+
+/**
+ * A status change that won its compare-and-set.
+ *
+ * @param transaction     the row as written by the change
+ * @param fromStatus      the status it replaced
+ * @param fromStatusSince when the transaction had entered {@code fromStatus}
+ */
+public record StatusTransition(Transaction transaction, TransactionStatus fromStatus, Instant fromStatusSince) {
+
+    public TransactionEvent toEvent() {
+        return TransactionEvent.of(transaction, fromStatus, fromStatusSince);
+    }
+}
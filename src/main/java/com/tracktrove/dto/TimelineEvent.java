@@ -0,0 +1,23 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.TimelineEventType;
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.time.Instant;
+
+/**
+ * One entry of a transaction's timeline.
+ *
+ * @param seq             position in the transaction's log, starting at 1 with no gaps
+ * @param fromStatus      null for CREATED and BACKFILLED
+ * @param fromStatusSince when the transaction had entered {@code fromStatus}, null when unknown
+ */
+public record TimelineEvent(
+        long seq,
+        TimelineEventType type,
+        TransactionStatus fromStatus,
+        TransactionStatus toStatus,
+        Instant fromStatusSince,
+        Instant occurredAt
+) {
+}
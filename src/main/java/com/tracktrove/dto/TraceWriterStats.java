@@ -0,0 +1,15 @@
+package com.tracktrove.dto;
+
+/**
+ * Snapshot of the asynchronous trace writer.
+ *
+ * @param buffered       traces waiting in the in-memory buffer
+ * @param written        traces inserted since startup
+ * @param dropped        debug traces discarded on overflow, plus any that could not be spilled
+ * @param spilled        traces appended to the local spill file
+ * @param failedFlushes  batch inserts that failed and were spilled instead
+ * @param overflowPolicy configured behaviour when the buffer is full
+ */
+public record TraceWriterStats(int buffered, long written, long dropped, long spilled,
+                               long failedFlushes, String overflowPolicy) {
+}
@@ -0,0 +1,45 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position over (created_at, id) used to page through transactions.
+ * The cursor is handed to clients as an opaque URL-safe token so the ordering
+ * columns can change later without breaking the API.
+ */
+public record TransactionCursor(Instant createdAt, UUID id) {
+
+    // Sorts before every real row, used when the client does not send a cursor
+    public static final TransactionCursor START = new TransactionCursor(Instant.EPOCH, new UUID(0L, 0L));
+
+    public static TransactionCursor after(Transaction txn) {
+        return new TransactionCursor(txn.getCreatedAt(), txn.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}.
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            Instant createdAt = Instant.ofEpochSecond(
+                    Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, colon)));
+            return new TransactionCursor(createdAt, UUID.fromString(raw.substring(colon + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid transaction cursor: " + token, e);
+        }
+    }
+}
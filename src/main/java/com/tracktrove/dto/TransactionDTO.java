@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor; // For all-argument constructor
 import jakarta.validation.constraints.DecimalMin; // For validation
 import jakarta.validation.constraints.NotBlank; // For validation
 import jakarta.validation.constraints.NotNull; // For validation
+import jakarta.validation.constraints.Size; // For validation
 
 import java.math.BigDecimal; // For amount
 import java.util.UUID; // For vendorId
@@ -38,5 +39,9 @@ public class TransactionDTO {
 
     private String serviceContext;
 
+    // Optional, /initiate only; the Idempotency-Key header takes precedence over it
+    @Size(max = 255, message = "Idempotency key must be at most 255 characters")
+    private String idempotencyKey;
+
     // You might add more fields here if your frontend sends more data for a new transaction
 }
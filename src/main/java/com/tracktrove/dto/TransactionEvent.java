@@ -0,0 +1,46 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A single transaction status change, published for every transition and
+ * pushed to dashboards over the WebSocket. {@code fromStatus} is null for a
+ * freshly created transaction; {@code fromStatusSince} is when the transaction
+ * entered {@code fromStatus}, null when unknown.
+ */
+public record TransactionEvent(
+        UUID transactionId,
+        UUID vendorId,
+        String channel,
+        BigDecimal amount,
+        String currency,
+        TransactionStatus fromStatus,
+        TransactionStatus toStatus,
+        Instant fromStatusSince,
+        Instant timestamp
+) {
+
+    public static TransactionEvent of(Transaction txn, TransactionStatus fromStatus) {
+        return of(txn, fromStatus, null);
+    }
+
+    public static TransactionEvent of(Transaction txn, TransactionStatus fromStatus, Instant fromStatusSince) {
+        return new TransactionEvent(txn.getId(), txn.getVendorId(), txn.getChannel(), txn.getAmount(),
+                txn.getCurrency(), fromStatus, txn.getCurrentStatus(), fromStatusSince, Instant.now());
+    }
+
+    public static TransactionEvent of(TransactionSummary row, TransactionStatus fromStatus, TransactionStatus toStatus) {
+        return new TransactionEvent(row.id(), row.vendorId(), row.channel(), row.amount(),
+                row.currency(), fromStatus, toStatus, row.updatedAt(), Instant.now());
+    }
+
+    // Used when several changes to the same transaction are folded into one
+    public TransactionEvent withFromStatus(TransactionStatus from, Instant since) {
+        return new TransactionEvent(transactionId, vendorId, channel, amount, currency, from, toStatus, since, timestamp);
+    }
+}
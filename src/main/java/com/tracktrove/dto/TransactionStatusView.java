@@ -0,0 +1,13 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Status-only view of a transaction, as served by {@code GET /api/transactions/{id}/status}
+ * and kept in the transaction read cache. Loaded without the jsonb payload.
+ */
+public record TransactionStatusView(UUID id, TransactionStatus currentStatus, Instant updatedAt) {
+}
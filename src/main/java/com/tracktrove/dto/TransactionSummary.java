@@ -0,0 +1,23 @@
+package com.tracktrove.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a transaction for sweepers and bulk jobs: only the
+ * columns they act on, never the jsonb payload. Served from the covering
+ * partial index on active statuses.
+ */
+public record TransactionSummary(
+        UUID id,
+        BigDecimal amount,
+        String currency,
+        UUID vendorId,
+        String channel,
+        Integer retryCount,
+        Double simulatedSuccessRate,
+        // Last change to the row; on claim and transition paths, the value before that change
+        Instant updatedAt
+) {
+}
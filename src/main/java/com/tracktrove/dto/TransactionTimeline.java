@@ -0,0 +1,29 @@
+package com.tracktrove.dto;
+
+import com.tracktrove.entity.enums.TransactionStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A transaction's current state and a page of its timeline, as served by
+ * {@code GET /api/transactions/{id}/timeline}. The state comes from the snapshot
+ * row, not from replaying the events.
+ *
+ * @param lastSeq       sequence number of the latest event; pass it as {@code afterSeq} to poll for newer ones
+ * @param statusSince   when the transaction entered {@code status}
+ * @param failedRetries retry attempts that left the transaction FAILED
+ * @param events        events after the requested sequence number, oldest first
+ */
+public record TransactionTimeline(
+        UUID transactionId,
+        long lastSeq,
+        TransactionStatus status,
+        Instant statusSince,
+        Instant firstEventAt,
+        Instant lastEventAt,
+        int failedRetries,
+        List<TimelineEvent> events
+) {
+}
@@ -0,0 +1,9 @@
+package com.tracktrove.dto;
+
+/**
+ * @param pending transitions scheduled but not yet applied
+ * @param due     pending transitions whose due time has passed
+ * @param lagMs   how far behind the oldest due transition is
+ */
+public record TransitionSchedulerStats(long pending, long due, long lagMs) {
+}
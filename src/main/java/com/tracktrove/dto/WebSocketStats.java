@@ -0,0 +1,16 @@
+package com.tracktrove.dto;
+
+/**
+ * Point-in-time view of the WebSocket fan-out.
+ *
+ * @param sessions        connected sessions
+ * @param queuedFrames    frames waiting across all session queues
+ * @param maxQueueDepth   deepest single session queue
+ * @param sentFrames      frames delivered since startup
+ * @param failedSends     async sends that completed with an error
+ * @param droppedFrames   frames discarded by the DROP_OLDEST policy
+ * @param slowDisconnects sessions closed by the DISCONNECT policy
+ */
+public record WebSocketStats(int sessions, long queuedFrames, int maxQueueDepth, long sentFrames,
+                             long failedSends, long droppedFrames, long slowDisconnects) {
+}
@@ -1,5 +1,7 @@
 package com.tracktrove.entity;
 
+import com.tracktrove.entity.enums.LedgerAccount;
+import com.tracktrove.entity.enums.LedgerDirection;
 import com.tracktrove.entity.enums.LedgerType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -11,6 +13,8 @@ import jakarta.persistence.Id;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+// One leg of a double-entry posting: every posting writes a DEBIT and a CREDIT
+// leg of the same amount (see LedgerType), so each type's legs sum to zero.
 @Entity
 @Data
 @NoArgsConstructor
@@ -23,10 +27,21 @@ public class LedgerEntry {
 
     private UUID transactionId;
 
+    private UUID vendorId;
+
     @Enumerated(EnumType.STRING)
     private LedgerType type;
 
-    private Double amount;
+    @Enumerated(EnumType.STRING)
+    private LedgerAccount account;
+
+    @Enumerated(EnumType.STRING)
+    private LedgerDirection direction;
+
+    // In the currency's minor unit (cents for USD, yen for JPY), always positive
+    private Long amountMinor;
+    private String currency;
+
     private LocalDateTime entryTimestamp;
     private String description;
 }
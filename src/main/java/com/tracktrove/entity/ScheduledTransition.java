@@ -0,0 +1,50 @@
+package com.tracktrove.entity;
+
+import com.tracktrove.entity.enums.TransactionStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A delayed status change waiting to be applied. Rows are written in the same
+ * transaction as the change that scheduled them and deleted in the same
+ * transaction that applies them, so pending transitions survive restarts.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_scheduled_transition_due_at", columnList = "due_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionStatus targetStatus;
+
+    @Column(name = "due_at", nullable = false)
+    private Instant dueAt;
+
+    // Set while a worker holds the row; expired leases are picked up again
+    private Instant lockedUntil;
+
+    private Instant createdAt;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Column;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,8 +23,13 @@ import org.hibernate.type.SqlTypes;
 @AllArgsConstructor
 public class Trace {
 
+    // Ids are handed out in blocks of this size from trace_seq, by Hibernate and by
+    // TraceBatchRepository alike, so neither needs a round trip per row
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trace_seq")
+    @SequenceGenerator(name = "trace_seq", sequenceName = "trace_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private UUID transactionId;
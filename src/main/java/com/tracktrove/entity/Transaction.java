@@ -7,6 +7,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -23,6 +25,10 @@ import org.hibernate.type.SqlTypes;
 
 
 @Entity
+@Table(indexes = {
+        // Backs keyset pagination on GET /api/transactions
+        @Index(name = "idx_transaction_created_at_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,6 +58,14 @@ public class Transaction {
 
     private Integer retryCount;
 
+    // When a FAILED transaction is next due for retry; set by the retry policy
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    // Client-supplied key of POST /initiate; unique per vendor (migration V6)
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
     @Column(name = "created_at")
     private Instant createdAt;
 
@@ -0,0 +1,11 @@
+package com.tracktrove.entity.enums;
+
+// What ledger reconciliation can find wrong with a transaction's postings of one LedgerType
+public enum DiscrepancyKind {
+    MISSING,         // the status calls for a posting and there is none
+    DUPLICATE,       // more than one posting
+    UNEXPECTED,      // a posting the status rules out
+    AMOUNT_MISMATCH, // a leg's amount or currency differs from the transaction's
+    UNBALANCED,      // debit and credit legs do not pair up
+    ORPHANED         // legs of a transaction that does not exist
+}
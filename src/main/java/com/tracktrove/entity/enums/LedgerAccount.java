@@ -0,0 +1,8 @@
+package com.tracktrove.entity.enums;
+
+// Accounts the double-entry ledger posts to, kept per vendor and currency
+public enum LedgerAccount {
+    CLEARING,       // funds received from payers, not yet allocated
+    ESCROW_HOLD,    // held in escrow for the vendor
+    VENDOR_PAYABLE  // settled, owed to the vendor
+}
@@ -0,0 +1,6 @@
+package com.tracktrove.entity.enums;
+
+public enum LedgerDirection {
+    DEBIT,
+    CREDIT
+}
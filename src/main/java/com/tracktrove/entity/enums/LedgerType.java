@@ -1,7 +1,36 @@
 package com.tracktrove.entity.enums;
 
+import java.util.Optional;
+
+// Each posting type moves the amount from its credit account to its debit account
 public enum LedgerType {
-    ESCROW,
-    SETTLEMENT,
-    REFUND
+    ESCROW(LedgerAccount.CLEARING, LedgerAccount.ESCROW_HOLD),
+    SETTLEMENT(LedgerAccount.ESCROW_HOLD, LedgerAccount.VENDOR_PAYABLE),
+    REFUND(LedgerAccount.ESCROW_HOLD, LedgerAccount.CLEARING);
+
+    private final LedgerAccount debitAccount;
+    private final LedgerAccount creditAccount;
+
+    LedgerType(LedgerAccount debitAccount, LedgerAccount creditAccount) {
+        this.debitAccount = debitAccount;
+        this.creditAccount = creditAccount;
+    }
+
+    public LedgerAccount debitAccount() {
+        return debitAccount;
+    }
+
+    public LedgerAccount creditAccount() {
+        return creditAccount;
+    }
+
+    /** The posting a transaction gets when it enters {@code status}, if any. */
+    public static Optional<LedgerType> postedOnEntering(TransactionStatus status) {
+        return switch (status) {
+            case ESCROW -> Optional.of(ESCROW);
+            case SETTLED -> Optional.of(SETTLEMENT);
+            case REFUNDED -> Optional.of(REFUND);
+            default -> Optional.empty();
+        };
+    }
 }
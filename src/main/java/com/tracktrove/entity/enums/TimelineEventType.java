@@ -0,0 +1,9 @@
+package com.tracktrove.entity.enums;
+
+// Kinds of entries in a transaction's timeline (transaction_event_log)
+public enum TimelineEventType {
+    CREATED,       // first status, fromStatus is null
+    TRANSITIONED,  // status change
+    RETRY_FAILED,  // retry attempt that left the transaction FAILED
+    BACKFILLED     // state of a transaction that predates the log
+}
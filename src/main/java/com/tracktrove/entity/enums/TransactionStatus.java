@@ -1,5 +1,11 @@
 package com.tracktrove.entity.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum TransactionStatus {
     INITIATED,
     ESCROW,
@@ -10,5 +16,37 @@ public enum TransactionStatus {
     DISPUTED,
     RETRIED, // Add any other statuses you plan to use
     RETRY_PENDING,
-    DISPUTE_OPEN, DISPUTE_RESOLVED, PERMANENTLY_FAILED
+    DISPUTE_OPEN, DISPUTE_RESOLVED, PERMANENTLY_FAILED;
+
+    // Target status -> the statuses it may be entered from. Anything not listed is
+    // refused; INITIATED and FAILED are only ever set when a transaction is created.
+    private static final Map<TransactionStatus, Set<TransactionStatus>> ALLOWED_FROM =
+            new EnumMap<>(TransactionStatus.class);
+
+    static {
+        for (TransactionStatus status : values()) {
+            ALLOWED_FROM.put(status, EnumSet.noneOf(TransactionStatus.class));
+        }
+        allow(ESCROW, INITIATED, FAILED); // escrow timer / scheduled step; successful retry
+        allow(SETTLED, ESCROW);
+        allow(PERMANENTLY_FAILED, FAILED);
+        allow(DISPUTE_OPEN, SETTLED);
+        allow(DISPUTE_RESOLVED, DISPUTE_OPEN);
+        // Manual retry: from anything that has not reached a final state
+        ALLOWED_FROM.get(RETRY_PENDING).addAll(EnumSet.complementOf(EnumSet.of(SETTLED, COMPLETED, PERMANENTLY_FAILED)));
+        ALLOWED_FROM.replaceAll((status, from) -> Collections.unmodifiableSet(from));
+    }
+
+    private static void allow(TransactionStatus to, TransactionStatus... from) {
+        Collections.addAll(ALLOWED_FROM.get(to), from);
+    }
+
+    /** The statuses a transaction may be in for it to move to this one. */
+    public Set<TransactionStatus> allowedFrom() {
+        return ALLOWED_FROM.get(this);
+    }
+
+    public boolean canTransitionTo(TransactionStatus next) {
+        return ALLOWED_FROM.get(next).contains(this);
+    }
 }
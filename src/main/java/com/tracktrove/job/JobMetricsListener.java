@@ -0,0 +1,62 @@
+package com.tracktrove.job;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global Quartz listener recording every job run: its duration as a histogram
+ * ({@code tracktrove.job.duration}, tagged by job and outcome) and, for jobs that
+ * report it through {@link JobExecutionContext#setResult}, the number of rows the
+ * run processed ({@code tracktrove.job.rows}).
+ */
+@Component
+public class JobMetricsListener implements JobListener {
+
+    private final Meter.MeterProvider<Timer> durations;
+    private final Meter.MeterProvider<DistributionSummary> rows;
+
+    public JobMetricsListener(MeterRegistry meterRegistry) {
+        this.durations = Timer.builder("tracktrove.job.duration")
+                .description("Quartz job run time")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(30))
+                .withRegistry(meterRegistry);
+        this.rows = DistributionSummary.builder("tracktrove.job.rows")
+                .description("Rows processed per Quartz job run")
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "metrics";
+    }
+
+    @Override
+    public void jobToBeExecuted(JobExecutionContext context) {
+    }
+
+    @Override
+    public void jobExecutionVetoed(JobExecutionContext context) {
+    }
+
+    @Override
+    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+        String job = context.getJobDetail().getKey().getName();
+        durations.withTags("job", job, "outcome", jobException == null ? "success" : "failure")
+                .record(context.getJobRunTime(), TimeUnit.MILLISECONDS);
+        if (jobException == null && context.getResult() instanceof Number processed) {
+            rows.withTags("job", job).record(processed.doubleValue());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tracktrove.redis;
+
+import com.tracktrove.dto.EscrowQueueStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Redis stream of transaction ids waiting to be escrowed, consumed through one
+ * consumer group by every replica in parallel. An entry is acknowledged and
+ * deleted only after its batch commits; until then it sits in the group's
+ * pending entries list, where {@link #claimStalled} hands it to another
+ * consumer if its owner stops making progress.
+ *
+ * <p>All commands go through the reactive (non-blocking) Lettuce client.
+ */
+@Component
+public class EscrowQueue {
+
+    static final String STREAM_KEY = "escrow:queue";
+    static final String DEAD_LETTER_KEY = "escrow:queue:dead";
+    static final String GROUP = "escrow";
+    private static final String TXN_FIELD = "txn";
+    // XADDs that may be on the wire at once when enqueueing
+    private static final int ADD_PIPELINE_DEPTH = 64;
+
+    /**
+     * One stream entry.
+     *
+     * @param deliveries how many times the group has handed it out, this delivery included
+     */
+    public record Entry(RecordId id, String transactionId, long deliveries) {
+    }
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Consumer consumer;
+    private final Duration blockTimeout;
+
+    public EscrowQueue(ReactiveStringRedisTemplate redisTemplate,
+                       @Value("${tracktrove.escrow-queue.block-timeout:PT5S}") Duration blockTimeout,
+                       @Value("${tracktrove.escrow-queue.consumer-name:}") String consumerName) {
+        this.redisTemplate = redisTemplate;
+        this.blockTimeout = blockTimeout;
+        this.consumer = Consumer.from(GROUP, consumerName.isBlank() ? defaultConsumerName() : consumerName);
+    }
+
+    /** Creates the stream and the consumer group unless they already exist. */
+    public Mono<Void> createGroup() {
+        ByteBuffer key = ByteBuffer.wrap(STREAM_KEY.getBytes(StandardCharsets.UTF_8));
+        return redisTemplate.execute(connection -> connection.streamCommands()
+                        .xGroupCreate(key, GROUP, ReadOffset.from("0"), true))
+                .onErrorResume(e -> isBusyGroup(e) ? Mono.empty() : Mono.error(e))
+                .then();
+    }
+
+    /**
+     * Appends one entry per id. The XADDs are sent back to back on the shared
+     * connection without waiting for each reply, i.e. pipelined.
+     *
+     * @return how many entries were added
+     */
+    public Mono<Long> enqueueAll(Collection<UUID> transactionIds) {
+        return Flux.fromIterable(transactionIds)
+                .flatMapSequential(id -> redisTemplate.opsForStream().add(STREAM_KEY, Map.of(TXN_FIELD, id.toString())),
+                        ADD_PIPELINE_DEPTH)
+                .count();
+    }
+
+    /**
+     * Endless stream of batches of at most {@code batchSize} new entries for this
+     * consumer, on one connection held for the lifetime of the subscription. A
+     * batch is only read when the subscriber requests it; XREADGROUP blocks on a
+     * dedicated connection, without holding a thread, while the stream is empty.
+     */
+    public Flux<List<Entry>> batches(int batchSize) {
+        StreamReadOptions options = StreamReadOptions.empty().count(batchSize).block(blockTimeout);
+        StreamOffset<String> newEntries = StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed());
+        return redisTemplate.executeInSession(operations -> Mono.defer(() -> operations.opsForStream()
+                        .read(consumer, options, newEntries)
+                        .map(record -> toEntry(record, 1))
+                        .collectList())
+                .filter(batch -> !batch.isEmpty())
+                .repeat());
+    }
+
+    /**
+     * Moves up to {@code limit} entries that have been pending for at least
+     * {@code minIdle} to this consumer. XCLAIM re-checks the idle time, so when
+     * several replicas reclaim at once each entry goes to only one of them.
+     */
+    public Mono<List<Entry>> claimStalled(Duration minIdle, int limit) {
+        return redisTemplate.opsForStream().pending(STREAM_KEY, GROUP, Range.unbounded(), limit)
+                .flatMap(pending -> {
+                    Map<RecordId, Long> deliveries = pending.stream()
+                            .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0)
+                            .collect(Collectors.toMap(PendingMessage::getId, PendingMessage::getTotalDeliveryCount));
+                    if (deliveries.isEmpty()) {
+                        return Mono.just(List.<Entry>of());
+                    }
+                    return redisTemplate.opsForStream()
+                            .claim(STREAM_KEY, GROUP, consumer.getName(), minIdle,
+                                    deliveries.keySet().toArray(RecordId[]::new))
+                            .map(record -> toEntry(record, deliveries.get(record.getId()) + 1))
+                            .collectList();
+                });
+    }
+
+    /** XACK and XDEL of processed entries, pipelined: the stream only holds work not yet done. */
+    public Mono<Long> acknowledge(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return Mono.just(0L);
+        }
+        RecordId[] ids = entries.stream().map(Entry::id).toArray(RecordId[]::new);
+        return Mono.zip(redisTemplate.opsForStream().acknowledge(STREAM_KEY, GROUP, ids),
+                        redisTemplate.opsForStream().delete(STREAM_KEY, ids))
+                .map(acknowledged -> acknowledged.getT1());
+    }
+
+    /** Parks entries that keep failing in {@value #DEAD_LETTER_KEY} and takes them off the queue. */
+    public Mono<Long> deadLetter(List<Entry> entries) {
+        return Flux.fromIterable(entries)
+                .flatMapSequential(entry -> redisTemplate.opsForStream().add(DEAD_LETTER_KEY, Map.of(
+                        TXN_FIELD, String.valueOf(entry.transactionId()),
+                        "deliveries", Long.toString(entry.deliveries()),
+                        "source-id", entry.id().getValue())))
+                .then(acknowledge(entries));
+    }
+
+    /**
+     * Removes consumers of the group that hold no pending entries and have not read
+     * for {@code idle}, e.g. those of replicas that are gone. A live one removed this
+     * way loses nothing: its next XREADGROUP recreates it.
+     */
+    public Mono<Long> pruneIdleConsumers(Duration idle) {
+        return redisTemplate.opsForStream().consumers(STREAM_KEY, GROUP)
+                .filter(info -> info.pendingCount() == 0 && info.idleTimeMs() >= idle.toMillis()
+                        && !info.consumerName().equals(consumer.getName()))
+                .concatMap(info -> redisTemplate.opsForStream().deleteConsumer(STREAM_KEY,
+                        Consumer.from(GROUP, info.consumerName())))
+                .count();
+    }
+
+    public Mono<EscrowQueueStats> stats() {
+        Mono<Duration> oldestAge = redisTemplate.opsForStream()
+                .range(STREAM_KEY, Range.unbounded(), Limit.limit().count(1))
+                .next()
+                .map(oldest -> Duration.between(Instant.ofEpochMilli(oldest.getId().getTimestamp()), Instant.now()))
+                .defaultIfEmpty(Duration.ZERO);
+        return Mono.zip(redisTemplate.opsForStream().size(STREAM_KEY),
+                        redisTemplate.opsForStream().pending(STREAM_KEY, GROUP),
+                        oldestAge)
+                .map(stats -> new EscrowQueueStats(stats.getT1(), stats.getT2().getTotalPendingMessages(),
+                        stats.getT3()));
+    }
+
+    public String consumerName() {
+        return consumer.getName();
+    }
+
+    private static Entry toEntry(MapRecord<String, Object, Object> record, long deliveries) {
+        Object transactionId = record.getValue().get(TXN_FIELD);
+        return new Entry(record.getId(), transactionId != null ? transactionId.toString() : null, deliveries);
+    }
+
+    private static boolean isBusyGroup(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("BUSYGROUP")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Host name (the pod name on Kubernetes) plus pid: stable for the life of the process
+    private static String defaultConsumerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = UUID.randomUUID().toString();
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,118 @@
+package com.tracktrove.redis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Durable escrow deadlines kept in a Redis sorted set scored by due time.
+ * Replaces per-transaction TTL keys and keyspace notifications: due entries are
+ * claimed in batches by whichever replica polls first, leased while the DB work
+ * runs, and removed once acked. A replica that dies mid-batch only delays its
+ * entries until the lease runs out.
+ */
+@Component
+public class EscrowTimerWheel {
+
+    private static final String TIMERS_KEY = "escrow:timers";
+    private static final String INFLIGHT_KEY = "escrow:timers:inflight";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> claimDueTimersScript;
+    private final Duration lease;
+
+    @SuppressWarnings("rawtypes")
+    public EscrowTimerWheel(RedisTemplate<String, String> redisTemplate,
+                            RedisScript<List> claimDueTimersScript,
+                            @Value("${tracktrove.escrow-timer.lease:PT30S}") Duration lease) {
+        this.redisTemplate = redisTemplate;
+        this.claimDueTimersScript = claimDueTimersScript;
+        this.lease = lease;
+    }
+
+    public void schedule(UUID transactionId, Instant dueAt) {
+        redisTemplate.opsForZSet().add(TIMERS_KEY, transactionId.toString(), dueAt.toEpochMilli());
+    }
+
+    // One ZADD for the whole batch instead of a round trip per transaction
+    public void scheduleAll(Map<UUID, Instant> dueAtById) {
+        if (dueAtById.isEmpty()) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<String>> timers = new HashSet<>(dueAtById.size() * 2);
+        dueAtById.forEach((id, dueAt) ->
+                timers.add(new DefaultTypedTuple<>(id.toString(), (double) dueAt.toEpochMilli())));
+        redisTemplate.opsForZSet().add(TIMERS_KEY, timers);
+    }
+
+    /**
+     * Claims up to {@code max} due entries. Each must be {@link #ack acked} once
+     * processed, otherwise it is handed out again after the lease expires.
+     */
+    @SuppressWarnings("unchecked")
+    public List<UUID> claimDue(int max) {
+        long now = System.currentTimeMillis();
+        List<String> members = redisTemplate.execute(
+                claimDueTimersScript,
+                List.of(TIMERS_KEY, INFLIGHT_KEY),
+                String.valueOf(now), String.valueOf(max), String.valueOf(now + lease.toMillis()));
+
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>(members.size());
+        for (String member : members) {
+            ids.add(UUID.fromString(member));
+        }
+        return ids;
+    }
+
+    public void ack(Collection<UUID> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForZSet().remove(INFLIGHT_KEY, transactionIds.stream().map(UUID::toString).toArray());
+    }
+
+    public long pendingCount() {
+        Long size = redisTemplate.opsForZSet().zCard(TIMERS_KEY);
+        return size != null ? size : 0;
+    }
+
+    public long inflightCount() {
+        Long size = redisTemplate.opsForZSet().zCard(INFLIGHT_KEY);
+        return size != null ? size : 0;
+    }
+
+    /**
+     * How far behind the pollers are: the age of the earliest entry that is due
+     * but not yet claimed, or zero when nothing is overdue.
+     */
+    public Duration lag() {
+        Set<ZSetOperations.TypedTuple<String>> earliest = peek(1);
+        if (earliest == null || earliest.isEmpty()) {
+            return Duration.ZERO;
+        }
+        long overdueMs = System.currentTimeMillis() - earliest.iterator().next().getScore().longValue();
+        return Duration.ofMillis(Math.max(0, overdueMs));
+    }
+
+    // Earliest-due entries first, for the admin debug endpoint
+    public Set<ZSetOperations.TypedTuple<String>> peek(int count) {
+        return redisTemplate.opsForZSet().rangeWithScores(TIMERS_KEY, 0, count - 1L);
+    }
+}
@@ -0,0 +1,58 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.LedgerBalance;
+import com.tracktrove.entity.enums.LedgerAccount;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads of {@code ledger_balance} (migration V8), which {@link LedgerBatchRepository}
+ * advances with every posting: a balance is a primary-key lookup, never a sum over
+ * {@code ledger_entry}.
+ */
+@Repository
+public class LedgerBalanceRepository {
+
+    private static final String BY_VENDOR_SQL = """
+            SELECT vendor_id, account, currency, debits_minor, credits_minor, balance_minor, entry_count, updated_at
+            FROM ledger_balance
+            WHERE vendor_id = ?
+            ORDER BY account, currency
+            """;
+
+    private static final String BY_VENDOR_AND_ACCOUNT_SQL = """
+            SELECT vendor_id, account, currency, debits_minor, credits_minor, balance_minor, entry_count, updated_at
+            FROM ledger_balance
+            WHERE vendor_id = ? AND account = ?
+            ORDER BY currency
+            """;
+
+    private static final RowMapper<LedgerBalance> ROW = (rs, rowNum) -> new LedgerBalance(
+            rs.getObject("vendor_id", UUID.class),
+            LedgerAccount.valueOf(rs.getString("account")),
+            rs.getString("currency"),
+            rs.getLong("debits_minor"),
+            rs.getLong("credits_minor"),
+            rs.getLong("balance_minor"),
+            rs.getLong("entry_count"),
+            rs.getTimestamp("updated_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerBalanceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<LedgerBalance> findByVendor(UUID vendorId) {
+        return jdbcTemplate.query(BY_VENDOR_SQL, ROW, vendorId);
+    }
+
+    public List<LedgerBalance> findByVendorAndAccount(UUID vendorId, LedgerAccount account) {
+        return jdbcTemplate.query(BY_VENDOR_AND_ACCOUNT_SQL, ROW, vendorId, account.name());
+    }
+}
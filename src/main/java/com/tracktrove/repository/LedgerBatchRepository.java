@@ -0,0 +1,109 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.LedgerPosting;
+import com.tracktrove.entity.LedgerEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * JDBC batch writer for ledger postings. {@link LedgerEntry} uses IDENTITY ids, which
+ * stops Hibernate from batching inserts, so every posting path writes through here.
+ */
+@Repository
+public class LedgerBatchRepository {
+
+    // A whole batch in one statement: both legs of every posting, then the running
+    // balances they move. Balance rows are upserted in key order so concurrent
+    // postings lock them in the same order; the locks are held until the caller
+    // commits, so post as the last write of a transaction.
+    private static final String POST_SQL = """
+            WITH posting AS (
+                SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::text[], ?::text[], ?::text[], ?::bigint[],
+                                     ?::text[], ?::text[])
+                    AS p(transaction_id, vendor_id, type, debit_account, credit_account, amount_minor,
+                         currency, description)
+            ),
+            leg AS (
+                SELECT transaction_id, vendor_id, type, debit_account AS account, 'DEBIT' AS direction,
+                       amount_minor, currency, description
+                FROM posting
+                UNION ALL
+                SELECT transaction_id, vendor_id, type, credit_account, 'CREDIT',
+                       amount_minor, currency, description
+                FROM posting
+            ),
+            entries AS (
+                INSERT INTO ledger_entry (transaction_id, vendor_id, type, account, direction, amount_minor,
+                                          currency, entry_timestamp, description)
+                SELECT transaction_id, vendor_id, type, account, direction, amount_minor,
+                       currency, ?, description
+                FROM leg
+            )
+            INSERT INTO ledger_balance AS b (vendor_id, account, currency, debits_minor, credits_minor,
+                                             entry_count, updated_at)
+            SELECT vendor_id, account, currency,
+                   COALESCE(sum(amount_minor) FILTER (WHERE direction = 'DEBIT'), 0),
+                   COALESCE(sum(amount_minor) FILTER (WHERE direction = 'CREDIT'), 0),
+                   count(*), now()
+            FROM leg
+            GROUP BY vendor_id, account, currency
+            ORDER BY vendor_id, account, currency
+            ON CONFLICT (vendor_id, account, currency) DO UPDATE
+            SET debits_minor = b.debits_minor + EXCLUDED.debits_minor,
+                credits_minor = b.credits_minor + EXCLUDED.credits_minor,
+                entry_count = b.entry_count + EXCLUDED.entry_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Writes the debit and credit legs of every posting and advances the balances they touch. */
+    public void postAll(Collection<LedgerPosting> postings, LocalDateTime entryTimestamp) {
+        if (postings.isEmpty()) {
+            return;
+        }
+        int size = postings.size();
+        Object[] transactionIds = new Object[size];
+        Object[] vendorIds = new Object[size];
+        Object[] types = new Object[size];
+        Object[] debitAccounts = new Object[size];
+        Object[] creditAccounts = new Object[size];
+        Object[] amounts = new Object[size];
+        Object[] currencies = new Object[size];
+        Object[] descriptions = new Object[size];
+        int i = 0;
+        for (LedgerPosting posting : postings) {
+            transactionIds[i] = posting.transactionId();
+            vendorIds[i] = posting.vendorId();
+            types[i] = posting.type().name();
+            debitAccounts[i] = posting.type().debitAccount().name();
+            creditAccounts[i] = posting.type().creditAccount().name();
+            amounts[i] = posting.amountMinor();
+            currencies[i] = posting.currency();
+            descriptions[i] = posting.description();
+            i++;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(POST_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", transactionIds));
+            ps.setArray(2, con.createArrayOf("uuid", vendorIds));
+            ps.setArray(3, con.createArrayOf("text", types));
+            ps.setArray(4, con.createArrayOf("text", debitAccounts));
+            ps.setArray(5, con.createArrayOf("text", creditAccounts));
+            ps.setArray(6, con.createArrayOf("bigint", amounts));
+            ps.setArray(7, con.createArrayOf("text", currencies));
+            ps.setArray(8, con.createArrayOf("text", descriptions));
+            ps.setTimestamp(9, Timestamp.valueOf(entryTimestamp));
+            return ps;
+        });
+    }
+}
@@ -4,10 +4,17 @@ import com.tracktrove.entity.LedgerEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID> {
     List<LedgerEntry> findByTransactionId(UUID transactionId);
+
+    // ledger_entry is partitioned by month on entry_timestamp: the lower bound keeps reads on the recent partitions
+    List<LedgerEntry> findByTransactionIdAndEntryTimestampGreaterThanEqualOrderByEntryTimestamp(
+            UUID transactionId, LocalDateTime since);
+
+    List<LedgerEntry> findByEntryTimestampGreaterThanEqualOrderByEntryTimestampDesc(LocalDateTime since);
 }
@@ -0,0 +1,82 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.entity.enums.TransactionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code transaction_outbox} table (migration V5). Appends join the caller's
+ * transaction; claims delete the rows they return, so each event is handed to
+ * exactly one relay.
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO transaction_outbox (transaction_id, vendor_id, channel, amount, currency,
+                                            from_status, to_status, from_status_since, occurred_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Replicas relaying at the same time skip each other's rows; the outer ORDER BY restores id order
+    private static final String CLAIM_SQL = """
+            WITH claimed AS (
+                DELETE FROM transaction_outbox
+                WHERE id IN (
+                    SELECT id FROM transaction_outbox
+                    ORDER BY id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING *
+            )
+            SELECT * FROM claimed ORDER BY id
+            """;
+
+    private static final RowMapper<TransactionEvent> ROW = (rs, rowNum) -> new TransactionEvent(
+            rs.getObject("transaction_id", UUID.class),
+            rs.getObject("vendor_id", UUID.class),
+            rs.getString("channel"),
+            rs.getBigDecimal("amount"),
+            rs.getString("currency"),
+            rs.getString("from_status") != null ? TransactionStatus.valueOf(rs.getString("from_status")) : null,
+            TransactionStatus.valueOf(rs.getString("to_status")),
+            rs.getTimestamp("from_status_since") != null ? rs.getTimestamp("from_status_since").toInstant() : null,
+            rs.getTimestamp("occurred_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void appendAll(Collection<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, 500, (ps, event) -> {
+            ps.setObject(1, event.transactionId());
+            ps.setObject(2, event.vendorId());
+            ps.setString(3, event.channel());
+            ps.setBigDecimal(4, event.amount());
+            ps.setString(5, event.currency());
+            ps.setString(6, event.fromStatus() != null ? event.fromStatus().name() : null);
+            ps.setString(7, event.toStatus().name());
+            ps.setTimestamp(8, event.fromStatusSince() != null ? Timestamp.from(event.fromStatusSince()) : null);
+            ps.setTimestamp(9, Timestamp.from(event.timestamp()));
+        });
+    }
+
+    /** Removes and returns up to {@code limit} of the oldest events; call inside a transaction. */
+    public List<TransactionEvent> claim(int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, ROW, limit);
+    }
+}
@@ -0,0 +1,277 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.LedgerDiscrepancy;
+import com.tracktrove.dto.ReconciliationReport;
+import com.tracktrove.entity.enums.DiscrepancyKind;
+import com.tracktrove.entity.enums.LedgerDirection;
+import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.entity.enums.TransactionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes of the transaction/ledger reconciliation (migration V9): the
+ * watermark, the id-ordered pages a pass walks, and the open discrepancies.
+ */
+@Repository
+public class ReconciliationRepository {
+
+    /** Where the passes have got to; both positions are exclusive. */
+    public record Watermark(Instant transactionUpdatedAt, UUID transactionId, long entryId,
+                            LocalDateTime entryTimestamp) {
+    }
+
+    public record TransactionKey(UUID id, Instant updatedAt) {
+    }
+
+    public record LegKey(long id, UUID transactionId, LocalDateTime entryTimestamp) {
+    }
+
+    public record TransactionRow(UUID id, TransactionStatus status, BigDecimal amount, String currency,
+                                 Instant createdAt) {
+    }
+
+    public record LegRow(UUID transactionId, LedgerType type, LedgerDirection direction, long amountMinor,
+                         String currency) {
+    }
+
+    // Another replica holding the row is mid-page: this one skips instead of queueing behind it
+    private static final String LOCK_WATERMARK_SQL = """
+            SELECT transaction_updated_at, transaction_id, entry_id, entry_timestamp
+            FROM reconciliation_watermark
+            WHERE name = ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // Keyset on idx_transaction_updated_at_id
+    private static final String NEXT_TRANSACTIONS_SQL = """
+            SELECT id, updated_at FROM transaction
+            WHERE (updated_at, id) > (?, ?) AND updated_at <= ?
+            ORDER BY updated_at, id
+            LIMIT ?
+            """;
+
+    // Each partition's primary key (id, entry_timestamp) serves the id order; the
+    // timestamp bound prunes the partitions the watermark has left behind
+    private static final String NEXT_LEGS_SQL = """
+            SELECT id, transaction_id, entry_timestamp FROM ledger_entry
+            WHERE id > ? AND entry_timestamp >= ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String FIND_TRANSACTIONS_SQL = """
+            SELECT id, current_status, amount, currency, created_at FROM transaction
+            WHERE id = ANY(?)
+            ORDER BY id
+            """;
+
+    private static final String STREAM_LEGS_SQL = """
+            SELECT transaction_id, type, direction, amount_minor, currency FROM ledger_entry
+            WHERE transaction_id = ANY(?) AND entry_timestamp >= ?
+            ORDER BY transaction_id
+            """;
+
+    private static final String UPSERT_DISCREPANCIES_SQL = """
+            INSERT INTO reconciliation_discrepancy AS d (transaction_id, ledger_type, kind, transaction_status,
+                                                         detail, first_detected_at, last_checked_at)
+            SELECT f.transaction_id, f.ledger_type, f.kind, f.status, f.detail, ?, ?
+            FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::text[])
+                AS f(transaction_id, ledger_type, kind, status, detail)
+            ON CONFLICT (transaction_id, ledger_type, kind) DO UPDATE
+            SET transaction_status = EXCLUDED.transaction_status,
+                detail = EXCLUDED.detail,
+                last_checked_at = EXCLUDED.last_checked_at
+            """;
+
+    // Whatever this check did not find again has been fixed
+    private static final String DELETE_RESOLVED_SQL = """
+            DELETE FROM reconciliation_discrepancy
+            WHERE transaction_id = ANY(?) AND last_checked_at < ?
+            """;
+
+    private static final String ADVANCE_SQL = """
+            UPDATE reconciliation_watermark
+            SET transaction_updated_at = ?, transaction_id = ?, entry_id = ?, entry_timestamp = ?,
+                checked_total = checked_total + ?, advanced_at = now()
+            WHERE name = ?
+            """;
+
+    private static final String REPORT_SQL = """
+            SELECT transaction_updated_at, entry_timestamp, checked_total, advanced_at
+            FROM reconciliation_watermark
+            WHERE name = ?
+            """;
+
+    private static final String RECENT_DISCREPANCIES_SQL = """
+            SELECT * FROM reconciliation_discrepancy
+            ORDER BY first_detected_at DESC
+            LIMIT ?
+            """;
+
+    private static final RowMapper<Watermark> WATERMARK_ROW = (rs, rowNum) -> new Watermark(
+            rs.getTimestamp("transaction_updated_at").toInstant(),
+            rs.getObject("transaction_id", UUID.class),
+            rs.getLong("entry_id"),
+            rs.getTimestamp("entry_timestamp").toLocalDateTime()
+    );
+
+    private static final RowMapper<TransactionRow> TRANSACTION_ROW = (rs, rowNum) -> new TransactionRow(
+            rs.getObject("id", UUID.class),
+            rs.getString("current_status") != null ? TransactionStatus.valueOf(rs.getString("current_status")) : null,
+            rs.getBigDecimal("amount"),
+            rs.getString("currency"),
+            rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at").toInstant() : null
+    );
+
+    private static final RowMapper<LedgerDiscrepancy> DISCREPANCY_ROW = (rs, rowNum) -> new LedgerDiscrepancy(
+            rs.getObject("transaction_id", UUID.class),
+            LedgerType.valueOf(rs.getString("ledger_type")),
+            DiscrepancyKind.valueOf(rs.getString("kind")),
+            rs.getString("transaction_status") != null
+                    ? TransactionStatus.valueOf(rs.getString("transaction_status")) : null,
+            rs.getString("detail"),
+            rs.getTimestamp("first_detected_at").toInstant(),
+            rs.getTimestamp("last_checked_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReconciliationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Locks the watermark until the surrounding transaction ends; empty if another replica holds it. */
+    public Optional<Watermark> lockWatermark(String name) {
+        return jdbcTemplate.query(LOCK_WATERMARK_SQL, WATERMARK_ROW, name).stream().findFirst();
+    }
+
+    /** Up to {@code limit} transactions updated after the watermark and no later than {@code upTo}. */
+    public List<TransactionKey> nextTransactions(Watermark watermark, Instant upTo, int limit) {
+        return jdbcTemplate.query(NEXT_TRANSACTIONS_SQL,
+                (rs, rowNum) -> new TransactionKey(rs.getObject("id", UUID.class),
+                        rs.getTimestamp("updated_at").toInstant()),
+                Timestamp.from(watermark.transactionUpdatedAt()), watermark.transactionId(),
+                Timestamp.from(upTo), limit);
+    }
+
+    /** Up to {@code limit} ledger legs after the watermark id, in id order. */
+    public List<LegKey> nextLegs(Watermark watermark, LocalDateTime scanFrom, int limit) {
+        return jdbcTemplate.query(NEXT_LEGS_SQL,
+                (rs, rowNum) -> new LegKey(rs.getLong("id"), rs.getObject("transaction_id", UUID.class),
+                        rs.getTimestamp("entry_timestamp").toLocalDateTime()),
+                watermark.entryId(), Timestamp.valueOf(scanFrom), limit);
+    }
+
+    /** The transactions among {@code ids} that exist, in uuid order. */
+    public List<TransactionRow> findTransactions(Collection<UUID> ids) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FIND_TRANSACTIONS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        }, TRANSACTION_ROW);
+    }
+
+    /**
+     * Hands the ledger legs of {@code ids} written since {@code since} to {@code sink}
+     * in transaction uuid order, row by row as they are read.
+     */
+    public void streamLegs(Collection<UUID> ids, LocalDateTime since, Consumer<LegRow> sink) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STREAM_LEGS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            ps.setTimestamp(2, Timestamp.valueOf(since));
+            ps.setFetchSize(1000);
+            return ps;
+        }, rs -> {
+            sink.accept(new LegRow(
+                    rs.getObject("transaction_id", UUID.class),
+                    LedgerType.valueOf(rs.getString("type")),
+                    LedgerDirection.valueOf(rs.getString("direction")),
+                    rs.getLong("amount_minor"),
+                    rs.getString("currency")));
+        });
+    }
+
+    /**
+     * Records what a check of {@code checkedIds} found: new findings are added, ones
+     * found again keep their first detection time, and the rest are removed.
+     */
+    public void saveFindings(Collection<UUID> checkedIds, List<LedgerDiscrepancy> found, Instant checkedAt) {
+        if (!found.isEmpty()) {
+            int size = found.size();
+            Object[] ids = new Object[size];
+            Object[] types = new Object[size];
+            Object[] kinds = new Object[size];
+            Object[] statuses = new Object[size];
+            Object[] details = new Object[size];
+            for (int i = 0; i < size; i++) {
+                LedgerDiscrepancy discrepancy = found.get(i);
+                ids[i] = discrepancy.transactionId();
+                types[i] = discrepancy.ledgerType().name();
+                kinds[i] = discrepancy.kind().name();
+                statuses[i] = discrepancy.status() != null ? discrepancy.status().name() : null;
+                details[i] = discrepancy.detail();
+            }
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(UPSERT_DISCREPANCIES_SQL);
+                ps.setTimestamp(1, Timestamp.from(checkedAt));
+                ps.setTimestamp(2, Timestamp.from(checkedAt));
+                ps.setArray(3, con.createArrayOf("uuid", ids));
+                ps.setArray(4, con.createArrayOf("text", types));
+                ps.setArray(5, con.createArrayOf("text", kinds));
+                ps.setArray(6, con.createArrayOf("text", statuses));
+                ps.setArray(7, con.createArrayOf("text", details));
+                return ps;
+            });
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(DELETE_RESOLVED_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", checkedIds.toArray()));
+            ps.setTimestamp(2, Timestamp.from(checkedAt));
+            return ps;
+        });
+    }
+
+    public void advance(String name, Watermark watermark, long checked) {
+        jdbcTemplate.update(ADVANCE_SQL,
+                Timestamp.from(watermark.transactionUpdatedAt()), watermark.transactionId(),
+                watermark.entryId(), Timestamp.valueOf(watermark.entryTimestamp()), checked, name);
+    }
+
+    public ReconciliationReport report(String name, int limit) {
+        Map<DiscrepancyKind, Long> openByKind = new EnumMap<>(DiscrepancyKind.class);
+        jdbcTemplate.query("SELECT kind, count(*) FROM reconciliation_discrepancy GROUP BY kind",
+                rs -> {
+                    openByKind.put(DiscrepancyKind.valueOf(rs.getString(1)), rs.getLong(2));
+                });
+        long openTotal = openByKind.values().stream().mapToLong(Long::longValue).sum();
+        List<LedgerDiscrepancy> recent = jdbcTemplate.query(RECENT_DISCREPANCIES_SQL, DISCREPANCY_ROW, limit);
+        return jdbcTemplate.query(REPORT_SQL, rs -> {
+            if (!rs.next()) {
+                return new ReconciliationReport(null, null, 0, null, openByKind, openTotal, recent);
+            }
+            Timestamp advancedAt = rs.getTimestamp("advanced_at");
+            return new ReconciliationReport(
+                    rs.getTimestamp("transaction_updated_at").toInstant(),
+                    rs.getTimestamp("entry_timestamp").toLocalDateTime(),
+                    rs.getLong("checked_total"),
+                    advancedAt != null ? advancedAt.toInstant() : null,
+                    openByKind, openTotal, recent);
+        }, name);
+    }
+}
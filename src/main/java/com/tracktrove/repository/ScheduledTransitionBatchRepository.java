@@ -0,0 +1,94 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.TransitionSchedulerStats;
+import com.tracktrove.entity.ScheduledTransition;
+import com.tracktrove.entity.enums.TransactionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claiming side of the durable transition schedule. Claims lease rows instead
+ * of deleting them; the row is removed by the transaction that applies it.
+ */
+@Repository
+public class ScheduledTransitionBatchRepository {
+
+    private static final String CLAIM_DUE_SQL = """
+            WITH due AS (
+                SELECT id FROM scheduled_transition
+                WHERE due_at <= now()
+                  AND (locked_until IS NULL OR locked_until < now())
+                ORDER BY due_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE scheduled_transition s
+            SET locked_until = ?
+            FROM due
+            WHERE s.id = due.id
+            RETURNING s.id, s.transaction_id, s.target_status, s.due_at, s.locked_until, s.created_at
+            """;
+
+    private static final String STATS_SQL = """
+            SELECT count(*) AS pending,
+                   count(*) FILTER (WHERE due_at <= now()) AS due,
+                   min(due_at) FILTER (WHERE due_at <= now()) AS oldest_due
+            FROM scheduled_transition
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO scheduled_transition (transaction_id, target_status, due_at, created_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final RowMapper<ScheduledTransition> ROW = (rs, rowNum) -> new ScheduledTransition(
+            rs.getLong("id"),
+            rs.getObject("transaction_id", UUID.class),
+            TransactionStatus.valueOf(rs.getString("target_status")),
+            rs.getTimestamp("due_at").toInstant(),
+            rs.getTimestamp("locked_until").toInstant(),
+            rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at").toInstant() : null
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduledTransitionBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Leases up to {@code limit} due transitions, oldest first. Runs in its own
+     * (auto-commit) statement so the lease is visible to other replicas at once.
+     */
+    public List<ScheduledTransition> claimDue(int limit, Duration lease) {
+        Timestamp lockedUntil = Timestamp.from(Instant.now().plus(lease));
+        return jdbcTemplate.query(CLAIM_DUE_SQL, ROW, limit, lockedUntil);
+    }
+
+    public void insertAll(List<ScheduledTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, transitions, 500, (ps, transition) -> {
+            ps.setObject(1, transition.getTransactionId());
+            ps.setString(2, transition.getTargetStatus().name());
+            ps.setTimestamp(3, Timestamp.from(transition.getDueAt()));
+            ps.setTimestamp(4, Timestamp.from(transition.getCreatedAt()));
+        });
+    }
+
+    public TransitionSchedulerStats stats() {
+        return jdbcTemplate.queryForObject(STATS_SQL, (rs, rowNum) -> {
+            Timestamp oldestDue = rs.getTimestamp("oldest_due");
+            long lagMs = oldestDue != null ? Math.max(0, System.currentTimeMillis() - oldestDue.getTime()) : 0;
+            return new TransitionSchedulerStats(rs.getLong("pending"), rs.getLong("due"), lagMs);
+        });
+    }
+}
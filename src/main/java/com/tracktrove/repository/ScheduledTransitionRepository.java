@@ -0,0 +1,9 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.entity.ScheduledTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScheduledTransitionRepository extends JpaRepository<ScheduledTransition, Long> {
+}
@@ -0,0 +1,73 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.entity.Trace;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC batch writer for trace rows. Ids come from {@code trace_seq} in blocks of
+ * {@link Trace#ID_ALLOCATION_SIZE} (the same pooled scheme Hibernate uses), and
+ * the driver's {@code reWriteBatchedInserts} turns each batch into multi-row INSERTs.
+ */
+@Repository
+public class TraceBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO trace (id, transaction_id, step_name, dto_before, dto_after, error_stack, retry_count, trace_time)
+            VALUES (?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, ?)
+            """;
+
+    // Each nextval reserves the block (value - ID_ALLOCATION_SIZE, value]
+    private static final String ALLOCATE_ID_BLOCKS_SQL = "SELECT nextval('trace_seq') FROM generate_series(1, ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TraceBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Trace> traces) {
+        if (traces.isEmpty()) {
+            return;
+        }
+        assignIds(traces);
+        jdbcTemplate.batchUpdate(INSERT_SQL, traces, BATCH_SIZE, (ps, trace) -> {
+            ps.setLong(1, trace.getId());
+            ps.setObject(2, trace.getTransactionId());
+            ps.setString(3, trace.getStepName());
+            ps.setString(4, trace.getDtoBefore());
+            ps.setString(5, trace.getDtoAfter());
+            ps.setString(6, trace.getErrorStack());
+            ps.setObject(7, trace.getRetryCount());
+            ps.setTimestamp(8, Timestamp.from(trace.getTraceTime()));
+        });
+    }
+
+    private void assignIds(List<Trace> traces) {
+        long missing = traces.stream().filter(trace -> trace.getId() == null).count();
+        if (missing == 0) {
+            return;
+        }
+        int blocks = (int) ((missing + Trace.ID_ALLOCATION_SIZE - 1) / Trace.ID_ALLOCATION_SIZE);
+        List<Long> blockEnds = jdbcTemplate.queryForList(ALLOCATE_ID_BLOCKS_SQL, Long.class, blocks);
+
+        int block = 0;
+        long next = 1;
+        long end = 0;
+        for (Trace trace : traces) {
+            if (trace.getId() != null) {
+                continue;
+            }
+            if (next > end) {
+                end = blockEnds.get(block++);
+                next = end - Trace.ID_ALLOCATION_SIZE + 1;
+            }
+            trace.setId(next++);
+        }
+    }
+}
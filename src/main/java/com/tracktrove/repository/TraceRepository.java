@@ -4,6 +4,7 @@ import com.tracktrove.entity.Trace;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,4 +18,10 @@ public interface TraceRepository extends JpaRepository<Trace, UUID> {
 
     Trace findFirstByTransactionIdAndErrorStackIsNotNullOrderByTraceTimeDesc(UUID transactionId);
 
+    // trace is partitioned by month on trace_time: the lower bound keeps reads on the recent partitions
+    List<Trace> findByTransactionIdAndTraceTimeGreaterThanEqualOrderByTraceTimeDesc(UUID transactionId, Instant since);
+
+    Trace findFirstByTransactionIdAndTraceTimeGreaterThanEqualAndErrorStackIsNotNullOrderByTraceTimeDesc(
+            UUID transactionId, Instant since);
+
 }
@@ -0,0 +1,275 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.RetryOutcome;
+import com.tracktrove.dto.StatusTransition;
+import com.tracktrove.dto.TransactionSummary;
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.entity.enums.TransactionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based status changes over the transaction table. These bypass the JPA
+ * entity lifecycle, so callers are expected to run inside a Spring transaction
+ * and to record any follow-up rows (ledger, traces) in the same one.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+    // Claim + transition in a single round trip. SKIP LOCKED lets concurrent
+    // workers (or replicas) pull disjoint chunks without waiting on each other.
+    // updated_at is returned as it was before the move: when the row entered the old status.
+    private static final String CLAIM_AND_TRANSITION_SQL = """
+            WITH claimed AS (
+                SELECT id, updated_at FROM transaction
+                WHERE current_status = ?
+                ORDER BY updated_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE transaction t
+            SET current_status = ?, updated_at = now()
+            FROM claimed
+            WHERE t.id = claimed.id
+            RETURNING t.id, t.amount, t.currency, t.vendor_id, t.channel, t.retry_count, t.simulated_success_rate,
+                      claimed.updated_at
+            """;
+
+    // Same transition for a known set of ids. The status guard makes it idempotent:
+    // ids already moved on by another path are simply not returned.
+    private static final String TRANSITION_IDS_SQL = """
+            WITH previous AS (
+                SELECT id, updated_at FROM transaction
+                WHERE id = ANY(?) AND current_status = ?
+                FOR UPDATE
+            )
+            UPDATE transaction t
+            SET current_status = ?, updated_at = now()
+            FROM previous
+            WHERE t.id = previous.id
+            RETURNING t.id, t.amount, t.currency, t.vendor_id, t.channel, t.retry_count, t.simulated_success_rate,
+                      previous.updated_at
+            """;
+
+    // Compare-and-set on one row: moves it only if its current status is one of the
+    // allowed ones, and returns the row as written plus the status it left. The CTE's
+    // FOR UPDATE re-reads a row changed by a concurrent commit before the guard is
+    // evaluated, so of two racing transitions exactly one wins and the other sees no row.
+    private static final String COMPARE_AND_SET_SQL = """
+            WITH previous AS (
+                SELECT id, current_status, updated_at FROM transaction
+                WHERE id = ? AND current_status = ANY(?)
+                FOR UPDATE
+            )
+            UPDATE transaction t
+            SET current_status = ?, retry_count = t.retry_count + ?, updated_at = now()
+            FROM previous
+            WHERE t.id = previous.id
+            RETURNING t.id, t.amount, t.currency, t.current_status, t.initial_payload, t.service_context,
+                      t.simulated_success_rate, t.vendor_id, t.channel, t.retry_count, t.next_attempt_at,
+                      t.idempotency_key, t.created_at, t.updated_at,
+                      previous.current_status AS previous_status, previous.updated_at AS previous_updated_at
+            """;
+
+    // Locks due rows without changing them; the caller decides each row's outcome and
+    // writes it back with applyRetryOutcomes before committing. Served by
+    // idx_transaction_retry_due, so only rows that are actually due are read.
+    private static final String CLAIM_DUE_RETRIES_SQL = """
+            SELECT id, amount, currency, vendor_id, channel, retry_count, simulated_success_rate, updated_at
+            FROM transaction
+            WHERE current_status = 'FAILED' AND next_attempt_at <= ?
+            ORDER BY next_attempt_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // Per-row status and retry count for a whole chunk in one statement
+    private static final String APPLY_RETRY_OUTCOMES_SQL = """
+            UPDATE transaction t
+            SET current_status = o.status, retry_count = o.retry_count, updated_at = ?,
+                next_attempt_at = to_timestamp(o.next_attempt_ms / 1000.0)
+            FROM unnest(?::uuid[], ?::text[], ?::int[], ?::bigint[]) AS o(id, status, retry_count, next_attempt_ms)
+            WHERE t.id = o.id
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO transaction (id, amount, currency, current_status, initial_payload, service_context,
+                                     simulated_success_rate, vendor_id, channel, retry_count, next_attempt_at,
+                                     created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final RowMapper<TransactionSummary> SUMMARY_ROW = (rs, rowNum) -> new TransactionSummary(
+            rs.getObject("id", UUID.class),
+            rs.getBigDecimal("amount"),
+            rs.getString("currency"),
+            rs.getObject("vendor_id", UUID.class),
+            rs.getString("channel"),
+            rs.getObject("retry_count", Integer.class),
+            rs.getObject("simulated_success_rate", Double.class),
+            toInstant(rs.getTimestamp("updated_at"))
+    );
+
+    private static final RowMapper<StatusTransition> TRANSITION_ROW = (rs, rowNum) -> {
+        Transaction txn = new Transaction();
+        txn.setId(rs.getObject("id", UUID.class));
+        txn.setAmount(rs.getBigDecimal("amount"));
+        txn.setCurrency(rs.getString("currency"));
+        txn.setCurrentStatus(TransactionStatus.valueOf(rs.getString("current_status")));
+        txn.setInitialPayload(rs.getString("initial_payload"));
+        txn.setServiceContext(rs.getString("service_context"));
+        txn.setSimulatedSuccessRate(rs.getObject("simulated_success_rate", Double.class));
+        txn.setVendorId(rs.getObject("vendor_id", UUID.class));
+        txn.setChannel(rs.getString("channel"));
+        txn.setRetryCount(rs.getObject("retry_count", Integer.class));
+        txn.setNextAttemptAt(toInstant(rs.getTimestamp("next_attempt_at")));
+        txn.setIdempotencyKey(rs.getString("idempotency_key"));
+        txn.setCreatedAt(toInstant(rs.getTimestamp("created_at")));
+        txn.setUpdatedAt(toInstant(rs.getTimestamp("updated_at")));
+        return new StatusTransition(txn, TransactionStatus.valueOf(rs.getString("previous_status")),
+                toInstant(rs.getTimestamp("previous_updated_at")));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Moves up to {@code limit} rows from {@code from} to {@code to}, oldest first,
+     * skipping rows locked by other workers.
+     *
+     * @return the rows that were moved; empty once the backlog is drained.
+     */
+    public List<TransactionSummary> claimAndTransition(TransactionStatus from, TransactionStatus to, int limit) {
+        requireAllowed(from, to);
+        return jdbcTemplate.query(CLAIM_AND_TRANSITION_SQL, SUMMARY_ROW, from.name(), limit, to.name());
+    }
+
+    /**
+     * Moves the given ids from {@code from} to {@code to} in one statement.
+     *
+     * @return the rows that were actually in {@code from} and have been moved.
+     */
+    public List<TransactionSummary> transitionIds(Collection<UUID> ids, TransactionStatus from, TransactionStatus to) {
+        requireAllowed(from, to);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(TRANSITION_IDS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            ps.setString(2, from.name());
+            ps.setString(3, to.name());
+            return ps;
+        }, SUMMARY_ROW);
+    }
+
+    /**
+     * Moves one row to {@code to} if it is currently in one of {@code from}, adding
+     * {@code retryIncrement} to its retry count in the same statement.
+     *
+     * @return the change, or empty if the row does not exist or is in another status.
+     */
+    public Optional<StatusTransition> compareAndSet(UUID id, Set<TransactionStatus> from, TransactionStatus to,
+                                                    int retryIncrement) {
+        if (from.isEmpty()) {
+            return Optional.empty();
+        }
+        List<StatusTransition> changed = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(COMPARE_AND_SET_SQL);
+            ps.setObject(1, id);
+            ps.setArray(2, con.createArrayOf("text", from.stream().map(Enum::name).toArray()));
+            ps.setString(3, to.name());
+            ps.setInt(4, retryIncrement);
+            return ps;
+        }, TRANSITION_ROW);
+        return changed.stream().findFirst();
+    }
+
+    /**
+     * Locks up to {@code limit} FAILED rows whose next attempt is due at {@code now},
+     * earliest first, skipping rows locked by other workers. Must run inside a
+     * transaction; the locks are held until it ends.
+     */
+    public List<TransactionSummary> claimDueRetries(Instant now, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE_RETRIES_SQL, SUMMARY_ROW, Timestamp.from(now), limit);
+    }
+
+    /**
+     * Writes back the outcome of each claimed row, including its next due time.
+     */
+    public void applyRetryOutcomes(List<RetryOutcome> outcomes, Instant updatedAt) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        Object[] ids = new Object[outcomes.size()];
+        Object[] statuses = new Object[outcomes.size()];
+        Object[] retryCounts = new Object[outcomes.size()];
+        Object[] nextAttemptMs = new Object[outcomes.size()];
+        for (int i = 0; i < outcomes.size(); i++) {
+            RetryOutcome outcome = outcomes.get(i);
+            ids[i] = outcome.txn().id();
+            statuses[i] = outcome.status().name();
+            retryCounts[i] = outcome.retryCount();
+            nextAttemptMs[i] = outcome.nextAttemptAt() != null ? outcome.nextAttemptAt().toEpochMilli() : null;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPLY_RETRY_OUTCOMES_SQL);
+            ps.setTimestamp(1, Timestamp.from(updatedAt));
+            ps.setArray(2, con.createArrayOf("uuid", ids));
+            ps.setArray(3, con.createArrayOf("text", statuses));
+            ps.setArray(4, con.createArrayOf("integer", retryCounts));
+            ps.setArray(5, con.createArrayOf("bigint", nextAttemptMs));
+            return ps;
+        });
+    }
+
+    /**
+     * Batch-inserts new transactions. Ids and timestamps must already be set,
+     * since the JPA lifecycle callbacks do not run on this path.
+     */
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, BATCH_SIZE, (ps, txn) -> {
+            ps.setObject(1, txn.getId());
+            ps.setBigDecimal(2, txn.getAmount());
+            ps.setString(3, txn.getCurrency());
+            ps.setString(4, txn.getCurrentStatus().name());
+            ps.setString(5, txn.getInitialPayload());
+            ps.setString(6, txn.getServiceContext());
+            ps.setObject(7, txn.getSimulatedSuccessRate());
+            ps.setObject(8, txn.getVendorId());
+            ps.setString(9, txn.getChannel());
+            ps.setInt(10, txn.getRetryCount());
+            ps.setTimestamp(11, txn.getNextAttemptAt() != null ? Timestamp.from(txn.getNextAttemptAt()) : null);
+            ps.setTimestamp(12, Timestamp.from(txn.getCreatedAt()));
+            ps.setTimestamp(13, Timestamp.from(txn.getUpdatedAt()));
+        });
+    }
+
+    private static void requireAllowed(TransactionStatus from, TransactionStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalArgumentException("Transition " + from + " -> " + to + " is not allowed");
+        }
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -1,20 +1,84 @@
 package com.tracktrove.repository;
 
+import com.tracktrove.dto.TransactionStatusView;
+import com.tracktrove.dto.TransactionSummary;
 import com.tracktrove.entity.Transaction;
 import com.tracktrove.entity.enums.TransactionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
     List<Transaction> findByCurrentStatus(TransactionStatus currentStatus);
 
+    long countByCurrentStatus(TransactionStatus currentStatus);
+
     // NEW METHOD: Find transactions whose status is in a given list of statuses
     List<Transaction> findByCurrentStatusIn(List<TransactionStatus> currentStatuses);
 
-    // You might also need other custom query methods here
+    // Sweeper reads: projection only (served by idx_transaction_active_status), oldest first
+    List<TransactionSummary> findSummariesByCurrentStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+            TransactionStatus currentStatus, Instant updatedBefore, Limit limit);
+
+    // Replay lookup for idempotent initiate (uq_transaction_vendor_idempotency_key)
+    Optional<Transaction> findByVendorIdAndIdempotencyKey(UUID vendorId, String idempotencyKey);
+
+    // Status-only read for the transaction cache; never touches the jsonb payload
+    Optional<TransactionStatusView> findStatusViewById(UUID id);
+
+    // Lower bound for a transaction's trace and ledger rows, used to prune old partitions
+    @Query("SELECT t.createdAt FROM Transaction t WHERE t.id = :id")
+    Optional<Instant> findCreatedAtById(@Param("id") UUID id);
+
+    @Query("SELECT t.id FROM Transaction t WHERE t.currentStatus = :status")
+    List<UUID> findIdsByCurrentStatus(@Param("status") TransactionStatus status);
+
+    // Keyset page over (created_at, id). The redundant createdAt >= bound lets
+    // Postgres start an index range scan instead of filtering from the beginning.
+    @Query("""
+            SELECT t FROM Transaction t
+            WHERE t.createdAt >= :afterCreatedAt
+              AND (t.createdAt > :afterCreatedAt OR t.id > :afterId)
+              AND (:status IS NULL OR t.currentStatus = :status)
+              AND (:vendorId IS NULL OR t.vendorId = :vendorId)
+              AND (:channel IS NULL OR t.channel = :channel)
+            ORDER BY t.createdAt, t.id
+            """)
+    List<Transaction> findPageAfter(@Param("afterCreatedAt") Instant afterCreatedAt,
+                                    @Param("afterId") UUID afterId,
+                                    @Param("status") TransactionStatus status,
+                                    @Param("vendorId") UUID vendorId,
+                                    @Param("channel") String channel,
+                                    Pageable pageable);
+
+    // Server-side cursor for exports: rows are fetched in chunks of the fetch size
+    // instead of being materialised up front. Must be consumed inside a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT t FROM Transaction t
+            WHERE (:status IS NULL OR t.currentStatus = :status)
+              AND (:vendorId IS NULL OR t.vendorId = :vendorId)
+              AND (:channel IS NULL OR t.channel = :channel)
+            ORDER BY t.createdAt, t.id
+            """)
+    Stream<Transaction> streamByFilters(@Param("status") TransactionStatus status,
+                                        @Param("vendorId") UUID vendorId,
+                                        @Param("channel") String channel);
 }
@@ -0,0 +1,198 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.TimelineEvent;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.dto.TransactionTimeline;
+import com.tracktrove.entity.enums.TimelineEventType;
+import com.tracktrove.entity.enums.TransactionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The {@code transaction_event_log} and {@code transaction_snapshot} tables
+ * (migration V7). A batch of events, for any number of transactions, is appended
+ * with one statement that also advances each snapshot; it joins the caller's
+ * transaction, so the timeline commits exactly with the status changes it records.
+ */
+@Repository
+public class TransactionTimelineRepository {
+
+    // The snapshot upsert takes the row lock that serializes appends to one transaction
+    // and returns its new last_seq; the batch's events are numbered back from it. Rows
+    // are upserted in id order so concurrent batches lock snapshots in the same order.
+    // Times travel as epoch microseconds: exact, and a plain bigint[] to bind.
+    private static final String APPEND_SQL = """
+            WITH batch AS (
+                SELECT e.transaction_id, e.event_type, e.from_status, e.to_status,
+                       timestamptz 'epoch' + e.from_status_since_us * interval '1 microsecond' AS from_status_since,
+                       timestamptz 'epoch' + e.occurred_at_us * interval '1 microsecond' AS occurred_at,
+                       e.ord
+                FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::bigint[], ?::bigint[])
+                     WITH ORDINALITY AS e(transaction_id, event_type, from_status, to_status,
+                                          from_status_since_us, occurred_at_us, ord)
+            ),
+            per_txn AS (
+                SELECT transaction_id,
+                       count(*) AS events,
+                       (array_agg(to_status ORDER BY ord DESC))[1] AS status,
+                       COALESCE(max(occurred_at) FILTER (WHERE event_type <> 'RETRY_FAILED'),
+                                min(occurred_at)) AS status_since,
+                       min(occurred_at) AS first_event_at,
+                       max(occurred_at) AS last_event_at,
+                       count(*) FILTER (WHERE event_type = 'RETRY_FAILED') AS failed_retries
+                FROM batch
+                GROUP BY transaction_id
+            ),
+            snapshot AS (
+                INSERT INTO transaction_snapshot AS s (transaction_id, last_seq, status, status_since,
+                                                       first_event_at, last_event_at, failed_retries)
+                SELECT transaction_id, events, status, status_since, first_event_at, last_event_at, failed_retries
+                FROM per_txn
+                ORDER BY transaction_id
+                ON CONFLICT (transaction_id) DO UPDATE
+                SET last_seq = s.last_seq + EXCLUDED.last_seq,
+                    status = EXCLUDED.status,
+                    status_since = CASE WHEN EXCLUDED.status <> s.status THEN EXCLUDED.status_since
+                                        ELSE s.status_since END,
+                    last_event_at = GREATEST(s.last_event_at, EXCLUDED.last_event_at),
+                    failed_retries = s.failed_retries + EXCLUDED.failed_retries
+                RETURNING s.transaction_id, s.last_seq
+            )
+            INSERT INTO transaction_event_log (transaction_id, seq, event_type, from_status, to_status,
+                                               from_status_since, occurred_at)
+            SELECT b.transaction_id,
+                   snapshot.last_seq - p.events + row_number() OVER (PARTITION BY b.transaction_id ORDER BY b.ord),
+                   b.event_type, b.from_status, b.to_status, b.from_status_since, b.occurred_at
+            FROM batch b
+            JOIN per_txn p ON p.transaction_id = b.transaction_id
+            JOIN snapshot ON snapshot.transaction_id = b.transaction_id
+            """;
+
+    // Snapshot by primary key plus a range of the log's primary key, in one round trip.
+    // The LEFT JOIN keeps the snapshot row when there are no newer events.
+    private static final String TIMELINE_SQL = """
+            SELECT s.transaction_id, s.last_seq, s.status, s.status_since, s.first_event_at,
+                   s.last_event_at, s.failed_retries,
+                   e.seq, e.event_type, e.from_status, e.to_status, e.from_status_since, e.occurred_at
+            FROM transaction_snapshot s
+            LEFT JOIN LATERAL (
+                SELECT * FROM transaction_event_log l
+                WHERE l.transaction_id = s.transaction_id AND l.seq > ?
+                ORDER BY l.seq
+                LIMIT ?
+            ) e ON true
+            WHERE s.transaction_id = ?
+            ORDER BY e.seq
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionTimelineRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Appends status change events: CREATED when there is no from-status, TRANSITIONED otherwise. */
+    public void appendStatusChanges(Collection<TransactionEvent> events) {
+        append(events, null);
+    }
+
+    /** Appends retry attempts that did not change the status. */
+    public void appendRetryFailures(Collection<TransactionEvent> events) {
+        append(events, TimelineEventType.RETRY_FAILED);
+    }
+
+    /**
+     * The snapshot of the transaction and up to {@code limit} of its events with a
+     * sequence number above {@code afterSeq}, oldest first.
+     *
+     * @return empty if the transaction has no timeline
+     */
+    public Optional<TransactionTimeline> findTimeline(UUID transactionId, long afterSeq, int limit) {
+        return Optional.ofNullable(jdbcTemplate.query(TIMELINE_SQL, TIMELINE, afterSeq, limit, transactionId));
+    }
+
+    // Events of one transaction keep their order in the collection; their seqs follow it
+    private void append(Collection<TransactionEvent> events, TimelineEventType type) {
+        if (events.isEmpty()) {
+            return;
+        }
+        int size = events.size();
+        Object[] ids = new Object[size];
+        Object[] types = new Object[size];
+        Object[] fromStatuses = new Object[size];
+        Object[] toStatuses = new Object[size];
+        Object[] fromStatusSince = new Object[size];
+        Object[] occurredAt = new Object[size];
+        int i = 0;
+        for (TransactionEvent event : events) {
+            ids[i] = event.transactionId();
+            types[i] = (type != null ? type
+                    : event.fromStatus() == null ? TimelineEventType.CREATED : TimelineEventType.TRANSITIONED).name();
+            fromStatuses[i] = event.fromStatus() != null ? event.fromStatus().name() : null;
+            toStatuses[i] = event.toStatus().name();
+            fromStatusSince[i] = event.fromStatusSince() != null ? epochMicros(event.fromStatusSince()) : null;
+            occurredAt[i] = epochMicros(event.timestamp());
+            i++;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPEND_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setArray(2, con.createArrayOf("text", types));
+            ps.setArray(3, con.createArrayOf("text", fromStatuses));
+            ps.setArray(4, con.createArrayOf("text", toStatuses));
+            ps.setArray(5, con.createArrayOf("bigint", fromStatusSince));
+            ps.setArray(6, con.createArrayOf("bigint", occurredAt));
+            return ps;
+        });
+    }
+
+    private static long epochMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static final ResultSetExtractor<TransactionTimeline> TIMELINE = rs -> {
+        if (!rs.next()) {
+            return null;
+        }
+        UUID transactionId = rs.getObject("transaction_id", UUID.class);
+        long lastSeq = rs.getLong("last_seq");
+        TransactionStatus status = TransactionStatus.valueOf(rs.getString("status"));
+        Instant statusSince = rs.getTimestamp("status_since").toInstant();
+        Instant firstEventAt = rs.getTimestamp("first_event_at").toInstant();
+        Instant lastEventAt = rs.getTimestamp("last_event_at").toInstant();
+        int failedRetries = rs.getInt("failed_retries");
+        List<TimelineEvent> events = new ArrayList<>();
+        do {
+            if (rs.getObject("seq") != null) {
+                events.add(event(rs));
+            }
+        } while (rs.next());
+        return new TransactionTimeline(transactionId, lastSeq, status, statusSince, firstEventAt, lastEventAt,
+                failedRetries, events);
+    };
+
+    private static TimelineEvent event(ResultSet rs) throws SQLException {
+        String fromStatus = rs.getString("from_status");
+        Timestamp fromStatusSince = rs.getTimestamp("from_status_since");
+        return new TimelineEvent(
+                rs.getLong("seq"),
+                TimelineEventType.valueOf(rs.getString("event_type")),
+                fromStatus != null ? TransactionStatus.valueOf(fromStatus) : null,
+                TransactionStatus.valueOf(rs.getString("to_status")),
+                fromStatusSince != null ? fromStatusSince.toInstant() : null,
+                rs.getTimestamp("occurred_at").toInstant());
+    }
+}
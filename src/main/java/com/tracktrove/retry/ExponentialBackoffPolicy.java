@@ -0,0 +1,69 @@
+package com.tracktrove.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * {@code baseDelay * multiplier^(attempts - 1)}, capped at {@code maxDelay}. Jitter
+ * then takes a random share of up to {@code jitter} off the delay, so rows that
+ * failed together spread out instead of coming back due in the same tick.
+ * A jitter of 0 disables it and 1 gives full jitter.
+ */
+public final class ExponentialBackoffPolicy implements RetryPolicy {
+
+    private final Duration baseDelay;
+    private final double multiplier;
+    private final Duration maxDelay;
+    private final double jitter;
+    private final int maxAttempts;
+    private final DoubleSupplier random;
+
+    public ExponentialBackoffPolicy(Duration baseDelay, double multiplier, Duration maxDelay,
+                                    double jitter, int maxAttempts) {
+        this(baseDelay, multiplier, maxDelay, jitter, maxAttempts, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    // The random source is injectable so delays can be checked deterministically
+    public ExponentialBackoffPolicy(Duration baseDelay, double multiplier, Duration maxDelay,
+                                    double jitter, int maxAttempts, DoubleSupplier random) {
+        if (baseDelay.isNegative() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("Retry delays must satisfy 0 <= base-delay <= max-delay");
+        }
+        if (multiplier < 1.0) {
+            throw new IllegalArgumentException("Retry multiplier must be >= 1, got " + multiplier);
+        }
+        if (jitter < 0.0 || jitter > 1.0) {
+            throw new IllegalArgumentException("Retry jitter must be between 0 and 1, got " + jitter);
+        }
+        if (maxAttempts < 0) {
+            throw new IllegalArgumentException("Retry max-attempts must be >= 0, got " + maxAttempts);
+        }
+        this.baseDelay = baseDelay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+        this.jitter = jitter;
+        this.maxAttempts = maxAttempts;
+        this.random = random;
+    }
+
+    @Override
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public Duration backoff(int attemptsMade) {
+        int exponent = Math.max(0, attemptsMade - 1);
+        // Computed in double so large exponents saturate at the cap instead of overflowing
+        double delayMs = Math.min(maxDelay.toMillis(), baseDelay.toMillis() * Math.pow(multiplier, exponent));
+        delayMs -= delayMs * jitter * random.getAsDouble();
+        return Duration.ofMillis(Math.round(delayMs));
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialBackoffPolicy[base=" + baseDelay + ", multiplier=" + multiplier + ", max=" + maxDelay
+                + ", jitter=" + jitter + ", maxAttempts=" + maxAttempts + "]";
+    }
+}
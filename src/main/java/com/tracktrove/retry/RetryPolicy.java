@@ -0,0 +1,19 @@
+package com.tracktrove.retry;
+
+import java.time.Duration;
+
+/**
+ * Decides how often and how far apart a FAILED transaction is retried.
+ * Implementations must be thread-safe: one instance serves every retry worker.
+ */
+public interface RetryPolicy {
+
+    /** Retries allowed before the transaction is moved to PERMANENTLY_FAILED. */
+    int maxAttempts();
+
+    /**
+     * Delay before the next retry, once {@code attemptsMade} retries (at least one)
+     * have failed.
+     */
+    Duration backoff(int attemptsMade);
+}
@@ -0,0 +1,59 @@
+package com.tracktrove.retry;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binds {@code tracktrove.retry.policy} (the default) and the per-channel and
+ * per-vendor overrides under {@code tracktrove.retry.channels} / {@code .vendors}.
+ * Override fields left unset fall back to the default policy.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "tracktrove.retry")
+public class RetryPolicyProperties {
+
+    private Settings policy = Settings.defaults();
+    private Map<String, Settings> channels = new HashMap<>();
+    private Map<UUID, Settings> vendors = new HashMap<>();
+
+    @Data
+    public static class Settings {
+        private Duration baseDelay;
+        private Double multiplier;
+        private Duration maxDelay;
+        private Double jitter;
+        private Integer maxAttempts;
+
+        static Settings defaults() {
+            Settings settings = new Settings();
+            settings.setBaseDelay(Duration.ofMinutes(1));
+            settings.setMultiplier(2.0);
+            settings.setMaxDelay(Duration.ofMinutes(30));
+            settings.setJitter(0.2);
+            settings.setMaxAttempts(3);
+            return settings;
+        }
+
+        // Fills every unset field from the fallback
+        Settings withFallback(Settings fallback) {
+            Settings merged = new Settings();
+            merged.setBaseDelay(baseDelay != null ? baseDelay : fallback.baseDelay);
+            merged.setMultiplier(multiplier != null ? multiplier : fallback.multiplier);
+            merged.setMaxDelay(maxDelay != null ? maxDelay : fallback.maxDelay);
+            merged.setJitter(jitter != null ? jitter : fallback.jitter);
+            merged.setMaxAttempts(maxAttempts != null ? maxAttempts : fallback.maxAttempts);
+            return merged;
+        }
+
+        ExponentialBackoffPolicy toPolicy() {
+            return new ExponentialBackoffPolicy(baseDelay, multiplier, maxDelay, jitter, maxAttempts);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.tracktrove.retry;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resolves the retry policy for a transaction: a vendor override wins over a
+ * channel override, which wins over the default. Policies are built once at
+ * startup, so a bad configuration fails the boot instead of a retry run.
+ */
+@Component
+public class RetryPolicyRegistry {
+
+    private final RetryPolicy defaultPolicy;
+    private final Map<String, RetryPolicy> channelPolicies = new HashMap<>();
+    private final Map<UUID, RetryPolicy> vendorPolicies = new HashMap<>();
+
+    public RetryPolicyRegistry(RetryPolicyProperties properties) {
+        // Overrides fall back field by field to the configured default, then to the built-in one
+        RetryPolicyProperties.Settings base = properties.getPolicy()
+                .withFallback(RetryPolicyProperties.Settings.defaults());
+        this.defaultPolicy = base.toPolicy();
+        properties.getChannels().forEach((channel, settings) ->
+                channelPolicies.put(channel, settings.withFallback(base).toPolicy()));
+        properties.getVendors().forEach((vendorId, settings) ->
+                vendorPolicies.put(vendorId, settings.withFallback(base).toPolicy()));
+    }
+
+    public RetryPolicy policyFor(UUID vendorId, String channel) {
+        RetryPolicy policy = vendorId != null ? vendorPolicies.get(vendorId) : null;
+        if (policy == null && channel != null) {
+            policy = channelPolicies.get(channel);
+        }
+        return policy != null ? policy : defaultPolicy;
+    }
+}
@@ -0,0 +1,178 @@
+package com.tracktrove.scheduler;
+
+import com.tracktrove.dto.EscrowQueueStats;
+import com.tracktrove.redis.EscrowQueue;
+import com.tracktrove.service.EscrowService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * This replica's member of the {@link EscrowQueue} consumer group: escrows
+ * queued INITIATED transactions in batches through {@link EscrowService}, whose
+ * status guard makes stale or redelivered ids harmless, and acknowledges each
+ * batch once it has committed.
+ *
+ * <p>Two sources feed the same pipeline: new entries via XREADGROUP, and on a
+ * timer, entries another consumer has left pending for longer than
+ * {@code min-idle} (crashed or stuck). One batch is applied at a time and the
+ * next one is read only after it, so a backlog stays in Redis. A batch that
+ * fails stays pending and comes back through the reclaim; after
+ * {@code max-deliveries} attempts its entries are dead-lettered.
+ */
+@Component
+public class EscrowQueueConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(EscrowQueueConsumer.class);
+
+    private final EscrowQueue escrowQueue;
+    private final EscrowService escrowService;
+    private final int batchSize;
+    private final Duration reclaimInterval;
+    private final Duration minIdle;
+    private final long maxDeliveries;
+
+    private final LongAdder consumed = new LongAdder();
+    private final LongAdder escrowed = new LongAdder();
+    private final LongAdder reclaimed = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private volatile EscrowQueueStats stats = EscrowQueueStats.EMPTY;
+    private Disposable consumer;
+    private Disposable statsRefresh;
+
+    public EscrowQueueConsumer(EscrowQueue escrowQueue,
+                               EscrowService escrowService,
+                               @Value("${tracktrove.escrow-queue.batch-size:500}") int batchSize,
+                               @Value("${tracktrove.escrow-queue.reclaim-interval:PT10S}") Duration reclaimInterval,
+                               @Value("${tracktrove.escrow-queue.min-idle:PT30S}") Duration minIdle,
+                               @Value("${tracktrove.escrow-queue.max-deliveries:5}") long maxDeliveries) {
+        this.escrowQueue = escrowQueue;
+        this.escrowService = escrowService;
+        this.batchSize = batchSize;
+        this.reclaimInterval = reclaimInterval;
+        this.minIdle = minIdle;
+        this.maxDeliveries = maxDeliveries;
+    }
+
+    @PostConstruct
+    public void start() {
+        consumer = escrowQueue.createGroup()
+                // prefetch 1 per source: at most one batch read ahead, and it stays pending in Redis meanwhile
+                .thenMany(Flux.merge(1, escrowQueue.batches(batchSize), stalledBatches()))
+                // prefetch 0: request the next batch only once this one is done
+                .concatMap(this::apply, 0)
+                .doOnError(e -> log.warn("Escrow queue subscription failed, resubscribing: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+
+        // Gauges read the last snapshot instead of querying Redis at scrape time
+        statsRefresh = Flux.interval(reclaimInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> escrowQueue.stats().onErrorResume(e -> Mono.empty()), 0)
+                .subscribe(snapshot -> stats = snapshot);
+        log.info("Consuming the escrow queue as {}", escrowQueue.consumerName());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (consumer != null) {
+            consumer.dispose();
+        }
+        if (statsRefresh != null) {
+            statsRefresh.dispose();
+        }
+    }
+
+    public EscrowQueueStats stats() {
+        return stats;
+    }
+
+    public long consumedCount() {
+        return consumed.sum();
+    }
+
+    public long escrowedCount() {
+        return escrowed.sum();
+    }
+
+    public long reclaimedCount() {
+        return reclaimed.sum();
+    }
+
+    public long deadLetteredCount() {
+        return deadLettered.sum();
+    }
+
+    private Flux<List<EscrowQueue.Entry>> stalledBatches() {
+        return Flux.interval(reclaimInterval)
+                .onBackpressureDrop() // a busy pipeline skips reclaim ticks rather than queueing them
+                .concatMap(tick -> escrowQueue.claimStalled(minIdle, batchSize)
+                        .flatMap(this::deadLetterExhausted)
+                        .doOnNext(batch -> reclaimed.add(batch.size()))
+                        .flatMap(batch -> escrowQueue.pruneIdleConsumers(minIdle.multipliedBy(10)).thenReturn(batch))
+                        .onErrorResume(e -> {
+                            log.warn("Escrow queue reclaim failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }), 0)
+                .filter(batch -> !batch.isEmpty());
+    }
+
+    private Mono<List<EscrowQueue.Entry>> deadLetterExhausted(List<EscrowQueue.Entry> claimed) {
+        Map<Boolean, List<EscrowQueue.Entry>> split = claimed.stream()
+                .collect(Collectors.partitioningBy(entry -> entry.deliveries() > maxDeliveries));
+        List<EscrowQueue.Entry> exhausted = split.get(true);
+        if (exhausted.isEmpty()) {
+            return Mono.just(claimed);
+        }
+        log.warn("Dead-lettering {} escrow queue entries after {} deliveries", exhausted.size(), maxDeliveries);
+        return escrowQueue.deadLetter(exhausted)
+                .doOnNext(count -> deadLettered.add(exhausted.size()))
+                .thenReturn(split.get(false));
+    }
+
+    // The DB work is blocking JDBC, so it runs off the Redis event loop
+    private Mono<Integer> apply(List<EscrowQueue.Entry> batch) {
+        return Mono.fromCallable(() -> escrowService.escrowQueued(parse(batch)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(count -> escrowQueue.acknowledge(batch).thenReturn(count))
+                .doOnNext(count -> {
+                    consumed.add(batch.size());
+                    escrowed.add(count);
+                    log.debug("Escrow queue batch of {}: escrowed {}", batch.size(), count);
+                })
+                .onErrorResume(e -> {
+                    // Left pending: reclaimed once it has been idle for min-idle
+                    log.warn("Failed to escrow {} queued txns: {}", batch.size(), e.getMessage());
+                    return Mono.just(0);
+                });
+    }
+
+    private static List<UUID> parse(List<EscrowQueue.Entry> batch) {
+        List<UUID> ids = new ArrayList<>(batch.size());
+        for (EscrowQueue.Entry entry : batch) {
+            try {
+                ids.add(UUID.fromString(entry.transactionId()));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                // Acknowledged with its batch, so it is not redelivered
+                log.warn("Dropping malformed escrow queue entry {}: {}", entry.id(), entry.transactionId());
+            }
+        }
+        return ids;
+    }
+}
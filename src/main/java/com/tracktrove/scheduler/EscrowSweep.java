@@ -1,58 +1,61 @@
 package com.tracktrove.scheduler;
 
-import com.tracktrove.entity.Transaction;
+import com.tracktrove.dto.TransactionSummary;
 import com.tracktrove.entity.enums.TransactionStatus;
-import com.tracktrove.entity.enums.LedgerType;
-import com.tracktrove.service.TransactionService;
-import com.tracktrove.service.TraceService;
-import com.tracktrove.service.LedgerService;
+import com.tracktrove.repository.TransactionRepository;
+import com.tracktrove.service.EscrowService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
 
+/**
+ * Fallback for INITIATED transactions whose escrow timer never fired. Reads
+ * lightweight projections page by page and escrows each page in bulk; only
+ * transactions idle for longer than the grace period are considered, so the
+ * timer wheel keeps ownership of the normal path.
+ */
 @Component
 public class EscrowSweep {
 
-    private final TransactionService transactionService;
-    private final TraceService traceService;
-    private final LedgerService ledgerService;
-
-    public EscrowSweep(TransactionService transactionService,
-                       TraceService traceService,
-                       LedgerService ledgerService) {
-        this.transactionService = transactionService;
-        this.traceService = traceService;
-        this.ledgerService = ledgerService;
+    private static final Logger log = LoggerFactory.getLogger(EscrowSweep.class);
+
+    private final TransactionRepository transactionRepository;
+    private final EscrowService escrowService;
+    private final Duration grace;
+    private final int pageSize;
+
+    public EscrowSweep(TransactionRepository transactionRepository,
+                       EscrowService escrowService,
+                       @Value("${tracktrove.escrow-sweep.grace:PT3M}") Duration grace,
+                       @Value("${tracktrove.escrow-sweep.page-size:500}") int pageSize) {
+        this.transactionRepository = transactionRepository;
+        this.escrowService = escrowService;
+        this.grace = grace;
+        this.pageSize = pageSize;
     }
 
     @Scheduled(fixedRate = 60000) // every 60 seconds
     public void cycleInitiatedToEscrow() {
-        List<Transaction> stuckTransactions = transactionService.getByStatus(TransactionStatus.INITIATED);
-
-        for (Transaction txn : stuckTransactions) {
-            UUID txnId = txn.getId();
-
-            transactionService.updateTransactionStatus(txnId, TransactionStatus.ESCROW);
-
-            ledgerService.recordEntry(
-                txnId,
-                txn.getAmount().doubleValue(),
-                LedgerType.ESCROW,
-                "Scheduled fallback to ESCROW"
-            );
-
-            traceService.createAndSaveTrace(
-                "SCHEDULED_ESCROW",
-                null,
-                null,
-                txnId,
-                "Auto-scheduled recovery: INITIATED → ESCROW",
-                0
-            );
+        Instant cutoff = Instant.now().minus(grace);
+        int escrowed = 0;
+        List<TransactionSummary> stuck;
+        do {
+            stuck = transactionRepository.findSummariesByCurrentStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+                    TransactionStatus.INITIATED, cutoff, Limit.of(pageSize));
+            if (!stuck.isEmpty()) {
+                escrowed += escrowService.escrowStuck(stuck.stream().map(TransactionSummary::id).toList());
+            }
+        } while (stuck.size() == pageSize);
+
+        if (escrowed > 0) {
+            log.info("Escrowed {} stuck INITIATED txns", escrowed);
         }
-
-        System.out.println("[Scheduler] Escrowed " + stuckTransactions.size() + " stuck INITIATED txns.");
     }
 }
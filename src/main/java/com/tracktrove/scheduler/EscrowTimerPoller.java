@@ -0,0 +1,55 @@
+package com.tracktrove.scheduler;
+
+import com.tracktrove.redis.EscrowTimerWheel;
+import com.tracktrove.service.EscrowService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drains due entries from the escrow timer wheel. Every replica runs this; the
+ * atomic claim in Redis hands each entry to exactly one of them, and the status
+ * guard on the UPDATE keeps a re-delivered entry from being escrowed twice.
+ */
+@Component
+public class EscrowTimerPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(EscrowTimerPoller.class);
+
+    private final EscrowTimerWheel timerWheel;
+    private final EscrowService escrowService;
+    private final int batchSize;
+
+    public EscrowTimerPoller(EscrowTimerWheel timerWheel,
+                             EscrowService escrowService,
+                             @Value("${tracktrove.escrow-timer.batch-size:500}") int batchSize) {
+        this.timerWheel = timerWheel;
+        this.escrowService = escrowService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${tracktrove.escrow-timer.poll-interval-ms:1000}")
+    public void pollDueTimers() {
+        List<UUID> due;
+        do {
+            due = timerWheel.claimDue(batchSize);
+            if (due.isEmpty()) {
+                return;
+            }
+            try {
+                int escrowed = escrowService.escrowExpired(due);
+                // Ack only after the DB commit; on failure the lease expires and the batch is retried
+                timerWheel.ack(due);
+                log.debug("Claimed {} due escrow timers, escrowed {}", due.size(), escrowed);
+            } catch (Exception e) {
+                log.warn("Failed to apply {} due escrow timers: {}", due.size(), e.getMessage());
+                return;
+            }
+        } while (due.size() == batchSize);
+    }
+}
@@ -0,0 +1,25 @@
+package com.tracktrove.scheduler;
+
+import com.tracktrove.service.LedgerReconciliationService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs an incremental ledger reconciliation pass every interval. Every replica
+ * triggers it; the pages are worked by whichever holds the watermark.
+ */
+@Component
+public class LedgerReconciler {
+
+    private final LedgerReconciliationService ledgerReconciliationService;
+
+    public LedgerReconciler(LedgerReconciliationService ledgerReconciliationService) {
+        this.ledgerReconciliationService = ledgerReconciliationService;
+    }
+
+    @Scheduled(fixedDelayString = "${tracktrove.reconcile.interval:PT1M}",
+            initialDelayString = "${tracktrove.reconcile.interval:PT1M}")
+    public void reconcileLedger() {
+        ledgerReconciliationService.reconcile();
+    }
+}
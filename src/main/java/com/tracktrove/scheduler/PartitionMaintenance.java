@@ -0,0 +1,37 @@
+package com.tracktrove.scheduler;
+
+import com.tracktrove.service.PartitionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Nightly upkeep of the monthly trace and ledger partitions: creates the
+ * upcoming months, then archives and drops the ones past retention.
+ */
+@Component
+public class PartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenance.class);
+
+    private final PartitionManager partitionManager;
+
+    public PartitionMaintenance(PartitionManager partitionManager) {
+        this.partitionManager = partitionManager;
+    }
+
+    @Scheduled(cron = "${tracktrove.partitions.maintenance-cron:0 30 3 * * *}")
+    public void maintainPartitions() {
+        try {
+            partitionManager.ensureUpcomingPartitions();
+        } catch (RuntimeException e) {
+            // Retention does not depend on it; next month's writes go to DEFAULT until a run succeeds
+            log.error("Creating upcoming partitions failed: {}", e.getMessage(), e);
+        }
+        List<String> removed = partitionManager.applyRetention();
+        log.info("Partition maintenance done; archived and dropped {} partitions {}", removed.size(), removed);
+    }
+}
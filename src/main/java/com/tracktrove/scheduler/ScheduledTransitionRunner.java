@@ -0,0 +1,91 @@
+package com.tracktrove.scheduler;
+
+import com.tracktrove.entity.ScheduledTransition;
+import com.tracktrove.service.TransactionService;
+import com.tracktrove.service.TransitionScheduler;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fires due scheduled transitions. Each one is applied on its own worker
+ * (virtual threads by default) through the {@link TransactionService} proxy, so
+ * the status change and the removal of the schedule row commit together.
+ */
+@Component
+public class ScheduledTransitionRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledTransitionRunner.class);
+
+    private final TransitionScheduler transitionScheduler;
+    private final TransactionService transactionService;
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final Duration lease;
+
+    public ScheduledTransitionRunner(TransitionScheduler transitionScheduler,
+                                     TransactionService transactionService,
+                                     @Value("${tracktrove.transitions.virtual-threads:true}") boolean virtualThreads,
+                                     @Value("${tracktrove.transitions.pool-size:16}") int poolSize,
+                                     @Value("${tracktrove.transitions.batch-size:200}") int batchSize,
+                                     @Value("${tracktrove.transitions.lease:PT30S}") Duration lease) {
+        this.transitionScheduler = transitionScheduler;
+        this.transactionService = transactionService;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.workers = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("transition-", 0).factory())
+                : Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("transition-", 0).daemon().factory());
+    }
+
+    @Scheduled(fixedDelayString = "${tracktrove.transitions.poll-interval-ms:500}")
+    public void fireDueTransitions() {
+        List<ScheduledTransition> due;
+        do {
+            due = transitionScheduler.claimDue(batchSize, lease);
+            if (due.isEmpty()) {
+                return;
+            }
+
+            List<Callable<Void>> tasks = new ArrayList<>(due.size());
+            for (ScheduledTransition transition : due) {
+                tasks.add(() -> {
+                    transactionService.applyScheduledTransition(transition);
+                    return null;
+                });
+            }
+
+            try {
+                List<Future<Void>> results = workers.invokeAll(tasks);
+                for (int i = 0; i < results.size(); i++) {
+                    try {
+                        results.get(i).get();
+                    } catch (Exception e) {
+                        // Left leased; picked up again once the lease expires
+                        log.warn("Failed to apply {} for txn {}: {}", due.get(i).getTargetStatus(),
+                                due.get(i).getTransactionId(), e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } while (due.size() == batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
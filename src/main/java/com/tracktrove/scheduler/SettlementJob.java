@@ -1,53 +1,41 @@
 package com.tracktrove.scheduler;
 
-import com.tracktrove.entity.Transaction;
-import com.tracktrove.entity.enums.TransactionStatus;
-import com.tracktrove.entity.enums.LedgerType;
-import com.tracktrove.repository.TransactionRepository;
-import com.tracktrove.service.TransactionService;
-import com.tracktrove.service.LedgerService;
+import com.tracktrove.dto.SettlementReport;
+import com.tracktrove.service.SettlementService;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 @Component
+@DisallowConcurrentExecution // A slow run must not overlap the next cron tick
 public class SettlementJob implements Job {
 
-    private final TransactionRepository transactionRepository;
-    private final TransactionService transactionService;
-    private final LedgerService ledgerService;
+    private static final Logger log = LoggerFactory.getLogger(SettlementJob.class);
+
+    private final SettlementService settlementService;
 
-    public SettlementJob(TransactionRepository transactionRepository,
-                         TransactionService transactionService,
-                         LedgerService ledgerService) {
-        this.transactionRepository = transactionRepository;
-        this.transactionService = transactionService;
-        this.ledgerService = ledgerService;
+    public SettlementJob(SettlementService settlementService) {
+        this.settlementService = settlementService;
     }
 
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
-        List<Transaction> escrows = transactionRepository.findByCurrentStatus(TransactionStatus.ESCROW);
-        System.out.println("Settlement job called: " + escrows.size() + " transactions pending.");
-
-        for (Transaction txn : escrows) {
-            try {
-                Transaction updated = transactionService.updateTransactionStatus(txn.getId(), TransactionStatus.SETTLED);
-
-                ledgerService.recordEntry(
-                        updated.getId(),
-                        updated.getAmount().doubleValue(),
-                        LedgerType.SETTLEMENT,
-                        "Auto-settlement job"
-                );
-
-                System.out.println("Ledger & status updated for txn: " + updated.getId());
-            } catch (Exception e) {
-                System.err.println("Failed settlement for txn " + txn.getId() + ": " + e.getMessage());
-            }
+        try {
+            SettlementReport report = runSettlement();
+            context.setResult(report.settled());
+            log.info("Settlement job settled {} txns in {} chunks ({} ms, {} rows/s). Backlog: {}",
+                    report.settled(), report.chunks(), report.durationMs(), Math.round(report.rowsPerSecond()),
+                    report.backlog());
+        } catch (RuntimeException e) {
+            throw new JobExecutionException("Settlement run failed", e);
         }
     }
+
+    public SettlementReport runSettlement() {
+        return settlementService.settleAll();
+    }
 }
@@ -0,0 +1,25 @@
+package com.tracktrove.scheduler;
+
+import com.tracktrove.service.DashboardStatsService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically resets the incrementally kept dashboard totals from Postgres.
+ * Every replica triggers it; only one per interval actually runs the queries.
+ */
+@Component
+public class StatsReconciler {
+
+    private final DashboardStatsService dashboardStatsService;
+
+    public StatsReconciler(DashboardStatsService dashboardStatsService) {
+        this.dashboardStatsService = dashboardStatsService;
+    }
+
+    @Scheduled(fixedDelayString = "${tracktrove.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${tracktrove.stats.reconcile-interval:PT5M}")
+    public void reconcileStats() {
+        dashboardStatsService.reconcile();
+    }
+}
@@ -0,0 +1,384 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.DashboardStats;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.entity.enums.TransactionStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live dashboard aggregates, kept incrementally instead of being recomputed
+ * from the transaction table on every read.
+ *
+ * <p>Every committed status change (via {@link TransactionEvent}) bumps striped
+ * {@link LongAdder} deltas in process. A background flusher pushes the deltas of
+ * all replicas into shared Redis hashes with one pipelined round trip, then reads
+ * the hashes back into an immutable {@link DashboardStats} snapshot, so
+ * {@link #snapshot()} never touches Redis or Postgres. Rolling windows come from
+ * per-minute buckets that expire after an hour.
+ *
+ * <p>Totals can drift (a replica dying with unflushed deltas, a write path that
+ * publishes no event), so {@link #reconcile()} periodically overwrites them with
+ * GROUP BY counts from Postgres.
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    static final String STATUS_KEY = "stats:status";
+    static final String CURRENCY_COUNT_KEY = "stats:currency:count";
+    static final String CURRENCY_VOLUME_KEY = "stats:currency:volume";
+    static final String CHANNEL_COUNT_KEY = "stats:channel:count";
+    // Fields are <channel>|<currency>: amounts in different currencies are never added up
+    static final String CHANNEL_VOLUME_KEY = "stats:channel:volume";
+    private static final String MINUTE_KEY_PREFIX = "stats:minute:";
+    private static final String RECONCILED_AT_KEY = "stats:reconciled-at";
+    private static final List<String> TOTAL_KEYS = List.of(STATUS_KEY, CURRENCY_COUNT_KEY, CURRENCY_VOLUME_KEY,
+            CHANNEL_COUNT_KEY, CHANNEL_VOLUME_KEY);
+
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String UNKNOWN = "UNKNOWN";
+    // Volumes are stored as integer ten-thousandths so HINCRBY stays exact for every ISO currency
+    private static final int VOLUME_SCALE = 4;
+    // An hour of full minutes plus the one the window starts in
+    private static final int MINUTE_BUCKETS = 61;
+    private static final Duration MINUTE_BUCKET_TTL = Duration.ofMinutes(MINUTE_BUCKETS + 5);
+
+    private static final String STATUS_COUNTS_SQL =
+            "SELECT current_status, count(*) FROM transaction WHERE current_status IS NOT NULL GROUP BY current_status";
+    private static final String VOLUME_SQL =
+            "SELECT currency, channel, count(*), sum(amount) FROM transaction GROUP BY currency, channel";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMs;
+    private final Duration reconcileInterval;
+
+    // Redis key -> hash field -> delta not flushed yet
+    private final Map<String, Map<String, LongAdder>> pending = new ConcurrentHashMap<>();
+    private volatile DashboardStats snapshot = emptySnapshot();
+    private ScheduledExecutorService flusher;
+
+    public DashboardStatsService(RedisTemplate<String, String> redisTemplate,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${tracktrove.stats.flush-interval-ms:1000}") long flushIntervalMs,
+                                 @Value("${tracktrove.stats.reconcile-interval:PT5M}") Duration reconcileInterval) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.flushIntervalMs = flushIntervalMs;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stats-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // First replica against an empty Redis seeds the totals instead of waiting for the schedule
+        flusher.execute(() -> {
+            try {
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(RECONCILED_AT_KEY))) {
+                    reconcile();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Initial dashboard stats reconcile failed: {}", e.getMessage());
+            }
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndRefresh, 0, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /** Latest aggregates; at most one flush interval old, and free of any I/O. */
+    public DashboardStats snapshot() {
+        return snapshot;
+    }
+
+    // Every status change, whichever path made it (single updates, bulk jobs, scheduled transitions)
+    @EventListener
+    public void onTransactionEvent(TransactionEvent event) {
+        String minuteKey = minuteKey(event.timestamp().getEpochSecond() / 60);
+        add(STATUS_KEY, event.toStatus().name(), 1);
+        if (event.fromStatus() == null) {
+            String currency = event.currency() != null ? event.currency() : UNKNOWN;
+            String channel = event.channel() != null ? event.channel() : UNKNOWN;
+            long volume = toUnits(event.amount());
+            add(CURRENCY_COUNT_KEY, currency, 1);
+            add(CURRENCY_VOLUME_KEY, currency, volume);
+            add(CHANNEL_COUNT_KEY, channel, 1);
+            add(CHANNEL_VOLUME_KEY, channel + FIELD_SEPARATOR + currency, volume);
+            add(minuteKey, "created", 1);
+        } else {
+            add(STATUS_KEY, event.fromStatus().name(), -1);
+            add(minuteKey, "transitions", 1);
+        }
+        if (event.toStatus() == TransactionStatus.ESCROW) {
+            add(minuteKey, "succeeded", 1);
+        } else if (event.toStatus() == TransactionStatus.FAILED
+                || event.toStatus() == TransactionStatus.PERMANENTLY_FAILED) {
+            add(minuteKey, "failed", 1);
+        }
+    }
+
+    /**
+     * Replaces the shared totals with counts and sums from Postgres. Runs under an
+     * advisory lock and is skipped if another replica reconciled within the last
+     * half interval. Deltas flushed by other replicas while it runs may be counted
+     * twice or not at all until the next reconcile.
+     *
+     * @return whether this replica did the reconcile.
+     */
+    public boolean reconcile() {
+        flush(); // our own committed changes are in Postgres already; do not add them again afterwards
+        Boolean done = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtext('dashboard-stats-reconcile'))", Boolean.class);
+            if (!Boolean.TRUE.equals(locked) || reconciledRecently()) {
+                return false;
+            }
+
+            Map<String, String> statuses = new HashMap<>();
+            jdbcTemplate.query(STATUS_COUNTS_SQL, rs -> {
+                statuses.put(rs.getString(1), Long.toString(rs.getLong(2)));
+            });
+            Map<String, Long> currencyCounts = new HashMap<>();
+            Map<String, Long> currencyVolumes = new HashMap<>();
+            Map<String, Long> channelCounts = new HashMap<>();
+            Map<String, Long> channelVolumes = new HashMap<>();
+            jdbcTemplate.query(VOLUME_SQL, rs -> {
+                String currency = rs.getString(1) != null ? rs.getString(1) : UNKNOWN;
+                String channel = rs.getString(2) != null ? rs.getString(2) : UNKNOWN;
+                long count = rs.getLong(3);
+                long volume = toUnits(rs.getBigDecimal(4));
+                currencyCounts.merge(currency, count, Long::sum);
+                currencyVolumes.merge(currency, volume, Long::sum);
+                channelCounts.merge(channel, count, Long::sum);
+                channelVolumes.merge(channel + FIELD_SEPARATOR + currency, volume, Long::sum);
+            });
+
+            Map<String, Map<String, String>> totals = Map.of(
+                    STATUS_KEY, statuses,
+                    CURRENCY_COUNT_KEY, asStrings(currencyCounts),
+                    CURRENCY_VOLUME_KEY, asStrings(currencyVolumes),
+                    CHANNEL_COUNT_KEY, asStrings(channelCounts),
+                    CHANNEL_VOLUME_KEY, asStrings(channelVolumes));
+            String reconciledAt = Long.toString(System.currentTimeMillis());
+            // MULTI so readers never see the hashes half replaced
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.multi();
+                totals.forEach((key, fields) -> {
+                    connection.keyCommands().del(bytes(key));
+                    if (!fields.isEmpty()) {
+                        Map<byte[], byte[]> hash = new HashMap<>();
+                        fields.forEach((field, value) -> hash.put(bytes(field), bytes(value)));
+                        connection.hashCommands().hMSet(bytes(key), hash);
+                    }
+                });
+                connection.stringCommands().set(bytes(RECONCILED_AT_KEY), bytes(reconciledAt));
+                connection.exec();
+                return null;
+            });
+            log.info("Reconciled dashboard totals from Postgres");
+            return true;
+        });
+        return Boolean.TRUE.equals(done);
+    }
+
+    private boolean reconciledRecently() {
+        String last = redisTemplate.opsForValue().get(RECONCILED_AT_KEY);
+        return last != null
+                && System.currentTimeMillis() - Long.parseLong(last) < reconcileInterval.toMillis() / 2;
+    }
+
+    private void add(String key, String field, long delta) {
+        pending.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(field, f -> new LongAdder())
+                .add(delta);
+    }
+
+    private void flushAndRefresh() {
+        try {
+            flush();
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep the old snapshot; the flusher must survive a Redis outage
+            log.warn("Dashboard stats refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // One pipelined round trip: HINCRBY every non-zero delta, EXPIRE the minute buckets touched
+    private synchronized void flush() {
+        long currentMinute = Instant.now().getEpochSecond() / 60;
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        pending.forEach((key, fields) -> {
+            fields.forEach((field, adder) -> {
+                long delta = adder.sumThenReset();
+                if (delta != 0) {
+                    deltas.computeIfAbsent(key, k -> new HashMap<>()).put(field, delta);
+                }
+            });
+            // No event lands in a bucket this old any more; drop it so the map does not grow
+            if (key.startsWith(MINUTE_KEY_PREFIX)
+                    && Long.parseLong(key.substring(MINUTE_KEY_PREFIX.length())) < currentMinute - 1) {
+                pending.remove(key);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                deltas.forEach((key, fields) -> {
+                    fields.forEach((field, delta) -> connection.hashCommands().hIncrBy(bytes(key), bytes(field), delta));
+                    if (key.startsWith(MINUTE_KEY_PREFIX)) {
+                        connection.keyCommands().expire(bytes(key), MINUTE_BUCKET_TTL.toSeconds());
+                    }
+                });
+                return null;
+            });
+        } catch (DataAccessException e) {
+            // Put the deltas back; they go out with the next flush
+            deltas.forEach((key, fields) -> fields.forEach((field, delta) -> add(key, field, delta)));
+            throw e;
+        }
+    }
+
+    private void refresh() {
+        Instant now = Instant.now();
+        long currentMinute = now.getEpochSecond() / 60;
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : TOTAL_KEYS) {
+                connection.hashCommands().hGetAll(bytes(key));
+            }
+            for (int i = 0; i < MINUTE_BUCKETS; i++) {
+                connection.hashCommands().hGetAll(bytes(minuteKey(currentMinute - i)));
+            }
+            connection.stringCommands().get(bytes(RECONCILED_AT_KEY));
+            return null;
+        });
+
+        Map<String, Long> countByStatus = longs(hash(results.get(0)));
+        Map<String, Long> countByCurrency = longs(hash(results.get(1)));
+        Map<String, BigDecimal> volumeByCurrency = new TreeMap<>();
+        longs(hash(results.get(2))).forEach((currency, units) -> volumeByCurrency.put(currency, fromUnits(units)));
+        Map<String, Long> countByChannel = longs(hash(results.get(3)));
+        Map<String, Map<String, BigDecimal>> volumeByChannel = new TreeMap<>();
+        longs(hash(results.get(4))).forEach((field, units) -> {
+            int separator = field.lastIndexOf(FIELD_SEPARATOR);
+            volumeByChannel.computeIfAbsent(field.substring(0, separator), c -> new TreeMap<>())
+                    .put(field.substring(separator + 1), fromUnits(units));
+        });
+
+        List<Map<String, Long>> buckets = new ArrayList<>(MINUTE_BUCKETS);
+        for (int i = 0; i < MINUTE_BUCKETS; i++) {
+            buckets.add(longs(hash(results.get(TOTAL_KEYS.size() + i))));
+        }
+        // Sliding-window estimate: full minutes, plus the oldest minute weighted by the share still inside
+        double elapsedInMinute = (now.toEpochMilli() % 60_000) / 60_000.0;
+        Object reconciledAt = results.get(results.size() - 1);
+
+        snapshot = new DashboardStats(
+                countByCurrency.values().stream().mapToLong(Long::longValue).sum(),
+                countByStatus, countByCurrency, volumeByCurrency, countByChannel, volumeByChannel,
+                window(buckets, 1, elapsedInMinute),
+                window(buckets, 5, elapsedInMinute),
+                window(buckets, 60, elapsedInMinute),
+                now,
+                reconciledAt != null ? Instant.ofEpochMilli(Long.parseLong(reconciledAt.toString())) : null);
+    }
+
+    private static DashboardStats.Window window(List<Map<String, Long>> buckets, int minutes, double elapsedInMinute) {
+        double[] sums = new double[4];
+        String[] fields = {"created", "transitions", "succeeded", "failed"};
+        for (int i = 0; i <= minutes; i++) {
+            double weight = i < minutes ? 1.0 : 1.0 - elapsedInMinute;
+            for (int f = 0; f < fields.length; f++) {
+                sums[f] += weight * buckets.get(i).getOrDefault(fields[f], 0L);
+            }
+        }
+        long created = Math.round(sums[0]);
+        long transitions = Math.round(sums[1]);
+        long succeeded = Math.round(sums[2]);
+        long failed = Math.round(sums[3]);
+        double seconds = minutes * 60.0;
+        double failureRate = sums[2] + sums[3] == 0 ? 0.0 : sums[3] / (sums[2] + sums[3]);
+        return new DashboardStats.Window(created, transitions, succeeded, failed,
+                sums[0] / seconds, sums[1] / seconds, failureRate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> hash(Object result) {
+        return result instanceof Map<?, ?> map ? (Map<String, String>) map : Map.of();
+    }
+
+    private static Map<String, Long> longs(Map<String, String> hash) {
+        Map<String, Long> values = new TreeMap<>();
+        hash.forEach((field, value) -> values.put(field, Long.parseLong(value)));
+        return values;
+    }
+
+    private static Map<String, String> asStrings(Map<String, Long> values) {
+        Map<String, String> strings = new HashMap<>();
+        values.forEach((key, value) -> strings.put(key, Long.toString(value)));
+        return strings;
+    }
+
+    private static long toUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(VOLUME_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, VOLUME_SCALE).stripTrailingZeros();
+    }
+
+    private static String minuteKey(long epochMinute) {
+        return MINUTE_KEY_PREFIX + epochMinute;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static DashboardStats emptySnapshot() {
+        DashboardStats.Window none = new DashboardStats.Window(0, 0, 0, 0, 0.0, 0.0, 0.0);
+        return new DashboardStats(0, Map.of(), Map.of(), Map.of(), Map.of(), Map.of(),
+                none, none, none, Instant.now(), null);
+    }
+}
@@ -0,0 +1,81 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.dto.TransactionSummary;
+import com.tracktrove.entity.Trace;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.TransactionBatchRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk INITIATED → ESCROW for expired escrow timers, the fallback sweep and the escrow queue,
+ * with the ESCROW ledger postings and traces written in the same transaction.
+ */
+@Service
+public class EscrowService {
+
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final LedgerService ledgerService;
+    private final TraceService traceService;
+    private final TransactionEventPublisher eventPublisher;
+
+    public EscrowService(TransactionBatchRepository transactionBatchRepository,
+                         LedgerService ledgerService,
+                         TraceService traceService,
+                         TransactionEventPublisher eventPublisher) {
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.ledgerService = ledgerService;
+        this.traceService = traceService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return how many of the given transactions were still INITIATED and have been escrowed.
+     */
+    @Transactional
+    public int escrowExpired(Collection<UUID> transactionIds) {
+        return escrow(transactionIds, "AUTO_ESCROW",
+                "Escrow timer expired; auto-moved to ESCROW.", "Auto transition via escrow timer");
+    }
+
+    // Recovery path for INITIATED transactions whose timer was lost
+    @Transactional
+    public int escrowStuck(Collection<UUID> transactionIds) {
+        return escrow(transactionIds, "SCHEDULED_ESCROW",
+                "Auto-scheduled recovery: INITIATED → ESCROW", "Scheduled fallback to ESCROW");
+    }
+
+    // Ids added to the Redis escrow queue stream (admin patch), see EscrowQueueConsumer
+    @Transactional
+    public int escrowQueued(Collection<UUID> transactionIds) {
+        return escrow(transactionIds, "QUEUED_ESCROW",
+                "Escrow queue: INITIATED → ESCROW", "Escrow via transaction queue");
+    }
+
+    private int escrow(Collection<UUID> transactionIds, String stepName, String traceMessage, String ledgerDescription) {
+        List<TransactionSummary> moved = transactionBatchRepository.transitionIds(
+                transactionIds, TransactionStatus.INITIATED, TransactionStatus.ESCROW);
+        if (moved.isEmpty()) {
+            return 0;
+        }
+
+        Instant traceTime = Instant.now();
+        List<Trace> traces = new ArrayList<>(moved.size());
+        List<TransactionEvent> events = new ArrayList<>(moved.size());
+        for (TransactionSummary row : moved) {
+            traces.add(new Trace(null, row.id(), stepName, null, null, traceMessage, 0, traceTime));
+            events.add(TransactionEvent.of(row, TransactionStatus.INITIATED, TransactionStatus.ESCROW));
+        }
+        traceService.saveAllDebug(traces);
+        eventPublisher.publishAll(events);
+        ledgerService.postTransitions(events, ledgerDescription);
+        return moved.size();
+    }
+}
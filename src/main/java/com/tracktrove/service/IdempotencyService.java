@@ -0,0 +1,289 @@
+package com.tracktrove.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tracktrove.dto.InitiateResult;
+import com.tracktrove.dto.TransactionDTO;
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotency keys for {@code POST /api/transactions/initiate}, scoped per vendor.
+ * Three layers, cheapest first:
+ * <ol>
+ *   <li>Concurrent duplicates on this replica wait for the first one's result
+ *       instead of running themselves.</li>
+ *   <li>{@code SET NX EX} on {@value #KEY_PREFIX}{@code <vendor>:<key>} claims the key
+ *       cluster-wide; the winner replaces the pending marker with the JSON of the
+ *       transaction it created, which repeats replay until the TTL runs out. The
+ *       marker has a short TTL of its own, so a crashed owner blocks repeats only
+ *       briefly.</li>
+ *   <li>The unique index on {@code (vendor_id, idempotency_key)} catches anything
+ *       the cache missed (expired key, Redis outage); the loser replays the
+ *       committed row.</li>
+ * </ol>
+ * Each layer also checks that a repeat is the same request: a fingerprint of the
+ * fields the transaction is made from travels with the pending marker and the
+ * stored response, and is recomputed from the row on the unique-index path. A key
+ * reused for a different request gets {@link InitiateResult.Outcome#MISMATCH}.
+ * A request without a key costs nothing here: the controller skips this class.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    static final String KEY_PREFIX = "idem:initiate:";
+    // Followed by the claimant's fingerprint. Stored responses are JSON objects, so they never start with it
+    private static final String PENDING = "PENDING";
+    private static final long POLL_INTERVAL_MS = 25;
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+    private final Duration inFlightWait;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder replays = new LongAdder();
+
+    public IdempotencyService(TransactionService transactionService,
+                              TransactionRepository transactionRepository,
+                              RedisTemplate<String, String> redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${tracktrove.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${tracktrove.idempotency.pending-ttl:PT30S}") Duration pendingTtl,
+                              @Value("${tracktrove.idempotency.in-flight-wait:PT5S}") Duration inFlightWait) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+        this.inFlightWait = inFlightWait;
+    }
+
+    /** Initiates the transaction once per vendor and {@code dto.getIdempotencyKey()}, which must be set. */
+    public InitiateResult initiate(TransactionDTO dto) {
+        String key = KEY_PREFIX + dto.getVendorId() + ':' + dto.getIdempotencyKey();
+        String fingerprint = fingerprint(dto.getVendorId(), dto.getAmount(), dto.getCurrency(), dto.getChannel(),
+                dto.getInitialPayloadJson(), dto.getSimulatedSuccessRate());
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return running.fingerprint().equals(fingerprint) ? awaitLocal(running.result()) : InitiateResult.mismatch();
+        }
+        try {
+            InitiateResult result = claimAndInitiate(key, fingerprint, dto);
+            mine.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public long replayCount() {
+        return replays.sum();
+    }
+
+    private InitiateResult awaitLocal(CompletableFuture<InitiateResult> running) {
+        try {
+            InitiateResult result = running.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+            return result.transaction() == null ? result : replay(result.transaction());
+        } catch (TimeoutException e) {
+            return new InitiateResult(InitiateResult.Outcome.IN_PROGRESS, null);
+        } catch (ExecutionException e) {
+            // Same request, same failure
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a duplicate request", e);
+        }
+    }
+
+    private InitiateResult claimAndInitiate(String key, String fingerprint, TransactionDTO dto) {
+        Boolean claimed = claim(key, fingerprint);
+        if (Boolean.FALSE.equals(claimed)) {
+            long deadline = System.nanoTime() + inFlightWait.toNanos();
+            String stored;
+            while ((stored = read(key)) != null) {
+                if (!stored.startsWith(PENDING)) {
+                    StoredResponse response = parse(stored);
+                    if (response != null) {
+                        return fingerprint.equals(response.fingerprint())
+                                ? replay(response.transaction())
+                                : InitiateResult.mismatch();
+                    }
+                    break; // unreadable entry: fall back to the database below
+                }
+                if (!stored.equals(PENDING + fingerprint)) {
+                    return InitiateResult.mismatch();
+                }
+                if (System.nanoTime() > deadline) {
+                    return new InitiateResult(InitiateResult.Outcome.IN_PROGRESS, null);
+                }
+                sleep();
+            }
+            // The owner gave up (or the entry expired); the unique index settles any race from here
+        }
+
+        try {
+            Transaction created = transactionService.initiateTransaction(dto);
+            store(key, fingerprint, created);
+            return InitiateResult.created(created);
+        } catch (RuntimeException e) {
+            // Lost the race on the unique index, or the cache had forgotten the key: replay the committed row
+            Optional<Transaction> existing = transactionRepository.findByVendorIdAndIdempotencyKey(
+                    dto.getVendorId(), dto.getIdempotencyKey());
+            if (existing.isPresent()) {
+                Transaction row = existing.get();
+                String rowFingerprint = fingerprint(row.getVendorId(), row.getAmount(), row.getCurrency(),
+                        row.getChannel(), row.getInitialPayload(), row.getSimulatedSuccessRate());
+                store(key, rowFingerprint, row);
+                return fingerprint.equals(rowFingerprint) ? replay(row) : InitiateResult.mismatch();
+            }
+            if (Boolean.TRUE.equals(claimed)) {
+                release(key);
+            }
+            throw e;
+        }
+    }
+
+    private InitiateResult replay(Transaction transaction) {
+        replays.increment();
+        return InitiateResult.replayed(transaction);
+    }
+
+    // null when Redis is unavailable; the unique index still holds
+    private Boolean claim(String key, String fingerprint) {
+        try {
+            return redisTemplate.opsForValue().setIfAbsent(key, PENDING + fingerprint, pendingTtl);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency claim failed for {}, relying on the unique index: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private String read(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency read failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String key, String fingerprint, Transaction transaction) {
+        try {
+            redisTemplate.opsForValue().set(key,
+                    objectMapper.writeValueAsString(new StoredResponse(fingerprint, transaction)), ttl);
+        } catch (DataAccessException | JsonProcessingException e) {
+            // Repeats fall through to the unique index instead
+            log.warn("Failed to store idempotent response for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void release(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            // The pending marker expires with the TTL; repeats wait, then go to the unique index
+            log.warn("Failed to release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private StoredResponse parse(String json) {
+        try {
+            StoredResponse response = objectMapper.readValue(json, StoredResponse.class);
+            if (response.fingerprint() == null || response.transaction() == null) {
+                log.warn("Idempotent response without fingerprint, ignoring it");
+                return null;
+            }
+            return response;
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable idempotent response, ignoring it: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    /**
+     * SHA-256 over the fields a transaction is created from, normalized so that the
+     * DTO and the row it became agree: amount at the column's scale of 2, currency
+     * trimmed and upper-cased, the payload as JSON with its keys sorted (jsonb
+     * reorders them). The key itself is not part of it.
+     */
+    String fingerprint(UUID vendorId, BigDecimal amount, String currency, String channel, String payloadJson,
+                       Double simulatedSuccessRate) {
+        String canonical = String.join("\n",
+                String.valueOf(vendorId),
+                amount == null ? "" : amount.setScale(2, RoundingMode.HALF_UP).toPlainString(),
+                currency == null ? "" : currency.trim().toUpperCase(Locale.ROOT),
+                channel == null ? "" : channel.trim(),
+                canonicalJson(payloadJson),
+                String.valueOf(simulatedSuccessRate));
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a required JDK algorithm", e);
+        }
+    }
+
+    private String canonicalJson(String json) {
+        if (json == null) {
+            return "";
+        }
+        try {
+            Object value = objectMapper.readValue(json, Object.class);
+            return objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return json; // compared as sent
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<InitiateResult> result) {
+    }
+
+    // What the key's owner stored: the request it was first used with, and the response
+    record StoredResponse(String fingerprint, Transaction transaction) {
+    }
+
+    private static void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a duplicate request", e);
+        }
+    }
+}
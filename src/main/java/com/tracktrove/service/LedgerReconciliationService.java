@@ -0,0 +1,425 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.LedgerDiscrepancy;
+import com.tracktrove.dto.LedgerPosting;
+import com.tracktrove.dto.ReconciliationReport;
+import com.tracktrove.dto.ReconciliationRun;
+import com.tracktrove.entity.enums.DiscrepancyKind;
+import com.tracktrove.entity.enums.LedgerDirection;
+import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.ReconciliationRepository;
+import com.tracktrove.repository.ReconciliationRepository.LegKey;
+import com.tracktrove.repository.ReconciliationRepository.LegRow;
+import com.tracktrove.repository.ReconciliationRepository.TransactionKey;
+import com.tracktrove.repository.ReconciliationRepository.TransactionRow;
+import com.tracktrove.repository.ReconciliationRepository.Watermark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Checks that every transaction has the ledger postings its status calls for, and
+ * only those: one ESCROW posting once it has been in escrow, one SETTLEMENT once
+ * settled, one REFUND once refunded, each with balanced legs in the transaction's
+ * amount and currency.
+ *
+ * <p>A pass never joins the full tables. It resumes from a stored watermark and walks
+ * two keysets in pages: transactions by {@code (updated_at, id)}, which catches every
+ * status change (postings commit with the change they belong to), and ledger legs by
+ * id, which catches postings made without one. Each page's transactions and their
+ * legs are read in uuid order and merge-joined, legs streamed from the cursor, so
+ * memory is bounded by the page size whatever the size of the tables. A page's
+ * findings replace the transaction's open discrepancies and the watermark moves in
+ * the same database transaction, so a crash repeats at most one page.
+ *
+ * <p>Both keysets stop {@code lag} behind the clock: rows are stamped before they
+ * commit, and a row that became visible after the watermark had passed its position
+ * would never be checked.
+ */
+@Service
+public class LedgerReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciliationService.class);
+
+    static final String WATERMARK = "transaction-ledger";
+    // Legs are written after their transaction and in the same month partition or a later one;
+    // the slack covers clock skew between replicas
+    private static final Duration LEG_SLACK = Duration.ofHours(1);
+
+    // Postgres orders uuids bytewise, which is unsigned order of the two halves
+    static final Comparator<UUID> UUID_ORDER = (a, b) -> {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private enum Expected { NONE, AT_MOST_ONE, EXACTLY_ONE }
+
+    private static final Set<TransactionStatus> NEVER_ESCROWED = EnumSet.of(
+            TransactionStatus.INITIATED, TransactionStatus.FAILED, TransactionStatus.PERMANENTLY_FAILED);
+    private static final Set<TransactionStatus> ESCROWED = EnumSet.of(
+            TransactionStatus.ESCROW, TransactionStatus.SETTLED,
+            TransactionStatus.DISPUTE_OPEN, TransactionStatus.DISPUTE_RESOLVED);
+    private static final Set<TransactionStatus> SETTLED = EnumSet.of(
+            TransactionStatus.SETTLED, TransactionStatus.DISPUTE_OPEN, TransactionStatus.DISPUTE_RESOLVED);
+
+    private final ReconciliationRepository reconciliationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lag;
+    private final int pageSize;
+    private final int maxPages;
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder found = new LongAdder();
+
+    public LedgerReconciliationService(ReconciliationRepository reconciliationRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${tracktrove.reconcile.lag:PT1M}") Duration lag,
+                                       @Value("${tracktrove.reconcile.page-size:1000}") int pageSize,
+                                       @Value("${tracktrove.reconcile.max-pages:100}") int maxPages) {
+        this.reconciliationRepository = reconciliationRepository;
+        // A page's transactions and legs must come from one snapshot, or a transaction
+        // settling between the two reads would look like it has a posting it should not
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.lag = lag;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+    }
+
+    public long checkedCount() {
+        return checked.sum();
+    }
+
+    public long discrepancyCount() {
+        return found.sum();
+    }
+
+    /**
+     * One pass: transaction pages until that side reaches {@code now - lag} or has done
+     * {@code max-pages} pages, then ledger pages likewise. Every replica may call
+     * it; pages are claimed through the watermark row, and a replica that finds it
+     * taken stops.
+     */
+    public ReconciliationRun reconcile() {
+        long started = System.nanoTime();
+        Instant upTo = Instant.now().minus(lag);
+        LocalDateTime legsUpTo = LocalDateTime.ofInstant(upTo, ZoneId.systemDefault());
+        Pass pass = new Pass();
+        boolean transactionsCaughtUp = pass.run(() -> transactionPage(upTo));
+        boolean legsCaughtUp = pass.run(() -> ledgerPage(legsUpTo));
+        if (!pass.claimed) {
+            return ReconciliationRun.SKIPPED;
+        }
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        if (pass.checked > 0) {
+            log.info("Ledger reconciliation checked {} transactions in {} pages, {} discrepancies ({} ms)",
+                    pass.checked, pass.pages, pass.found, durationMs);
+        }
+        return new ReconciliationRun(true, pass.pages, pass.checked, pass.found,
+                transactionsCaughtUp && legsCaughtUp, durationMs);
+    }
+
+    public ReconciliationReport report(int limit) {
+        return reconciliationRepository.report(WATERMARK, limit);
+    }
+
+    private record PageResult(int checked, int found, boolean last) {
+    }
+
+    private final class Pass {
+
+        private boolean claimed;
+        private int pages;
+        private long checked;
+        private long found;
+
+        // Pages of one side, each in its own transaction; true if the side caught up
+        boolean run(Supplier<PageResult> nextPage) {
+            for (int i = 0; i < maxPages; i++) {
+                PageResult page;
+                try {
+                    page = transactionTemplate.execute(status -> nextPage.get());
+                } catch (ConcurrencyFailureException e) {
+                    log.debug("Reconciliation watermark moved under this pass: {}", e.getMessage());
+                    return false;
+                }
+                if (page == null) {
+                    return false; // another replica holds the watermark
+                }
+                claimed = true;
+                if (page.checked() > 0) {
+                    pages++;
+                    checked += page.checked();
+                    found += page.found();
+                }
+                if (page.last()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Transactions whose updated_at passed since the last page; null if the watermark is taken
+    private PageResult transactionPage(Instant upTo) {
+        Watermark watermark = reconciliationRepository.lockWatermark(WATERMARK).orElse(null);
+        if (watermark == null) {
+            return null;
+        }
+        List<TransactionKey> keys = reconciliationRepository.nextTransactions(watermark, upTo, pageSize);
+        if (keys.isEmpty()) {
+            return new PageResult(0, 0, true);
+        }
+        List<UUID> ids = keys.stream().map(TransactionKey::id).toList();
+        List<TransactionRow> transactions = reconciliationRepository.findTransactions(ids);
+        int found = check(ids, transactions, earliestLeg(transactions, null));
+        TransactionKey last = keys.get(keys.size() - 1);
+        reconciliationRepository.advance(WATERMARK, new Watermark(last.updatedAt(), last.id(),
+                watermark.entryId(), watermark.entryTimestamp()), ids.size());
+        return new PageResult(ids.size(), found, keys.size() < pageSize);
+    }
+
+    // Legs written since the last page, checked together with everything else their transactions have
+    private PageResult ledgerPage(LocalDateTime upTo) {
+        Watermark watermark = reconciliationRepository.lockWatermark(WATERMARK).orElse(null);
+        if (watermark == null) {
+            return null;
+        }
+        List<LegKey> legs = reconciliationRepository.nextLegs(watermark,
+                watermark.entryTimestamp().minus(LEG_SLACK), pageSize);
+        // Legs are numbered before they commit: stop at the first one too recent to be sure of
+        boolean last = legs.size() < pageSize;
+        int end = 0;
+        while (end < legs.size() && !legs.get(end).entryTimestamp().isAfter(upTo)) {
+            end++;
+        }
+        if (end < legs.size()) {
+            legs = legs.subList(0, end);
+            last = true;
+        }
+        if (legs.isEmpty()) {
+            return new PageResult(0, 0, true);
+        }
+        Set<UUID> ids = new LinkedHashSet<>();
+        LocalDateTime earliest = legs.get(0).entryTimestamp();
+        for (LegKey leg : legs) {
+            ids.add(leg.transactionId());
+            if (leg.entryTimestamp().isBefore(earliest)) {
+                earliest = leg.entryTimestamp();
+            }
+        }
+        List<TransactionRow> transactions = reconciliationRepository.findTransactions(ids);
+        int found = check(ids, transactions, earliestLeg(transactions, earliest));
+        LegKey lastLeg = legs.get(legs.size() - 1);
+        reconciliationRepository.advance(WATERMARK, new Watermark(watermark.transactionUpdatedAt(),
+                watermark.transactionId(), lastLeg.id(), lastLeg.entryTimestamp()), ids.size());
+        return new PageResult(ids.size(), found, last);
+    }
+
+    // Lower bound on the entry_timestamp of the page's legs, so old partitions are pruned
+    private static LocalDateTime earliestLeg(List<TransactionRow> transactions, LocalDateTime earliest) {
+        for (TransactionRow transaction : transactions) {
+            if (transaction.createdAt() != null) {
+                LocalDateTime created = LocalDateTime.ofInstant(transaction.createdAt(), ZoneId.systemDefault());
+                if (earliest == null || created.isBefore(earliest)) {
+                    earliest = created;
+                }
+            }
+        }
+        return (earliest != null ? earliest : LocalDateTime.ofInstant(Instant.EPOCH, ZoneId.systemDefault()))
+                .minus(LEG_SLACK);
+    }
+
+    /**
+     * Merge-joins the transactions (in uuid order) with their legs as they stream in,
+     * one transaction's legs in memory at a time, and saves what it finds.
+     */
+    private int check(Collection<UUID> ids, List<TransactionRow> transactions, LocalDateTime legsSince) {
+        Instant checkedAt = Instant.now();
+        List<LedgerDiscrepancy> findings = new ArrayList<>();
+        MergeJoin join = new MergeJoin(transactions, findings, checkedAt);
+        reconciliationRepository.streamLegs(ids, legsSince, join::accept);
+        join.finish();
+        reconciliationRepository.saveFindings(ids, findings, checkedAt);
+        checked.add(ids.size());
+        found.add(findings.size());
+        return findings.size();
+    }
+
+    static final class MergeJoin {
+
+        private final List<TransactionRow> transactions;
+        private final List<LedgerDiscrepancy> findings;
+        private final Instant checkedAt;
+        private int next;
+        private Postings current;
+
+        MergeJoin(List<TransactionRow> transactions, List<LedgerDiscrepancy> findings, Instant checkedAt) {
+            this.transactions = transactions;
+            this.findings = findings;
+            this.checkedAt = checkedAt;
+        }
+
+        void accept(LegRow leg) {
+            if (current != null && current.transactionId.equals(leg.transactionId())) {
+                current.add(leg);
+                return;
+            }
+            closeCurrent();
+            // Transactions ordered before this leg have no legs at all
+            while (next < transactions.size()
+                    && UUID_ORDER.compare(transactions.get(next).id(), leg.transactionId()) < 0) {
+                new Postings(transactions.get(next++)).check(findings, checkedAt);
+            }
+            if (next < transactions.size() && transactions.get(next).id().equals(leg.transactionId())) {
+                current = new Postings(transactions.get(next++));
+            } else {
+                current = new Postings(leg.transactionId());
+            }
+            current.add(leg);
+        }
+
+        void finish() {
+            closeCurrent();
+            while (next < transactions.size()) {
+                new Postings(transactions.get(next++)).check(findings, checkedAt);
+            }
+        }
+
+        private void closeCurrent() {
+            if (current != null) {
+                current.check(findings, checkedAt);
+                current = null;
+            }
+        }
+    }
+
+    // The legs of one transaction, summed per ledger type
+    private static final class Postings {
+
+        private final UUID transactionId;
+        private final TransactionRow transaction;
+        private final String currency;
+        private final Long amountMinor;
+        private final int[] debits = new int[LedgerType.values().length];
+        private final int[] credits = new int[LedgerType.values().length];
+        private final long[] debitSums = new long[LedgerType.values().length];
+        private final long[] creditSums = new long[LedgerType.values().length];
+        private final String[] mismatches = new String[LedgerType.values().length];
+
+        Postings(TransactionRow transaction) {
+            this.transactionId = transaction.id();
+            this.transaction = transaction;
+            this.currency = LedgerPosting.normalizeCurrency(transaction.currency());
+            this.amountMinor = expectedAmount(transaction.amount(), currency);
+        }
+
+        Postings(UUID orphanId) {
+            this.transactionId = orphanId;
+            this.transaction = null;
+            this.currency = null;
+            this.amountMinor = null;
+        }
+
+        void add(LegRow leg) {
+            int type = leg.type().ordinal();
+            if (leg.direction() == LedgerDirection.DEBIT) {
+                debits[type]++;
+                debitSums[type] += leg.amountMinor();
+            } else {
+                credits[type]++;
+                creditSums[type] += leg.amountMinor();
+            }
+            if (transaction != null && mismatches[type] == null
+                    && (amountMinor == null || leg.amountMinor() != amountMinor || !leg.currency().equals(currency))) {
+                mismatches[type] = "%s leg of %d %s, expected %s %s".formatted(leg.direction(), leg.amountMinor(),
+                        leg.currency(), amountMinor != null ? amountMinor : "?", currency);
+            }
+        }
+
+        void check(List<LedgerDiscrepancy> findings, Instant checkedAt) {
+            TransactionStatus status = transaction != null ? transaction.status() : null;
+            for (LedgerType type : LedgerType.values()) {
+                int t = type.ordinal();
+                int postings = Math.max(debits[t], credits[t]);
+                if (transaction == null) {
+                    if (postings > 0) {
+                        add(findings, type, DiscrepancyKind.ORPHANED, null, checkedAt,
+                                "%d legs of a transaction that does not exist".formatted(debits[t] + credits[t]));
+                    }
+                    continue;
+                }
+                Expected expected = expected(type, status);
+                if (expected == Expected.EXACTLY_ONE && postings == 0) {
+                    add(findings, type, DiscrepancyKind.MISSING, status, checkedAt,
+                            "%s with no %s posting".formatted(status, type));
+                } else if (expected == Expected.NONE && postings > 0) {
+                    add(findings, type, DiscrepancyKind.UNEXPECTED, status, checkedAt,
+                            "%d %s postings while %s".formatted(postings, type, status));
+                } else if (postings > 1) {
+                    add(findings, type, DiscrepancyKind.DUPLICATE, status, checkedAt,
+                            "%d %s postings".formatted(postings, type));
+                }
+                if (debits[t] != credits[t] || debitSums[t] != creditSums[t]) {
+                    add(findings, type, DiscrepancyKind.UNBALANCED, status, checkedAt,
+                            "%d debit legs (%d) against %d credit legs (%d)".formatted(
+                                    debits[t], debitSums[t], credits[t], creditSums[t]));
+                }
+                if (mismatches[t] != null) {
+                    add(findings, type, DiscrepancyKind.AMOUNT_MISMATCH, status, checkedAt, mismatches[t]);
+                }
+            }
+        }
+
+        private void add(List<LedgerDiscrepancy> findings, LedgerType type, DiscrepancyKind kind,
+                         TransactionStatus status, Instant checkedAt, String detail) {
+            findings.add(new LedgerDiscrepancy(transactionId, type, kind, status, detail, checkedAt, checkedAt));
+        }
+
+        private static Long expectedAmount(BigDecimal amount, String currency) {
+            try {
+                return LedgerPosting.toMinorUnits(amount, currency);
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+    }
+
+    // How many postings of the type a transaction in the status should have
+    private static Expected expected(LedgerType type, TransactionStatus status) {
+        if (status == null) {
+            return Expected.AT_MOST_ONE;
+        }
+        return switch (type) {
+            case ESCROW -> ESCROWED.contains(status) ? Expected.EXACTLY_ONE
+                    : NEVER_ESCROWED.contains(status) ? Expected.NONE : Expected.AT_MOST_ONE;
+            case SETTLEMENT -> SETTLED.contains(status) ? Expected.EXACTLY_ONE
+                    : NEVER_ESCROWED.contains(status) || status == TransactionStatus.ESCROW
+                    ? Expected.NONE : Expected.AT_MOST_ONE;
+            case REFUND -> status == TransactionStatus.REFUNDED ? Expected.EXACTLY_ONE
+                    : NEVER_ESCROWED.contains(status) ? Expected.NONE : Expected.AT_MOST_ONE;
+        };
+    }
+}
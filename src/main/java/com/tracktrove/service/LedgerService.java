@@ -1,23 +1,52 @@
 package com.tracktrove.service;
 
+import com.tracktrove.dto.LedgerBalance;
+import com.tracktrove.dto.LedgerPosting;
+import com.tracktrove.dto.TransactionEvent;
 import com.tracktrove.entity.LedgerEntry;
-import com.tracktrove.entity.Transaction;
+import com.tracktrove.entity.enums.LedgerAccount;
 import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.repository.LedgerBalanceRepository;
+import com.tracktrove.repository.LedgerBatchRepository;
 import com.tracktrove.repository.LedgerEntryRepository;
+import com.tracktrove.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Service
 public class LedgerService {
 
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
     private final LedgerEntryRepository ledgerRepo;
+    private final LedgerBatchRepository ledgerBatchRepository;
+    private final LedgerBalanceRepository ledgerBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final Duration hotWindow;
 
-    public LedgerService(LedgerEntryRepository ledgerRepo) {
+    public LedgerService(LedgerEntryRepository ledgerRepo,
+                         LedgerBatchRepository ledgerBatchRepository,
+                         LedgerBalanceRepository ledgerBalanceRepository,
+                         TransactionRepository transactionRepository,
+                         @Value("${tracktrove.partitions.hot-window:P31D}") Duration hotWindow) {
         this.ledgerRepo = ledgerRepo;
+        this.ledgerBatchRepository = ledgerBatchRepository;
+        this.ledgerBalanceRepository = ledgerBalanceRepository;
+        this.transactionRepository = transactionRepository;
+        this.hotWindow = hotWindow;
     }
 
     @Transactional(readOnly = true)
@@ -25,27 +54,56 @@ public class LedgerService {
         return ledgerRepo.findAll();
     }
 
-    public void recordEntry(UUID transactionId, Double amount, LedgerType type, String description)
-    {
-        LedgerEntry entry = new LedgerEntry();
-        entry.setTransactionId(transactionId);
-        entry.setAmount(amount);
-        entry.setType(type); // or use LedgerType enum if typed
-        entry.setDescription(description);
-        entry.setEntryTimestamp(LocalDateTime.now());
+    // Entries since the given time (default: the hot window), newest first; older partitions are not read
+    @Transactional(readOnly = true)
+    public List<LedgerEntry> getRecentEntries(LocalDateTime since) {
+        LocalDateTime from = since != null ? since : LocalDateTime.now().minus(hotWindow);
+        return ledgerRepo.findByEntryTimestampGreaterThanEqualOrderByEntryTimestampDesc(from);
+    }
 
-        ledgerRepo.save(entry);
+    // No entry predates its transaction, so partitions older than its creation are skipped
+    @Transactional(readOnly = true)
+    public List<LedgerEntry> getEntriesForTransaction(UUID transactionId) {
+        Instant since = transactionRepository.findCreatedAtById(transactionId)
+                .orElseGet(() -> Instant.now().minus(hotWindow));
+        return ledgerRepo.findByTransactionIdAndEntryTimestampGreaterThanEqualOrderByEntryTimestamp(
+                transactionId, LocalDateTime.ofInstant(since, ZoneId.systemDefault()));
+    }
 
-//        Ledger service test
-//        LedgerService ledgerService = new LedgerService(ledgerRepo);
-//        ledgerService.recordEntry(
-//                UUID.fromString("430e30a1-c027-431a-a7f2-035b66c101bc"),
-//                150.75,
-//                LedgerType.SETTLEMENT,
-//                "Manual test entry"
-//        );
+    /** Single manual posting; the bulk paths go through {@link #postTransitions}. */
+    @Transactional
+    public void recordEntry(UUID transactionId, UUID vendorId, BigDecimal amount, String currency,
+                            LedgerType type, String description) {
+        String code = LedgerPosting.normalizeCurrency(currency);
+        LedgerPosting posting = new LedgerPosting(transactionId,
+                vendorId != null ? vendorId : LedgerPosting.UNKNOWN_VENDOR,
+                type, LedgerPosting.toMinorUnits(amount, code), code, description);
+        ledgerBatchRepository.postAll(List.of(posting), LocalDateTime.now());
+        log.debug("Ledger recorded: {} | {}", transactionId, type);
+    }
 
+    /**
+     * Posts the ledger entries that the given status changes call for (see
+     * {@link LedgerType#postedOnEntering}), in the caller's transaction. Call it
+     * after the other writes of the transaction: it locks the vendors' balance
+     * rows until commit.
+     *
+     * @return how many postings were written
+     */
+    public int postTransitions(Collection<TransactionEvent> events, String description) {
+        List<LedgerPosting> postings = new ArrayList<>(events.size());
+        for (TransactionEvent event : events) {
+            LedgerType.postedOnEntering(event.toStatus())
+                    .ifPresent(type -> postings.add(LedgerPosting.of(event, type, description)));
+        }
+        ledgerBatchRepository.postAll(postings, LocalDateTime.now());
+        return postings.size();
+    }
 
-        System.out.println("Ledger recorded: " + transactionId + " | " + type);
+    // Maintained per posting, so this reads a handful of rows whatever the size of ledger_entry
+    public List<LedgerBalance> getBalances(UUID vendorId, LedgerAccount account) {
+        return account != null
+                ? ledgerBalanceRepository.findByVendorAndAccount(vendorId, account)
+                : ledgerBalanceRepository.findByVendor(vendorId);
     }
 }
@@ -0,0 +1,177 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.redis.EscrowTimerWheel;
+import com.tracktrove.repository.OutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tails {@code transaction_outbox} and delivers each status event to its
+ * consumers. A single relay thread claims batches of rows (deleting them) and
+ * does all of the delivery before that claim commits: it arms the Redis escrow
+ * timers of transactions that became INITIATED, hands the events to the
+ * in-process {@link TransactionEvent} listeners (WebSocket fan-out, cache
+ * invalidation, dashboard counters, metrics), and pushes the resulting cache
+ * invalidations to Redis. A crash or a failed commit therefore means the batch
+ * is delivered again, never that it is lost; the listeners tolerate repeats, and
+ * the dashboard totals a repeat inflates are reset from Postgres periodically.
+ * What is left in memory when the process dies (unsent WebSocket frames,
+ * unflushed counter deltas) only ever described this replica.
+ *
+ * <p>Committing transactions that appended events wake the relay at once; the
+ * poll interval only bounds the delay for rows appended by other replicas.
+ */
+@Component
+@DependsOn("schemaMigrator")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final EscrowTimerWheel escrowTimerWheel;
+    private final TransactionCache transactionCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Thread relayThread;
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    // Status change to delivery, for the most recently relayed event
+    private volatile Duration lag = Duration.ZERO;
+    private volatile boolean running = true;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       EscrowTimerWheel escrowTimerWheel,
+                       TransactionCache transactionCache,
+                       ApplicationEventPublisher applicationEventPublisher,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${tracktrove.outbox.batch-size:500}") int batchSize,
+                       @Value("${tracktrove.outbox.poll-interval-ms:200}") long pollIntervalMs) {
+        this.outboxRepository = outboxRepository;
+        this.escrowTimerWheel = escrowTimerWheel;
+        this.transactionCache = transactionCache;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+
+        this.relayThread = new Thread(this::run, "outbox-relay");
+        this.relayThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        relayThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUps.release();
+        relayThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /** Asks for a relay pass now instead of at the next poll; cheap enough to call on every commit. */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    public long relayedCount() {
+        return relayed.sum();
+    }
+
+    public long failedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    public Duration lag() {
+        return lag;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeUps.drainPermits();
+                // A wake-up arriving while draining leaves a permit, so the next wait returns at once
+                int relayedNow;
+                do {
+                    relayedNow = relayBatch();
+                } while (running && relayedNow == batchSize); // backlog: no waiting between full batches
+                wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Rows stay in the outbox and are claimed again on the next pass
+                failedBatches.increment();
+                log.warn("Outbox relay pass failed: {}", e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private int relayBatch() {
+        List<TransactionEvent> events = transactionTemplate.execute(status -> {
+            List<TransactionEvent> claimed = outboxRepository.claim(batchSize);
+            Map<UUID, Instant> escrowTimers = new HashMap<>();
+            for (TransactionEvent event : claimed) {
+                if (event.toStatus() == TransactionStatus.INITIATED) {
+                    escrowTimers.put(event.transactionId(), event.timestamp().plus(TransactionService.ESCROW_HOLD));
+                }
+            }
+            escrowTimerWheel.scheduleAll(escrowTimers);
+            for (TransactionEvent event : claimed) {
+                try {
+                    applicationEventPublisher.publishEvent(event);
+                } catch (RuntimeException e) {
+                    // One broken listener must not hold back the events behind it
+                    log.warn("Listener failed for {} event of txn {}: {}", event.toStatus(), event.transactionId(),
+                            e.getMessage());
+                }
+            }
+            // Other replicas read stale rows from Redis until this lands, so it must not die with the process
+            if (!claimed.isEmpty() && !transactionCache.flushInvalidations()) {
+                throw new IllegalStateException("Cache invalidations could not be sent to Redis");
+            }
+            return claimed;
+        });
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        relayed.add(events.size());
+        lag = Duration.between(events.get(events.size() - 1).timestamp(), Instant.now());
+        return events.size();
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.tracktrove.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of {@code trace} and {@code ledger_entry} (see
+ * migration V4) in shape: partitions are created a few months ahead, and once a
+ * month falls out of its table's retention window it is archived to
+ * {@code <archive-dir>/<partition>.ndjson.gz} and then detached and dropped.
+ * Rows written while their month had no partition (the job fell behind) sit in
+ * the DEFAULT partition until the month is created, which moves them over
+ * (migration V10); rows still there afterwards are logged and exposed as a gauge.
+ *
+ * <p>Each expired partition is handled in its own transaction under an advisory
+ * lock, so replicas never archive the same month twice. The archive file is
+ * written by whichever replica wins; the partition is only dropped once it is
+ * complete on disk.
+ */
+@Service
+@DependsOn("schemaMigrator")
+public class PartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("(trace|ledger_entry)_(\\d{4})_(\\d{2})");
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ?
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Integer> retentionMonths;
+    private final int monthsAhead;
+    private final Path archiveDir;
+    // Rows left in each table's DEFAULT partition, as of the last ensureUpcomingPartitions
+    private final Map<String, Long> defaultRows = new ConcurrentHashMap<>();
+
+    public PartitionManager(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${tracktrove.partitions.months-ahead:2}") int monthsAhead,
+                            @Value("${tracktrove.partitions.trace-retention-months:6}") int traceRetentionMonths,
+                            @Value("${tracktrove.partitions.ledger-retention-months:84}") int ledgerRetentionMonths,
+                            @Value("${tracktrove.partitions.archive-dir:archive}") Path archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = Map.of("trace", traceRetentionMonths, "ledger_entry", ledgerRetentionMonths);
+        this.archiveDir = archiveDir;
+    }
+
+    // Partitions must exist before the first write of a new month, not only after the nightly run
+    @PostConstruct
+    public void ensureUpcomingPartitions() {
+        for (String parent : retentionMonths.keySet()) {
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT ensure_monthly_partitions(?, date_trunc('month', now())::date, "
+                            + "(now() + make_interval(months => ?))::date)",
+                    Integer.class, parent, monthsAhead);
+            if (created != null && created > 0) {
+                log.info("Created {} upcoming partitions of {}", created, parent);
+            }
+            Long parked = jdbcTemplate.queryForObject("SELECT count(*) FROM " + parent + "_default", Long.class);
+            defaultRows.put(parent, parked != null ? parked : 0L);
+            if (parked != null && parked > 0) {
+                log.warn("{} rows of {} are in its DEFAULT partition, outside every monthly partition up to {} "
+                        + "months ahead", parked, parent, monthsAhead);
+            }
+        }
+    }
+
+    /** Rows of {@code parent} in its DEFAULT partition when last checked; normally 0. */
+    public long defaultPartitionRows(String parent) {
+        return defaultRows.getOrDefault(parent, 0L);
+    }
+
+    /**
+     * Archives, detaches and drops every partition older than its table's retention.
+     *
+     * @return names of the partitions removed by this replica.
+     */
+    public List<String> applyRetention() {
+        YearMonth currentMonth = YearMonth.now();
+        List<String> removed = new ArrayList<>();
+        retentionMonths.forEach((parent, months) -> {
+            YearMonth oldestKept = currentMonth.minusMonths(months);
+            for (String partition : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class, parent)) {
+                Matcher matcher = PARTITION_NAME.matcher(partition);
+                if (!matcher.matches()) {
+                    continue; // the DEFAULT partition
+                }
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+                if (month.isBefore(oldestKept) && archiveAndDrop(parent, partition)) {
+                    removed.add(partition);
+                }
+            }
+        });
+        return removed;
+    }
+
+    private boolean archiveAndDrop(String parent, String partition) {
+        Boolean done = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, partition);
+            if (!Boolean.TRUE.equals(locked) || jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition) != Boolean.TRUE) {
+                return false; // another replica is on it, or already finished
+            }
+            long rows = archive(partition);
+            jdbcTemplate.execute("ALTER TABLE " + parent + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Archived {} rows of {} and dropped it", rows, partition);
+            return true;
+        });
+        return Boolean.TRUE.equals(done);
+    }
+
+    // Streams the partition as gzipped NDJSON; written to a temp file and moved into place when complete
+    private long archive(String partition) {
+        Path target = archiveDir.resolve(partition + ".ndjson.gz");
+        Path temp = archiveDir.resolve(partition + ".ndjson.gz.tmp");
+        long[] rows = {0};
+        try {
+            Files.createDirectories(archiveDir);
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement("SELECT row_to_json(p)::text FROM " + partition + " p");
+                    ps.setFetchSize(1000);
+                    return ps;
+                }, rs -> {
+                    try {
+                        out.write(rs.getString(1));
+                        out.newLine();
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive partition " + partition, e);
+        }
+        return rows[0];
+    }
+}
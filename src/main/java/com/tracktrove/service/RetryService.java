@@ -0,0 +1,192 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.RetryOutcome;
+import com.tracktrove.dto.RetryReport;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.dto.TransactionSummary;
+import com.tracktrove.entity.Trace;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.TransactionBatchRepository;
+import com.tracktrove.repository.TransactionTimelineRepository;
+import com.tracktrove.retry.RetryPolicy;
+import com.tracktrove.retry.RetryPolicyRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-safe retry engine. Every replica runs it; workers claim disjoint chunks
+ * of due FAILED transactions with SKIP LOCKED, decide each row's outcome, then
+ * write statuses and retry counts in bulk and commit; traces follow through the
+ * asynchronous trace writer.
+ * Spacing and attempt limits come from the {@link RetryPolicy} resolved for the
+ * transaction's vendor or channel.
+ */
+@Service
+public class RetryService {
+
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TraceService traceService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionEventPublisher eventPublisher;
+    private final RetryPolicyRegistry retryPolicies;
+    private final TransactionCache transactionCache;
+    private final TransactionTimelineRepository timelineRepository;
+    private final LedgerService ledgerService;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int chunkSize;
+
+    public RetryService(TransactionBatchRepository transactionBatchRepository,
+                        TraceService traceService,
+                        TransactionTemplate transactionTemplate,
+                        TransactionEventPublisher eventPublisher,
+                        RetryPolicyRegistry retryPolicies,
+                        TransactionCache transactionCache,
+                        TransactionTimelineRepository timelineRepository,
+                        LedgerService ledgerService,
+                        @Value("${tracktrove.retry.workers:4}") int workerCount,
+                        @Value("${tracktrove.retry.chunk-size:200}") int chunkSize) {
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.traceService = traceService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retryPolicies = retryPolicies;
+        this.transactionCache = transactionCache;
+        this.timelineRepository = timelineRepository;
+        this.ledgerService = ledgerService;
+        this.workerCount = workerCount;
+        this.chunkSize = chunkSize;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "retry-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public RetryReport retryAll() {
+        long startedAt = System.nanoTime();
+        // Rows failing again in this run are rescheduled past the cut-off, so the loop drains
+        Instant cutoff = Instant.now();
+        AtomicLong claimed = new AtomicLong();
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong exhausted = new AtomicLong();
+        AtomicLong chunks = new AtomicLong();
+
+        List<Callable<Void>> tasks = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            tasks.add(() -> {
+                List<RetryOutcome> outcomes;
+                do {
+                    outcomes = retryChunk(cutoff);
+                    if (!outcomes.isEmpty()) {
+                        claimed.addAndGet(outcomes.size());
+                        chunks.incrementAndGet();
+                        for (RetryOutcome outcome : outcomes) {
+                            switch (outcome.status()) {
+                                case ESCROW -> succeeded.incrementAndGet();
+                                case PERMANENTLY_FAILED -> exhausted.incrementAndGet();
+                                default -> failed.incrementAndGet();
+                            }
+                        }
+                    }
+                } while (outcomes.size() == chunkSize);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> result : workers.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retry run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Retry chunk failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        long durationMs = (System.nanoTime() - startedAt) / 1_000_000;
+        return new RetryReport(claimed.get(), succeeded.get(), failed.get(), exhausted.get(), chunks.get(), durationMs);
+    }
+
+    // One chunk = one transaction: if anything fails, the claimed rows stay FAILED
+    // and untouched, and are picked up again by the next run
+    private List<RetryOutcome> retryChunk(Instant cutoff) {
+        List<RetryOutcome> outcomes = transactionTemplate.execute(status -> {
+            List<TransactionSummary> rows = transactionBatchRepository.claimDueRetries(cutoff, chunkSize);
+            if (rows.isEmpty()) {
+                return List.<RetryOutcome>of();
+            }
+
+            Instant now = Instant.now();
+            List<RetryOutcome> decided = new ArrayList<>(rows.size());
+            List<Trace> traces = new ArrayList<>(rows.size());
+            List<TransactionEvent> events = new ArrayList<>();
+            List<TransactionEvent> retryFailures = new ArrayList<>();
+            for (TransactionSummary row : rows) {
+                RetryOutcome outcome = attempt(row, now);
+                decided.add(outcome);
+                traces.add(new Trace(null, row.id(), outcome.step(), null, null,
+                        outcome.message(), outcome.retryCount(), now));
+                if (outcome.statusChanged()) {
+                    events.add(TransactionEvent.of(row, TransactionStatus.FAILED, outcome.status()));
+                } else {
+                    // Only the retry count moved, so no event will invalidate the cached copy
+                    transactionCache.invalidate(row.id());
+                    // Not a status event, but part of the transaction's timeline
+                    retryFailures.add(TransactionEvent.of(row, TransactionStatus.FAILED, TransactionStatus.FAILED));
+                }
+            }
+            transactionBatchRepository.applyRetryOutcomes(decided, now);
+            traceService.saveAll(traces);
+            eventPublisher.publishAll(events);
+            timelineRepository.appendRetryFailures(retryFailures);
+            // Successful retries enter ESCROW
+            ledgerService.postTransitions(events, "Retried into escrow");
+            return decided;
+        });
+        return outcomes != null ? outcomes : List.of();
+    }
+
+    private RetryOutcome attempt(TransactionSummary txn, Instant now) {
+        RetryPolicy policy = retryPolicies.policyFor(txn.vendorId(), txn.channel());
+        int retryCount = txn.retryCount() != null ? txn.retryCount() : 0;
+        if (retryCount >= policy.maxAttempts()) {
+            return new RetryOutcome(txn, TransactionStatus.PERMANENTLY_FAILED, retryCount, null,
+                    "RETRY_LIMIT_EXCEEDED", "Transaction reached max retry limit (" + policy.maxAttempts() + ").");
+        }
+
+        int newRetryCount = retryCount + 1;
+        double successRate = txn.simulatedSuccessRate() != null ? txn.simulatedSuccessRate() : 0.0;
+        if (ThreadLocalRandom.current().nextDouble() < successRate) {
+            return new RetryOutcome(txn, TransactionStatus.ESCROW, newRetryCount, null,
+                    "RETRIED_SUCCESS", "Transaction retried successfully.");
+        }
+        // Stays FAILED and becomes due again after the policy's backoff
+        Instant nextAttemptAt = now.plus(policy.backoff(newRetryCount));
+        return new RetryOutcome(txn, TransactionStatus.FAILED, newRetryCount, nextAttemptAt,
+                "RETRIED_FAILURE", "Transaction retry failed. Next attempt at " + nextAttemptAt + ".");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
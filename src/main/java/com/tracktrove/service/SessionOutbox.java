@@ -0,0 +1,136 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.EventSubscription;
+import io.micrometer.core.instrument.Timer;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded outbound queue for one WebSocket session. Frames are handed to the
+ * container through {@code getAsyncRemote()} one at a time (the container allows
+ * a single in-flight async send per session); the completion callback pulls the
+ * next frame. The lock only guards the deque, never the network write, so
+ * {@link #offer} returns immediately no matter how slow the client is.
+ */
+class SessionOutbox {
+
+    enum OverflowPolicy {
+        // Discard the oldest queued frame to make room for the new one
+        DROP_OLDEST,
+        // Close the session; the client is expected to reconnect and resync
+        DISCONNECT
+    }
+
+    enum OfferResult { QUEUED, DROPPED_OLDEST, OVERFLOWED, CLOSED }
+
+    private final Session session;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Deque<String> queue;
+    private final LongAdder sentFrames;
+    private final LongAdder failedSends;
+    private final Timer sendLatency;
+
+    private boolean sending;
+    // Only one send is in flight at a time, so one start time is enough
+    private long sendStartedAt;
+    private boolean closed;
+    private volatile EventSubscription subscription = EventSubscription.ALL;
+
+    SessionOutbox(Session session, int capacity, OverflowPolicy policy,
+                  LongAdder sentFrames, LongAdder failedSends, Timer sendLatency) {
+        this.session = session;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.sentFrames = sentFrames;
+        this.failedSends = failedSends;
+        this.sendLatency = sendLatency;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 64));
+    }
+
+    OfferResult offer(String frame) {
+        OfferResult result = OfferResult.QUEUED;
+        String next;
+        synchronized (this) {
+            if (closed) {
+                return OfferResult.CLOSED;
+            }
+            if (queue.size() >= capacity) {
+                if (policy == OverflowPolicy.DISCONNECT) {
+                    closed = true;
+                    queue.clear();
+                    return OfferResult.OVERFLOWED;
+                }
+                queue.pollFirst();
+                result = OfferResult.DROPPED_OLDEST;
+            }
+            queue.addLast(frame);
+            if (sending) {
+                return result;
+            }
+            sending = true;
+            next = queue.pollFirst();
+        }
+        send(next);
+        return result;
+    }
+
+    private void send(String frame) {
+        try {
+            sendStartedAt = System.nanoTime();
+            session.getAsyncRemote().sendText(frame, this::onSent);
+        } catch (RuntimeException e) {
+            // Session closed underneath us; stop draining
+            failedSends.increment();
+            synchronized (this) {
+                closed = true;
+                sending = false;
+                queue.clear();
+            }
+        }
+    }
+
+    private void onSent(SendResult result) {
+        sendLatency.record(System.nanoTime() - sendStartedAt, TimeUnit.NANOSECONDS);
+        if (result.isOK()) {
+            sentFrames.increment();
+        } else {
+            failedSends.increment();
+        }
+        String next;
+        synchronized (this) {
+            next = closed ? null : queue.pollFirst();
+            if (next == null) {
+                sending = false;
+                return;
+            }
+        }
+        send(next);
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    synchronized int depth() {
+        return queue.size();
+    }
+
+    Session session() {
+        return session;
+    }
+
+    EventSubscription subscription() {
+        return subscription;
+    }
+
+    void subscribe(EventSubscription subscription) {
+        this.subscription = subscription;
+    }
+}
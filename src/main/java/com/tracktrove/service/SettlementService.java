@@ -0,0 +1,124 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.SettlementReport;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.dto.TransactionSummary;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.TransactionBatchRepository;
+import com.tracktrove.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chunked settlement engine. Each worker repeatedly claims a chunk of ESCROW
+ * transactions, flips them to SETTLED with one bulk UPDATE, posts the matching
+ * SETTLEMENT ledger entries in one batch and commits, until the backlog is drained.
+ */
+@Service
+public class SettlementService {
+
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final LedgerService ledgerService;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionEventPublisher eventPublisher;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int chunkSize;
+
+    public SettlementService(TransactionBatchRepository transactionBatchRepository,
+                             LedgerService ledgerService,
+                             TransactionRepository transactionRepository,
+                             TransactionTemplate transactionTemplate,
+                             TransactionEventPublisher eventPublisher,
+                             @Value("${tracktrove.settlement.workers:4}") int workerCount,
+                             @Value("${tracktrove.settlement.chunk-size:500}") int chunkSize) {
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.ledgerService = ledgerService;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.workerCount = workerCount;
+        this.chunkSize = chunkSize;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "settlement-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SettlementReport settleAll() {
+        long startedAt = System.nanoTime();
+        AtomicLong settled = new AtomicLong();
+        AtomicLong chunks = new AtomicLong();
+
+        List<Callable<Void>> tasks = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            tasks.add(() -> {
+                int claimed;
+                do {
+                    claimed = settleChunk();
+                    if (claimed > 0) {
+                        settled.addAndGet(claimed);
+                        chunks.incrementAndGet();
+                    }
+                    // A short chunk means the backlog is drained (or held by another worker)
+                } while (claimed == chunkSize);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> result : workers.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Settlement run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Settlement chunk failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        long durationMs = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        double rowsPerSecond = settled.get() * 1000.0 / durationMs;
+        long backlog = transactionRepository.countByCurrentStatus(TransactionStatus.ESCROW);
+
+        return new SettlementReport(settled.get(), chunks.get(), workerCount, durationMs, rowsPerSecond, backlog);
+    }
+
+    // One chunk = one transaction: either the status flip and its ledger rows both commit, or neither does
+    private int settleChunk() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<TransactionSummary> rows = transactionBatchRepository.claimAndTransition(
+                    TransactionStatus.ESCROW, TransactionStatus.SETTLED, chunkSize);
+
+            List<TransactionEvent> events = new ArrayList<>(rows.size());
+            for (TransactionSummary row : rows) {
+                events.add(TransactionEvent.of(row, TransactionStatus.ESCROW, TransactionStatus.SETTLED));
+            }
+            eventPublisher.publishAll(events);
+            ledgerService.postTransitions(events, "Auto-settlement job");
+            return rows.size();
+        });
+        return claimed != null ? claimed : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
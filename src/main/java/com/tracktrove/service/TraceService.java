@@ -5,25 +5,47 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tracktrove.dto.TransactionDTO;
 import com.tracktrove.entity.Trace;
 import com.tracktrove.repository.TraceRepository;
+import com.tracktrove.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Traces are written asynchronously by {@link TraceWriter}: callers never pay an
+ * INSERT round trip, and reads may lag writes by up to one flush interval. A trace
+ * recorded inside a transaction is only handed over once it commits, so rolled-back
+ * work leaves no trace rows behind.
+ */
 @Service
 public class TraceService {
 
+    private static final Logger log = LoggerFactory.getLogger(TraceService.class);
+
     private final TraceRepository traceRepo;
+    private final TraceWriter traceWriter;
+    private final TransactionRepository transactionRepository;
+    private final Duration hotWindow;
     private final ObjectMapper objectMapper;
 
-    public TraceService(TraceRepository traceRepo) {
+    public TraceService(TraceRepository traceRepo, TraceWriter traceWriter,
+                        TransactionRepository transactionRepository,
+                        @Value("${tracktrove.partitions.hot-window:P31D}") Duration hotWindow) {
         this.traceRepo = traceRepo;
+        this.traceWriter = traceWriter;
+        this.transactionRepository = transactionRepository;
+        this.hotWindow = hotWindow;
         this.objectMapper = new ObjectMapper();
     }
 
-    @Transactional
     public Trace createAndSaveTrace(
             String stepName, // Changed order to match how it's used in RetryJob
             String dtoBeforeJson, // JSON string of DTO before
@@ -41,7 +63,33 @@ public class TraceService {
         trace.setRetryCount(retryCount);
         trace.setTraceTime(Instant.now());
 
-        return this.traceRepo.save(trace);
+        record(List.of(trace), false);
+        return trace;
+    }
+
+    public void saveAll(List<Trace> traces) {
+        record(traces, false);
+    }
+
+    // Routine high-volume steps; the DROP_DEBUG overflow policy may discard these under pressure
+    public void saveAllDebug(List<Trace> traces) {
+        record(traces, true);
+    }
+
+    private void record(List<Trace> traces, boolean debug) {
+        if (traces.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            traceWriter.submitAll(traces, debug);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                traceWriter.submitAll(traces, debug);
+            }
+        });
     }
 
     public void captureTrace(String stepName, TransactionDTO dtoBefore, TransactionDTO dtoAfter, UUID txnId, String ex, int retryCount)
@@ -59,29 +107,36 @@ public class TraceService {
             trace.setTraceTime(Instant.now());
             trace.setStepName(stepName);
 
-            traceRepo.save(trace);
-
-            
+            record(List.of(trace), false);
 
         } catch (JsonProcessingException e) {
-            System.err.println("Failed to serialize DTO for trace: " + e.getMessage());
+            log.warn("Failed to serialize DTO for trace: {}", e.getMessage());
         }
     }
 
     @Transactional(readOnly = true) // Read-only transaction for fetching data
     public List<Trace> getTracesForTransaction(UUID transactionId) {
-        return traceRepo.findByTransactionIdOrderByTraceTimeDesc(transactionId);
+        return traceRepo.findByTransactionIdAndTraceTimeGreaterThanEqualOrderByTraceTimeDesc(
+                transactionId, tracesSince(transactionId));
     }
 
     @Transactional(readOnly = true)
     public String getLastErrorStackForTransaction(UUID transactionId) {
-        Trace lastErrorTrace = traceRepo.findFirstByTransactionIdAndErrorStackIsNotNullOrderByTraceTimeDesc(transactionId);
+        Trace lastErrorTrace = traceRepo.findFirstByTransactionIdAndTraceTimeGreaterThanEqualAndErrorStackIsNotNullOrderByTraceTimeDesc(
+                transactionId, tracesSince(transactionId));
         return lastErrorTrace != null ? lastErrorTrace.getErrorStack() : null;
     }
 
     @Transactional(readOnly = true)
     public List<Trace> getRetryTracesForTransaction(UUID transactionId) {
-        return traceRepo.findByTransactionIdOrderByTraceTimeDesc(transactionId); // Fetch all and let client filter or refine query
+        return getTracesForTransaction(transactionId); // Fetch all and let client filter or refine query
+    }
+
+    // No trace predates its transaction, so partitions older than its creation are skipped.
+    // Unknown ids fall back to the hot window.
+    private Instant tracesSince(UUID transactionId) {
+        return transactionRepository.findCreatedAtById(transactionId)
+                .orElseGet(() -> Instant.now().minus(hotWindow));
     }
 
 }
@@ -0,0 +1,261 @@
+package com.tracktrove.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.dto.TraceWriterStats;
+import com.tracktrove.entity.Trace;
+import com.tracktrove.repository.TraceBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background writer for trace rows. Producers drop traces into a bounded ring
+ * buffer and return; a single writer thread drains it and inserts a batch
+ * whenever batch-size traces are waiting or flush-interval has passed since the
+ * first one arrived. What happens when the buffer is full is decided by the
+ * {@link OverflowPolicy}.
+ *
+ * <p>Batches that fail to insert, and traces spilled on overflow, are appended
+ * to a local NDJSON spill file that is replayed into the table on the next start.
+ * The buffer is drained on shutdown, and spilled if the writer thread is interrupted.
+ */
+@Component
+@DependsOn("schemaMigrator") // Replay needs trace_seq moved past the old IDENTITY ids
+public class TraceWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceWriter.class);
+
+    public enum OverflowPolicy {
+        // Wait for the writer to free a slot; no trace is lost
+        BLOCK,
+        // Discard debug traces (routine bulk steps); block for everything else
+        DROP_DEBUG,
+        // Append the trace to the spill file instead of waiting
+        SPILL
+    }
+
+    private final TraceBatchRepository traceBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Trace> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillFile;
+    private final Thread writerThread;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    private volatile boolean running = true;
+
+    public TraceWriter(TraceBatchRepository traceBatchRepository,
+                       ObjectMapper objectMapper,
+                       @Value("${tracktrove.trace.buffer-capacity:8192}") int bufferCapacity,
+                       @Value("${tracktrove.trace.batch-size:500}") int batchSize,
+                       @Value("${tracktrove.trace.flush-interval-ms:200}") long flushIntervalMs,
+                       @Value("${tracktrove.trace.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                       @Value("${tracktrove.trace.spill-file:trace-spill.ndjson}") Path spillFile) {
+        this.traceBatchRepository = traceBatchRepository;
+        this.objectMapper = objectMapper;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = spillFile;
+
+        this.writerThread = new Thread(this::run, "trace-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        replaySpillFile();
+        writerThread.start();
+    }
+
+    public void submit(Trace trace, boolean debug) {
+        if (!running) {
+            // Late traces during shutdown go to disk rather than being lost
+            spill(List.of(trace));
+            return;
+        }
+        if (buffer.offer(trace)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case SPILL -> spill(List.of(trace));
+            case DROP_DEBUG -> {
+                if (debug) {
+                    dropped.increment();
+                } else {
+                    put(trace);
+                }
+            }
+            case BLOCK -> put(trace);
+        }
+    }
+
+    public void submitAll(Collection<Trace> traces, boolean debug) {
+        for (Trace trace : traces) {
+            submit(trace, debug);
+        }
+    }
+
+    public TraceWriterStats stats() {
+        return new TraceWriterStats(buffer.size(), written.sum(), dropped.sum(), spilled.sum(),
+                failedFlushes.sum(), overflowPolicy.name());
+    }
+
+    private void put(Trace trace) {
+        try {
+            buffer.put(trace);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            spill(List.of(trace));
+        }
+    }
+
+    private void run() {
+        List<Trace> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Trace first = buffer.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Size trigger: a full batch goes out at once; time trigger: whatever arrived within the interval
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Trace next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // This thread is going away: keep what it already took off the buffer, and
+                // route later submits to disk since nobody is left to drain the buffer
+                running = false;
+                buffer.drainTo(batch);
+                if (!batch.isEmpty()) {
+                    spill(batch);
+                }
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Trace> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            traceBatchRepository.insertAll(batch);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            log.warn("Trace flush of {} rows failed, spilling to {}: {}", batch.size(), spillFile, e.getMessage());
+            spill(batch);
+        }
+    }
+
+    private synchronized void spill(List<Trace> traces) {
+        try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Trace trace : traces) {
+                // Ids are reassigned on replay; a failed batch may already hold allocated ones
+                trace.setId(null);
+                out.write(objectMapper.writeValueAsString(trace));
+                out.newLine();
+            }
+            spilled.add(traces.size());
+        } catch (IOException e) {
+            dropped.add(traces.size());
+            log.error("Failed to spill {} traces to {}: {}", traces.size(), spillFile, e.getMessage());
+        }
+    }
+
+    private synchronized void replaySpillFile() {
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+        List<Trace> pending = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(spillFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    pending.add(objectMapper.readValue(line, Trace.class));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not read trace spill file {}: {}", spillFile, e.getMessage());
+            return;
+        }
+
+        int replayed = 0;
+        try {
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                traceBatchRepository.insertAll(pending.subList(from, Math.min(from + batchSize, pending.size())));
+                replayed = Math.min(from + batchSize, pending.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Trace spill replay stopped after {} rows: {}", replayed, e.getMessage());
+        }
+
+        // Only the rows that did not make it stay on disk for the next start
+        try {
+            Files.delete(spillFile);
+            if (replayed < pending.size()) {
+                spill(pending.subList(replayed, pending.size()));
+            }
+        } catch (IOException e) {
+            log.error("Could not rewrite trace spill file {}: {}", spillFile, e.getMessage());
+        }
+        log.info("Replayed {} spilled traces from {}", replayed, spillFile);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The writer polls with a timeout, so it notices this within one flush interval
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the writer could not get to in time is kept on disk
+        List<Trace> left = new ArrayList<>();
+        buffer.drainTo(left);
+        if (!left.isEmpty()) {
+            spill(left);
+        }
+    }
+}
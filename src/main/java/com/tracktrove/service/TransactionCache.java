@@ -0,0 +1,263 @@
+package com.tracktrove.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tracktrove.dto.CacheStats;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.dto.TransactionStatusView;
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier read-through cache for single-transaction reads: a bounded in-process
+ * Caffeine cache in front of Redis, in front of Postgres. Concurrent misses for
+ * the same id are coalesced into one load.
+ *
+ * <p>Every committed status change (via {@link TransactionEvent}) and every
+ * {@link TransactionService#save} invalidates the id: the local entries go at
+ * once, and a background flusher deletes the Redis keys and broadcasts the ids on
+ * {@value #INVALIDATION_CHANNEL} so the other replicas drop their local copies.
+ * Until that flush an invalidated id bypasses Redis. Pub/sub is fire-and-forget,
+ * so the local TTL bounds staleness if a message is lost.
+ *
+ * <p>A load may read the row just before a change commits and finish after the
+ * flush. The flush therefore also bumps a per-id generation in Redis, and a load
+ * writes its value back only if the generation is still the one it saw before
+ * reading Postgres, so a stale row is never re-cached on any replica.
+ */
+@Component
+public class TransactionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionCache.class);
+
+    static final String INVALIDATION_CHANNEL = "txn-cache:invalidate";
+    private static final String STATUS_KEY_PREFIX = "txn-cache:status:";
+    private static final String TRANSACTION_KEY_PREFIX = "txn-cache:txn:";
+    private static final String GENERATION_KEY_PREFIX = "txn-cache:gen:";
+    private static final int INVALIDATION_BATCH = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RedisScript<Long> setIfGenerationScript;
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, TransactionStatusView> statuses;
+    private final Cache<UUID, Transaction> transactions;
+    private final Duration redisTtl;
+    private final long flushIntervalMs;
+
+    // Invalidated locally, Redis delete and broadcast not flushed yet
+    private final Set<UUID> pendingInvalidations = ConcurrentHashMap.newKeySet();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private ScheduledExecutorService flusher;
+
+    public TransactionCache(TransactionRepository transactionRepository,
+                            RedisTemplate<String, String> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            RedisScript<Long> cacheSetIfGenerationScript,
+                            ObjectMapper objectMapper,
+                            @Value("${tracktrove.cache.local-max-size:100000}") long localMaxSize,
+                            @Value("${tracktrove.cache.local-ttl:PT30S}") Duration localTtl,
+                            @Value("${tracktrove.cache.redis-ttl:PT5M}") Duration redisTtl,
+                            @Value("${tracktrove.cache.invalidation-flush-ms:20}") long flushIntervalMs) {
+        this.transactionRepository = transactionRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.setIfGenerationScript = cacheSetIfGenerationScript;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.flushIntervalMs = flushIntervalMs;
+        // Full entities carry the payload, so they get a smaller share of the bound
+        this.statuses = Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).recordStats().build();
+        this.transactions = Caffeine.newBuilder().maximumSize(Math.max(1, localMaxSize / 10))
+                .expireAfterWrite(localTtl).recordStats().build();
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener((message, pattern) ->
+                evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATION_CHANNEL));
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "txn-cache-invalidator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushInvalidations, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flushInvalidations();
+    }
+
+    public Optional<TransactionStatusView> getStatus(UUID id) {
+        return Optional.ofNullable(statuses.get(id, key -> load(key, STATUS_KEY_PREFIX, TransactionStatusView.class,
+                () -> transactionRepository.findStatusViewById(key))));
+    }
+
+    public Optional<Transaction> getTransaction(UUID id) {
+        return Optional.ofNullable(transactions.get(id, key -> load(key, TRANSACTION_KEY_PREFIX, Transaction.class,
+                () -> transactionRepository.findById(key))));
+    }
+
+    /**
+     * Drops the cached views of a transaction. Inside a transaction this waits for
+     * the commit, so no replica can re-cache the old row in between.
+     */
+    public void invalidate(UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateNow(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateNow(id);
+            }
+        });
+    }
+
+    // Every status change, whichever path made it (single updates, bulk jobs, scheduled transitions)
+    @EventListener
+    public void onTransactionEvent(TransactionEvent event) {
+        if (event.fromStatus() != null) { // a new transaction cannot be cached yet
+            invalidateNow(event.transactionId());
+        }
+    }
+
+    public CacheStats stats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats status = statuses.stats();
+        com.github.benmanes.caffeine.cache.stats.CacheStats full = transactions.stats();
+        long localHits = status.hitCount() + full.hitCount();
+        long localMisses = status.missCount() + full.missCount();
+        long lookups = localHits + localMisses;
+        double localHitRate = lookups == 0 ? 0.0 : (double) localHits / lookups;
+        double overallHitRate = lookups == 0 ? 0.0 : (double) (localHits + redisHits.sum()) / lookups;
+        return new CacheStats(localHits, localMisses, redisHits.sum(), redisMisses.sum(), localHitRate,
+                overallHitRate, statuses.estimatedSize() + transactions.estimatedSize(), invalidations.sum());
+    }
+
+    private void invalidateNow(UUID id) {
+        statuses.invalidate(id);
+        transactions.invalidate(id);
+        pendingInvalidations.add(id);
+        invalidations.increment();
+    }
+
+    // Local miss: Redis, then Postgres. Returns null for an unknown id, which Caffeine does not cache.
+    private <T> T load(UUID id, String keyPrefix, Class<T> type, Supplier<Optional<T>> database) {
+        String key = keyPrefix + id;
+        String generationKey = GENERATION_KEY_PREFIX + id;
+        boolean redisUsable = !pendingInvalidations.contains(id);
+        String generation = null;
+        if (redisUsable) {
+            try {
+                // The generation must be read before Postgres: see the class comment
+                List<String> cached = redisTemplate.opsForValue().multiGet(List.of(key, generationKey));
+                String json = cached != null ? cached.get(0) : null;
+                if (json != null) {
+                    redisHits.increment();
+                    return objectMapper.readValue(json, type);
+                }
+                generation = cached != null && cached.get(1) != null ? cached.get(1) : "";
+            } catch (DataAccessException | JsonProcessingException e) {
+                log.warn("Redis read failed for {}: {}", key, e.getMessage());
+            }
+        }
+        redisMisses.increment();
+
+        T value = database.get().orElse(null);
+        if (value != null && generation != null && !pendingInvalidations.contains(id)) {
+            try {
+                redisTemplate.execute(setIfGenerationScript, List.of(key, generationKey),
+                        objectMapper.writeValueAsString(value), generation, Long.toString(redisTtl.toMillis()));
+            } catch (DataAccessException | JsonProcessingException e) {
+                log.warn("Redis write failed for {}: {}", key, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    private void evictLocal(String ids) {
+        for (String id : ids.split(",")) {
+            UUID transactionId = UUID.fromString(id);
+            statuses.invalidate(transactionId);
+            transactions.invalidate(transactionId);
+        }
+    }
+
+    // One pipelined round trip per batch: bump the generation and DEL both keys of every id, then a single PUBLISH
+    // False if some ids are still pending because Redis could not be reached
+    boolean flushInvalidations() {
+        if (pendingInvalidations.isEmpty()) {
+            return true;
+        }
+        List<UUID> ids = new ArrayList<>(pendingInvalidations);
+        // Outlives any load that could still be holding an older generation
+        long generationTtlSeconds = Math.max(1, redisTtl.toSeconds());
+        try {
+            for (int from = 0; from < ids.size(); from += INVALIDATION_BATCH) {
+                List<UUID> batch = ids.subList(from, Math.min(from + INVALIDATION_BATCH, ids.size()));
+                byte[][] keys = new byte[batch.size() * 2][];
+                byte[][] generationKeys = new byte[batch.size()][];
+                for (int i = 0; i < batch.size(); i++) {
+                    keys[2 * i] = (STATUS_KEY_PREFIX + batch.get(i)).getBytes(StandardCharsets.UTF_8);
+                    keys[2 * i + 1] = (TRANSACTION_KEY_PREFIX + batch.get(i)).getBytes(StandardCharsets.UTF_8);
+                    generationKeys[i] = (GENERATION_KEY_PREFIX + batch.get(i)).getBytes(StandardCharsets.UTF_8);
+                }
+                byte[] message = batch.stream().map(UUID::toString).collect(Collectors.joining(","))
+                        .getBytes(StandardCharsets.UTF_8);
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (byte[] generationKey : generationKeys) {
+                        connection.stringCommands().incr(generationKey);
+                        connection.keyCommands().expire(generationKey, generationTtlSeconds);
+                    }
+                    connection.keyCommands().del(keys);
+                    connection.publish(INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8), message);
+                    return null;
+                });
+                batch.forEach(pendingInvalidations::remove);
+            }
+            return true;
+        } catch (DataAccessException e) {
+            // Left pending: retried on the next tick, and Redis stays bypassed for these ids meanwhile
+            log.warn("Invalidation flush failed: {}", e.getMessage());
+            return false;
+        }
+    }
+}
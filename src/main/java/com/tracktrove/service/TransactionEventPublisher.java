@@ -0,0 +1,56 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.repository.OutboxRepository;
+import com.tracktrove.repository.TransactionTimelineRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Single entry point for transaction status change events. Events are appended
+ * to the outbox inside the caller's transaction, so they exist exactly when the
+ * status change they describe commits; nothing leaves the database before that.
+ * {@link OutboxRelay} delivers them to the listeners afterwards. The same
+ * transaction appends them to each transaction's timeline.
+ */
+@Component
+public class TransactionEventPublisher {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxRelay outboxRelay;
+    private final TransactionTimelineRepository timelineRepository;
+
+    public TransactionEventPublisher(OutboxRepository outboxRepository, OutboxRelay outboxRelay,
+                                     TransactionTimelineRepository timelineRepository) {
+        this.outboxRepository = outboxRepository;
+        this.outboxRelay = outboxRelay;
+        this.timelineRepository = timelineRepository;
+    }
+
+    public void publish(TransactionEvent event) {
+        publishAll(List.of(event));
+    }
+
+    public void publishAll(Collection<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxRepository.appendAll(events);
+        timelineRepository.appendStatusChanges(events);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outboxRelay.wakeUp(); // auto-commit: the rows are already visible
+            return;
+        }
+        TransactionSynchronization wakeUpRelay = new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        };
+        TransactionSynchronizationManager.registerSynchronization(wakeUpRelay);
+    }
+}
@@ -0,0 +1,261 @@
+package com.tracktrove.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.dto.BatchIngestResponse;
+import com.tracktrove.dto.BatchItemResult;
+import com.tracktrove.dto.TransactionDTO;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.entity.ScheduledTransition;
+import com.tracktrove.entity.Trace;
+import com.tracktrove.entity.Transaction;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.TransactionBatchRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bulk intake for {@code POST /api/transactions/batch}. Items are read lazily,
+ * validated one by one and written in chunks: each chunk is one DB transaction
+ * with JDBC batch inserts for transactions, scheduled transitions and failure
+ * traces, and the outbox rows from which the relay arms the escrow timers.
+ * Ids are generated here, which is what lets the inserts be batched at all.
+ */
+@Service
+public class TransactionIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionIngestService.class);
+
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransitionScheduler transitionScheduler;
+    private final TraceService traceService;
+    private final TransactionEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public TransactionIngestService(TransactionBatchRepository transactionBatchRepository,
+                                    TransitionScheduler transitionScheduler,
+                                    TraceService traceService,
+                                    TransactionEventPublisher eventPublisher,
+                                    TransactionTemplate transactionTemplate,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    @Value("${tracktrove.ingest.chunk-size:1000}") int chunkSize,
+                                    @Value("${tracktrove.ingest.max-items:50000}") int maxItems) {
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.transitionScheduler = transitionScheduler;
+        this.traceService = traceService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Validates and writes the items in chunks. Stops at the first item past
+     * {@code max-items}, the first item that cannot be parsed, or the first chunk
+     * that fails to write; the response then says where, and lists every item
+     * before that point with its outcome.
+     */
+    public BatchIngestResponse ingest(Iterator<TransactionDTO> items) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Transaction> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        int accepted = 0;
+        BatchIngestResponse.Aborted aborted = null;
+
+        try {
+            while (items.hasNext()) {
+                if (index >= maxItems) {
+                    aborted = new BatchIngestResponse.Aborted(BatchIngestResponse.Reason.LIMIT_EXCEEDED, index,
+                            "Batch limit of " + maxItems + " items exceeded; items from index " + index
+                                    + " on were not read");
+                    break;
+                }
+                TransactionDTO dto = items.next();
+
+                List<String> errors = validate(dto);
+                if (!errors.isEmpty()) {
+                    results.add(BatchItemResult.rejected(index++, errors));
+                    continue;
+                }
+
+                chunk.add(toTransaction(dto));
+                chunkIndexes.add(index++);
+                if (chunk.size() == chunkSize) {
+                    accepted += writeChunk(chunk, chunkIndexes, results);
+                }
+            }
+        } catch (RuntimeException e) {
+            // MappingIterator wraps parse and mapping errors in unchecked exceptions
+            if (!(e.getCause() instanceof JsonProcessingException parseError)) {
+                throw e;
+            }
+            aborted = malformedItem(index, parseError);
+        } catch (ChunkWriteException e) {
+            aborted = e.aborted;
+        }
+        // Items before a malformed one or the limit are valid and written as usual
+        if (!chunk.isEmpty() && (aborted == null || aborted.reason() != BatchIngestResponse.Reason.WRITE_FAILED)) {
+            try {
+                accepted += writeChunk(chunk, chunkIndexes, results);
+            } catch (ChunkWriteException e) {
+                aborted = e.aborted;
+            }
+        }
+
+        results.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        int received = results.size();
+        if (aborted != null) {
+            log.warn("Batch ingest stopped after {} items ({} accepted): {}", received, accepted, aborted.message());
+        } else {
+            log.info("Ingested batch of {} items: {} accepted, {} rejected", received, accepted, received - accepted);
+        }
+        return new BatchIngestResponse(received, accepted, received - accepted, results, aborted);
+    }
+
+    /** Describes an item that could not be parsed, with its position in the body. */
+    public static BatchIngestResponse.Aborted malformedItem(int index, Exception e) {
+        String message = e instanceof JsonProcessingException parseError && parseError.getLocation() != null
+                ? "Item %d is malformed at line %d, column %d: %s".formatted(index,
+                        parseError.getLocation().getLineNr(), parseError.getLocation().getColumnNr(),
+                        parseError.getOriginalMessage())
+                : "Item %d is malformed: %s".formatted(index, e.getMessage());
+        return new BatchIngestResponse.Aborted(BatchIngestResponse.Reason.MALFORMED_ITEM, index, message);
+    }
+
+    // Thrown once the chunk's items have been reported as not written
+    private static final class ChunkWriteException extends Exception {
+        private final BatchIngestResponse.Aborted aborted;
+
+        ChunkWriteException(BatchIngestResponse.Aborted aborted, Throwable cause) {
+            super(aborted.message(), cause);
+            this.aborted = aborted;
+        }
+    }
+
+    private int writeChunk(List<Transaction> chunk, List<Integer> chunkIndexes, List<BatchItemResult> results)
+            throws ChunkWriteException {
+        try {
+            writeChunk(chunk);
+        } catch (DataAccessException | TransactionException e) {
+            // Rolled back as a whole: none of the chunk's items exist
+            List<String> errors = List.of("Not written: the chunk failed to commit");
+            chunkIndexes.forEach(index -> results.add(BatchItemResult.rejected(index, errors)));
+            throw new ChunkWriteException(new BatchIngestResponse.Aborted(BatchIngestResponse.Reason.WRITE_FAILED,
+                    chunkIndexes.get(0), "Chunk starting at item " + chunkIndexes.get(0) + " failed to commit: "
+                    + e.getMostSpecificCause().getMessage()), e);
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Transaction txn = chunk.get(i);
+            results.add(BatchItemResult.accepted(chunkIndexes.get(i), txn.getId(), txn.getCurrentStatus()));
+        }
+        int written = chunk.size();
+        chunk.clear();
+        chunkIndexes.clear();
+        return written;
+    }
+
+    private void writeChunk(List<Transaction> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            List<ScheduledTransition> transitions = new ArrayList<>();
+            List<Trace> failureTraces = new ArrayList<>();
+            List<TransactionEvent> events = new ArrayList<>(chunk.size());
+
+            for (Transaction txn : chunk) {
+                if (txn.getCurrentStatus() == TransactionStatus.INITIATED) {
+                    transitions.add(new ScheduledTransition(null, txn.getId(), TransactionStatus.ESCROW,
+                            now.plus(TransactionService.SIMULATED_ESCROW_DELAY), null, now));
+                } else {
+                    failureTraces.add(new Trace(null, txn.getId(), "INITIAL_FAILURE", txn.getInitialPayload(),
+                            null, "Initial transaction simulation failed.", 0, now));
+                }
+                events.add(TransactionEvent.of(txn, null));
+            }
+
+            transactionBatchRepository.insertAll(chunk);
+            transitionScheduler.scheduleAll(transitions);
+            traceService.saveAll(failureTraces);
+            eventPublisher.publishAll(events);
+        });
+    }
+
+    private List<String> validate(TransactionDTO dto) {
+        if (dto == null) {
+            return List.of("Item cannot be null");
+        }
+        Set<ConstraintViolation<TransactionDTO>> violations = validator.validate(dto);
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<TransactionDTO> violation : violations) {
+            errors.add(violation.getMessage());
+        }
+        // A malformed payload would fail the jsonb cast and with it the whole chunk
+        if (dto.getInitialPayloadJson() != null && !dto.getInitialPayloadJson().isBlank()
+                && !isWellFormedJson(dto.getInitialPayloadJson())) {
+            errors.add("Initial payload must be valid JSON");
+        }
+        return errors;
+    }
+
+    // Token walk only; no tree is built
+    private boolean isWellFormedJson(String json) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            while (parser.nextToken() != null) {
+                // consume
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Mirrors TransactionService.createAndSaveTransaction, minus the per-row round trips
+    private Transaction toTransaction(TransactionDTO dto) {
+        Instant now = Instant.now();
+        Transaction txn = new Transaction();
+        txn.setId(UUID.randomUUID());
+        txn.setVendorId(dto.getVendorId());
+        txn.setAmount(dto.getAmount());
+        txn.setCurrency(dto.getCurrency());
+        txn.setChannel(dto.getChannel());
+        txn.setInitialPayload(dto.getInitialPayloadJson());
+        txn.setServiceContext(dto.getServiceContext());
+        txn.setSimulatedSuccessRate(dto.getSimulatedSuccessRate());
+        txn.setRetryCount(0);
+        txn.setCreatedAt(now);
+        txn.setUpdatedAt(now);
+        txn.setCurrentStatus(ThreadLocalRandom.current().nextDouble() < dto.getSimulatedSuccessRate()
+                ? TransactionStatus.INITIATED
+                : TransactionStatus.FAILED);
+        if (txn.getCurrentStatus() == TransactionStatus.FAILED) {
+            // First retry is due straight away; the retry policy spaces out the later ones
+            txn.setNextAttemptAt(now);
+        }
+        return txn;
+    }
+}
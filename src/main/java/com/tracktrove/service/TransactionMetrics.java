@@ -0,0 +1,50 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.TransactionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Lifecycle metrics fed by the committed {@link TransactionEvent}s: a histogram
+ * timer per status transition ({@code tracktrove.transaction.transition}, tagged
+ * from/to) measuring how long the transaction sat in the old status, e.g.
+ * INITIATED to ESCROW and ESCROW to SETTLED, plus a counter of new transactions
+ * by initial status.
+ */
+@Component
+public class TransactionMetrics {
+
+    private final Meter.MeterProvider<Timer> transitionTimers;
+    private final Meter.MeterProvider<Counter> createdCounters;
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.transitionTimers = Timer.builder("tracktrove.transaction.transition")
+                .description("Time spent in the previous status, recorded when a transaction leaves it")
+                .publishPercentileHistogram()
+                // Failed transactions can wait out several retry backoffs
+                .maximumExpectedValue(Duration.ofDays(1))
+                .withRegistry(meterRegistry);
+        this.createdCounters = Counter.builder("tracktrove.transaction.created")
+                .description("Transactions created, by initial status")
+                .withRegistry(meterRegistry);
+    }
+
+    @EventListener
+    public void onTransactionEvent(TransactionEvent event) {
+        if (event.fromStatus() == null) {
+            createdCounters.withTags("status", event.toStatus().name()).increment();
+            return;
+        }
+        if (event.fromStatusSince() != null) {
+            Duration inStatus = Duration.between(event.fromStatusSince(), event.timestamp());
+            transitionTimers.withTags("from", event.fromStatus().name(), "to", event.toStatus().name())
+                    .record(inStatus.isNegative() ? Duration.ZERO : inStatus);
+        }
+    }
+}
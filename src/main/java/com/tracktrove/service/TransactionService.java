@@ -1,52 +1,79 @@
 package com.tracktrove.service;
 
+import com.tracktrove.entity.ScheduledTransition;
 import com.tracktrove.entity.Transaction;
 import com.tracktrove.entity.enums.TransactionStatus;
 import com.tracktrove.repository.TransactionRepository;
+import com.tracktrove.repository.TransactionTimelineRepository;
+import com.tracktrove.dto.StatusTransition;
+import com.tracktrove.dto.TransactionCursor;
 import com.tracktrove.dto.TransactionDTO;
-import org.springframework.data.redis.core.RedisTemplate;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.dto.TransactionStatusView;
+import com.tracktrove.dto.TransactionTimeline;
+import com.tracktrove.redis.EscrowTimerWheel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
     private final TransactionRepository transactionRepository;
     private final TraceService traceService;
-    private final RedisTemplate<String, String> redisTemplate;
-    private final WebSocketService webSocketService;
-
-    // Use a dedicated scheduler for a more robust simulation
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private static final int MAX_RETRIES = 3;
+    private final EscrowTimerWheel escrowTimerWheel;
+    private final TransactionEventPublisher eventPublisher;
+    // Every status change of an existing transaction goes through here
+    private final TransitionEngine transitionEngine;
+
+    // Durable, transactional scheduler for the simulated lifecycle steps
+    private final TransitionScheduler transitionScheduler;
+    // Read-through cache for single-transaction reads; status changes invalidate it via TransactionEvent
+    private final TransactionCache transactionCache;
+    // Event log and current-state snapshot per transaction, written by TransactionEventPublisher
+    private final TransactionTimelineRepository timelineRepository;
+    // Escrow hold: OutboxRelay arms the Redis timer that moves the txn to ESCROW once it runs out
+    static final Duration ESCROW_HOLD = Duration.ofMinutes(2);
+    static final Duration SIMULATED_ESCROW_DELAY = Duration.ofSeconds(5);
+    private static final Duration SIMULATED_SETTLEMENT_DELAY = Duration.ofSeconds(15);
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public TransactionService(TransactionRepository transactionRepository,
                               TraceService traceService,
-                              RedisTemplate<String, String> redisTemplate,
-                              WebSocketService webSocketService) {
+                              EscrowTimerWheel escrowTimerWheel,
+                              TransactionEventPublisher eventPublisher,
+                              TransitionEngine transitionEngine,
+                              TransitionScheduler transitionScheduler,
+                              TransactionCache transactionCache,
+                              TransactionTimelineRepository timelineRepository) {
         this.transactionRepository = transactionRepository;
         this.traceService = traceService;
-        this.redisTemplate = redisTemplate;
-        this.webSocketService = webSocketService; // Injected WebSocket service
-    }
-
-    // Redis TTL extractor
-    private void enqueueTTLForInitiated(Transaction txn) {
-        String redisKey = "txn:" + txn.getId();
-        Duration ttl = Duration.ofMinutes(2);
-
-        // Set a blank value with TTL to trigger key expiration event
-        redisTemplate.opsForValue().set(redisKey, "", ttl);
-        System.out.println("[Redis] TTL key set for transaction: " + redisKey + " (expires in " + ttl.toSeconds() + "s)");
+        this.escrowTimerWheel = escrowTimerWheel;
+        this.eventPublisher = eventPublisher; // Status changes fan out to WebSocket clients
+        this.transitionEngine = transitionEngine;
+        this.transitionScheduler = transitionScheduler;
+        this.transactionCache = transactionCache;
+        this.timelineRepository = timelineRepository;
     }
 
     @Transactional
@@ -56,7 +83,8 @@ public class TransactionService {
             String currency,
             String channel,
             String initialPayloadJson,
-            Double simulatedSuccessRate
+            Double simulatedSuccessRate,
+            String idempotencyKey
     ) {
         Transaction txn = new Transaction();
         txn.setVendorId(vendorId);
@@ -66,32 +94,28 @@ public class TransactionService {
         txn.setInitialPayload(initialPayloadJson);
         txn.setSimulatedSuccessRate(simulatedSuccessRate);
         txn.setRetryCount(0);
+        txn.setIdempotencyKey(idempotencyKey);
 
         Transaction savedTxn;
 
         if (Math.random() < simulatedSuccessRate) {
             txn.setCurrentStatus(TransactionStatus.INITIATED);
-            savedTxn = transactionRepository.save(txn);
-            System.out.println("Transaction " + savedTxn.getId() + " initially INITIATED (simulated success).");
+            savedTxn = insert(txn);
+            log.debug("Transaction {} initially INITIATED (simulated success)", savedTxn.getId());
 
-            // Broadcast the new transaction status to all connected clients
-            webSocketService.broadcast(
-                    String.format("New transaction initiated for %s %s with ID: %s",
-                            savedTxn.getAmount(), savedTxn.getCurrency(), savedTxn.getId().toString().substring(0, 8))
-            );
+            // Publish the new transaction status to all connected clients
+            eventPublisher.publish(TransactionEvent.of(savedTxn, null));
 
             // Schedule the simulated status change to ESCROW
-            scheduler.schedule(() -> {
-                // This transaction logic would be more complex in a real app
-                // but for simulation, we'll just update the status after a delay.
-                updateTransactionStatusAndBroadcast(savedTxn.getId(), TransactionStatus.ESCROW);
-            }, 5, TimeUnit.SECONDS);
-
-            enqueueTTLForInitiated(savedTxn);
+            // This transaction logic would be more complex in a real app
+            // but for simulation, we'll just update the status after a delay.
+            transitionScheduler.schedule(savedTxn.getId(), TransactionStatus.ESCROW, SIMULATED_ESCROW_DELAY);
         } else {
             txn.setCurrentStatus(TransactionStatus.FAILED);
-            savedTxn = transactionRepository.save(txn);
-            System.out.println("Transaction " + savedTxn.getId() + " initially FAILED (simulated failure).");
+            // First retry is due straight away; the retry policy spaces out the later ones
+            txn.setNextAttemptAt(Instant.now());
+            savedTxn = insert(txn);
+            log.debug("Transaction {} initially FAILED (simulated failure)", savedTxn.getId());
             traceService.createAndSaveTrace(
                     "INITIAL_FAILURE",
                     initialPayloadJson,
@@ -101,15 +125,20 @@ public class TransactionService {
                     0
             );
 
-            // Broadcast the failed transaction status
-            webSocketService.broadcast(
-                    String.format("Transaction %s FAILED on initiation.", savedTxn.getId().toString().substring(0, 8))
-            );
+            // Publish the failed transaction status
+            eventPublisher.publish(TransactionEvent.of(savedTxn, null));
         }
 
         return savedTxn;
     }
 
+    // A duplicate idempotency key must fail here, before anything else is scheduled, not at commit
+    private Transaction insert(Transaction txn) {
+        return txn.getIdempotencyKey() != null
+                ? transactionRepository.saveAndFlush(txn)
+                : transactionRepository.save(txn);
+    }
+
     @Transactional
     public Transaction initiateTransaction(
             UUID vendorId,
@@ -119,60 +148,52 @@ public class TransactionService {
             String initialPayloadJson,
             Double simulatedSuccessRate
     ) {
-        System.out.println("UUID-based transaction initiated, calling createAndSaveTransaction");
-        return createAndSaveTransaction(vendorId, amount, currency, channel, initialPayloadJson, simulatedSuccessRate);
+        log.debug("UUID-based transaction initiated");
+        return createAndSaveTransaction(vendorId, amount, currency, channel, initialPayloadJson, simulatedSuccessRate,
+                null);
     }
 
     @Transactional
     public Transaction initiateTransaction(TransactionDTO transactionDTO) {
-        System.out.println("DTO-based transaction initiated, calling createAndSaveTransaction");
+        log.debug("DTO-based transaction initiated");
         return createAndSaveTransaction(
                 transactionDTO.getVendorId(),
                 transactionDTO.getAmount(),
                 transactionDTO.getCurrency(),
                 transactionDTO.getChannel(),
                 transactionDTO.getInitialPayloadJson(),
-                transactionDTO.getSimulatedSuccessRate()
+                transactionDTO.getSimulatedSuccessRate(),
+                transactionDTO.getIdempotencyKey()
         );
     }
 
+    // Throws IllegalStateException when the transaction's current status does not allow the move
     @Transactional
     public Transaction updateTransactionStatus(UUID transactionId, TransactionStatus newStatus) {
-        return transactionRepository.findById(transactionId).map(txn -> {
-            txn.setCurrentStatus(newStatus);
-            Transaction updatedTxn = transactionRepository.save(txn);
-
-            // Optional: enforce Redis TTL if status changes to INITIATED
-            if (newStatus == TransactionStatus.INITIATED) {
-                enqueueTTLForInitiated(updatedTxn);
-            }
-
-            return updatedTxn;
-        }).orElseThrow(() -> new RuntimeException("Transaction not found: " + transactionId));
+        return transitionEngine.transition(transactionId, newStatus)
+                .map(StatusTransition::transaction)
+                .orElseThrow(() -> refused(transactionId, newStatus));
     }
 
+    // Scheduled steps lose quietly: the escrow timer, a sweep or a settlement run may have got there first
     @Transactional
     public void updateTransactionStatusAndBroadcast(UUID transactionId, TransactionStatus newStatus) {
-        transactionRepository.findById(transactionId).ifPresent(txn -> {
-            txn.setCurrentStatus(newStatus);
-            transactionRepository.save(txn);
-
-            // Broadcast the status change
-            webSocketService.broadcast(
-                    String.format("Transaction %s has moved to %s.",
-                            txn.getId().toString().substring(0, 8),
-                            newStatus.toString())
-            );
-
+        transitionEngine.transition(transactionId, newStatus).ifPresent(change -> {
             // Simulate the next step if the status is ESCROW
             if (newStatus == TransactionStatus.ESCROW) {
-                scheduler.schedule(() -> {
-                    updateTransactionStatusAndBroadcast(txn.getId(), TransactionStatus.SETTLED);
-                }, 15, TimeUnit.SECONDS);
+                transitionScheduler.schedule(transactionId, TransactionStatus.SETTLED, SIMULATED_SETTLEMENT_DELAY);
             }
         });
     }
 
+    // Entry point for ScheduledTransitionRunner: applies the change and removes the
+    // schedule row in one transaction, so a transition fires at most once.
+    @Transactional
+    public void applyScheduledTransition(ScheduledTransition transition) {
+        updateTransactionStatusAndBroadcast(transition.getTransactionId(), transition.getTargetStatus());
+        transitionScheduler.complete(transition);
+    }
+
     @Transactional(readOnly = true)
     public List<Transaction> getByStatus(TransactionStatus status) {
         return transactionRepository.findByCurrentStatus(status);
@@ -182,59 +203,85 @@ public class TransactionService {
     public Transaction save(Transaction transaction) {
         Transaction saved = transactionRepository.save(transaction);
         if (saved.getCurrentStatus() == TransactionStatus.INITIATED) {
-            enqueueTTLForInitiated(saved);
+            // No status event here to carry the timer through the outbox, so arm it once the save commits
+            UUID id = saved.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    escrowTimerWheel.schedule(id, Instant.now().plus(ESCROW_HOLD));
+                }
+            });
         }
+        // save() may change fields without a status event, so drop the cached copies explicitly
+        transactionCache.invalidate(saved.getId());
         return saved;
     }
 
     public Transaction getById(UUID id) {
-        return transactionRepository.findById(id)
+        return transactionCache.getTransaction(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + id));
     }
 
+    public TransactionStatusView getStatusById(UUID id) {
+        return transactionCache.getStatus(id)
+                .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + id));
+    }
+
+    // One statement: the snapshot and the requested range of the event log
+    public Optional<TransactionTimeline> getTimeline(UUID id, long afterSeq, int limit) {
+        return timelineRepository.findTimeline(id, afterSeq, limit);
+    }
+
     @Transactional(readOnly = true)
     public List<Transaction> getRetryPendingTransactions() {
         return transactionRepository.findByCurrentStatus(TransactionStatus.RETRY_PENDING);
     }
 
     @Transactional(readOnly = true)
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    public List<Transaction> getTransactionsPage(TransactionStatus status, UUID vendorId, String channel,
+                                                 TransactionCursor after, int limit) {
+        TransactionCursor from = after != null ? after : TransactionCursor.START;
+        return transactionRepository.findPageAfter(
+                from.createdAt(), from.id(), status, vendorId, channel, PageRequest.ofSize(limit));
+    }
+
+    // Walks every matching row through a server-side cursor. Each entity is detached
+    // once handed to the sink so the persistence context stays small for large exports.
+    @Transactional(readOnly = true)
+    public void streamTransactions(TransactionStatus status, UUID vendorId, String channel,
+                                   Consumer<Transaction> sink) {
+        try (Stream<Transaction> rows = transactionRepository.streamByFilters(status, vendorId, channel)) {
+            rows.forEach(txn -> {
+                sink.accept(txn);
+                entityManager.detach(txn);
+            });
+        }
     }
 
     @Transactional
     public Transaction forceManualRetry(UUID transactionId) {
-        return transactionRepository.findById(transactionId).map(txn -> {
-            if (txn.getCurrentStatus() == TransactionStatus.SETTLED ||
-                    txn.getCurrentStatus() == TransactionStatus.PERMANENTLY_FAILED ||
-                    txn.getCurrentStatus() == TransactionStatus.COMPLETED) {
-                throw new IllegalStateException("Cannot manually retry a transaction in status: " + txn.getCurrentStatus());
-            }
-
-            txn.setRetryCount(txn.getRetryCount() + 1);
-            txn.setCurrentStatus(TransactionStatus.RETRY_PENDING);
-            Transaction updatedTxn = transactionRepository.save(txn);
-
-            traceService.createAndSaveTrace(
-                    "MANUAL_RETRY_FORCED",
-                    null,
-                    null,
-                    txn.getId(),
-                    "Manual retry initiated by admin.",
-                    updatedTxn.getRetryCount()
-            );
-
-            System.out.println("Manual retry forced for transaction: " + transactionId);
+        Transaction updatedTxn = transitionEngine.forceRetry(transactionId)
+                .map(StatusTransition::transaction)
+                .orElseThrow(() -> refused(transactionId, TransactionStatus.RETRY_PENDING));
+
+        traceService.createAndSaveTrace(
+                "MANUAL_RETRY_FORCED",
+                null,
+                null,
+                transactionId,
+                "Manual retry initiated by admin.",
+                updatedTxn.getRetryCount()
+        );
 
-            // Broadcast the manual retry event
-            webSocketService.broadcast(
-                    String.format("Manual retry forced for transaction %s.", transactionId.toString().substring(0, 8))
-            );
-            return updatedTxn;
-        }).orElseThrow(() -> new RuntimeException("Transaction not found for manual retry: " + transactionId));
+        log.info("Manual retry forced for transaction {}", transactionId);
+        return updatedTxn;
     }
 
-    public static int getMaxRetries() {
-        return MAX_RETRIES;
+    // Only on the losing path: tells a missing transaction apart from one in the wrong status
+    private RuntimeException refused(UUID transactionId, TransactionStatus newStatus) {
+        return transactionRepository.findStatusViewById(transactionId)
+                .<RuntimeException>map(view -> new IllegalStateException(
+                        "Cannot move transaction " + transactionId + " from " + view.currentStatus() + " to " + newStatus))
+                .orElseGet(() -> new RuntimeException("Transaction not found: " + transactionId));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.StatusTransition;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.TransactionBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-transaction status changes as compare-and-set: one conditional UPDATE,
+ * guarded by {@link TransactionStatus#allowedFrom()}, with no read beforehand.
+ * Scheduled steps, sweepers, retries and admin actions can race on the same row;
+ * exactly one of them wins and publishes the status event (and posts the ledger
+ * entry the new status calls for), the others get an empty result and leave the
+ * row alone.
+ *
+ * <p>The UPDATE goes past the JPA persistence context: callers should use the
+ * returned row rather than an entity they loaded earlier.
+ */
+@Service
+public class TransitionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TransitionEngine.class);
+
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionEventPublisher eventPublisher;
+    private final LedgerService ledgerService;
+
+    private final LongAdder won = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+
+    public TransitionEngine(TransactionBatchRepository transactionBatchRepository,
+                            TransactionEventPublisher eventPublisher,
+                            LedgerService ledgerService) {
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.eventPublisher = eventPublisher;
+        this.ledgerService = ledgerService;
+    }
+
+    /**
+     * Moves the transaction to {@code to} if its current status allows it.
+     *
+     * @return the change if this call won; empty if the transaction does not exist
+     *         or is in a status {@code to} cannot be entered from.
+     */
+    @Transactional
+    public Optional<StatusTransition> transition(UUID transactionId, TransactionStatus to) {
+        return apply(transactionId, to, 0);
+    }
+
+    /** Manual retry: RETRY_PENDING, counting the attempt in the same statement. */
+    @Transactional
+    public Optional<StatusTransition> forceRetry(UUID transactionId) {
+        return apply(transactionId, TransactionStatus.RETRY_PENDING, 1);
+    }
+
+    public long wonCount() {
+        return won.sum();
+    }
+
+    public long lostCount() {
+        return lost.sum();
+    }
+
+    private Optional<StatusTransition> apply(UUID transactionId, TransactionStatus to, int retryIncrement) {
+        Optional<StatusTransition> change = transactionBatchRepository.compareAndSet(
+                transactionId, to.allowedFrom(), to, retryIncrement);
+        if (change.isPresent()) {
+            won.increment();
+            List<TransactionEvent> event = List.of(change.get().toEvent());
+            eventPublisher.publishAll(event);
+            ledgerService.postTransitions(event, "Status transition to " + to);
+        } else {
+            lost.increment();
+            log.debug("Transition of txn {} to {} refused: missing or not in {}", transactionId, to, to.allowedFrom());
+        }
+        return change;
+    }
+}
@@ -0,0 +1,61 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.TransitionSchedulerStats;
+import com.tracktrove.entity.ScheduledTransition;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.ScheduledTransitionBatchRepository;
+import com.tracktrove.repository.ScheduledTransitionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable replacement for in-memory delayed tasks. Scheduling joins the
+ * caller's transaction, so a transition is only pending if the change that
+ * scheduled it committed. {@link com.tracktrove.scheduler.ScheduledTransitionRunner}
+ * fires due rows.
+ */
+@Service
+public class TransitionScheduler {
+
+    private final ScheduledTransitionRepository scheduledTransitionRepository;
+    private final ScheduledTransitionBatchRepository scheduledTransitionBatchRepository;
+
+    public TransitionScheduler(ScheduledTransitionRepository scheduledTransitionRepository,
+                               ScheduledTransitionBatchRepository scheduledTransitionBatchRepository) {
+        this.scheduledTransitionRepository = scheduledTransitionRepository;
+        this.scheduledTransitionBatchRepository = scheduledTransitionBatchRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void schedule(UUID transactionId, TransactionStatus targetStatus, Duration delay) {
+        Instant now = Instant.now();
+        scheduledTransitionRepository.save(
+                new ScheduledTransition(null, transactionId, targetStatus, now.plus(delay), null, now));
+    }
+
+    // Bulk variant for batch ingestion; same transactional contract as schedule()
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void scheduleAll(List<ScheduledTransition> transitions) {
+        scheduledTransitionBatchRepository.insertAll(transitions);
+    }
+
+    public List<ScheduledTransition> claimDue(int limit, Duration lease) {
+        return scheduledTransitionBatchRepository.claimDue(limit, lease);
+    }
+
+    // Called from the transaction that applies the transition
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(ScheduledTransition transition) {
+        scheduledTransitionRepository.deleteById(transition.getId());
+    }
+
+    public TransitionSchedulerStats stats() {
+        return scheduledTransitionBatchRepository.stats();
+    }
+}
@@ -1,66 +1,369 @@
 package com.tracktrove.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.dto.EventSubscription;
+import com.tracktrove.dto.TransactionEvent;
+import com.tracktrove.dto.WebSocketStats;
+import com.tracktrove.entity.enums.TransactionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.noop.NoopTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
+import jakarta.websocket.OnMessage;
 import jakarta.websocket.OnOpen;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * WebSocketService is the server endpoint for real-time transaction updates.
- * It manages a set of connected clients and provides a broadcast mechanism.
+ * It manages the connected clients and provides a non-blocking broadcast: each
+ * session owns a bounded outbound queue drained through the async remote, so a
+ * slow dashboard only ever backs up its own queue.
+ * <p>
+ * Transaction status changes are not sent one by one. They are coalesced per
+ * transaction (latest state wins) and flushed every flush interval as a single
+ * {@code {"type":"transactions","events":[...]}} frame per client. Each event is
+ * serialized once and the JSON reused for every session. Clients can narrow the
+ * stream with {@code /ws?vendorId=..&status=ESCROW,SETTLED} or by sending
+ * {@code {"vendorIds":[..],"statuses":[..]}} at any time.
  * The endpoint path is defined by @ServerEndpoint("/ws").
  */
 @Service
 @ServerEndpoint("/ws")
 public class WebSocketService {
 
-    // A thread-safe Set to store all connected WebSocket sessions.
-    private static final Set<Session> sessions = Collections.synchronizedSet(new HashSet<>());
+    private static final Logger log = LoggerFactory.getLogger(WebSocketService.class);
+
+    // The container creates one endpoint instance per connection, so shared state is static.
+    private static final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+
+    // Events waiting for the next flush, keyed by transaction so repeated changes collapse
+    private static final Map<UUID, TransactionEvent> pendingEvents = new ConcurrentHashMap<>();
+
+    private static final LongAdder sentFrames = new LongAdder();
+    private static final LongAdder failedSends = new LongAdder();
+    private static final LongAdder droppedFrames = new LongAdder();
+    private static final LongAdder slowDisconnects = new LongAdder();
+
+    // Closing a stuck session can block on the socket, so it never runs on the publishing thread
+    private static final ExecutorService closer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ws-closer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int MAX_EVENTS_PER_FRAME = 500;
+    private static final String SEND_LATENCY_METRIC = "tracktrove.websocket.send.latency";
+
+    private static volatile int queueCapacity = 256;
+    private static volatile SessionOutbox.OverflowPolicy overflowPolicy = SessionOutbox.OverflowPolicy.DROP_OLDEST;
+    private static volatile long flushIntervalMs = 50;
+    private static volatile ObjectMapper objectMapper = new ObjectMapper();
+    // No-op until the registry is injected
+    private static volatile Timer sendLatency = new NoopTimer(
+            new Meter.Id(SEND_LATENCY_METRIC, Tags.empty(), null, null, Meter.Type.TIMER));
+
+    private ScheduledExecutorService flusher;
+
+    // Settings are injected into the Spring-managed instance and shared with the container-created ones.
+    @Value("${tracktrove.websocket.queue-capacity:256}")
+    public void setQueueCapacity(int capacity) {
+        queueCapacity = capacity;
+    }
+
+    @Value("${tracktrove.websocket.overflow-policy:DROP_OLDEST}")
+    public void setOverflowPolicy(SessionOutbox.OverflowPolicy policy) {
+        overflowPolicy = policy;
+    }
+
+    @Value("${tracktrove.websocket.flush-interval-ms:50}")
+    public void setFlushIntervalMs(long interval) {
+        flushIntervalMs = interval;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper mapper) {
+        objectMapper = mapper;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry registry) {
+        sendLatency = Timer.builder(SEND_LATENCY_METRIC)
+                .description("Time from handing a frame to the container until its send completes")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("tracktrove.websocket.sessions", outboxes, Map::size)
+                .description("Open WebSocket sessions")
+                .register(registry);
+        Gauge.builder("tracktrove.websocket.queued.frames", () -> stats().queuedFrames())
+                .description("Frames waiting in session outbound queues")
+                .register(registry);
+        FunctionCounter.builder("tracktrove.websocket.frames.dropped", droppedFrames, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("tracktrove.websocket.slow.disconnects", slowDisconnects, LongAdder::sum)
+                .register(registry);
+    }
+
+    // Only the Spring-managed instance runs lifecycle callbacks, so there is exactly one flusher.
+    @PostConstruct
+    public void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ws-event-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushEvents, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopFlusher() {
+        flusher.shutdown();
+    }
 
     // This method is called when a new WebSocket connection is established.
     @OnOpen
     public void onOpen(Session session) {
-        sessions.add(session);
-        System.out.println("New WebSocket connection established with session ID: " + session.getId());
+        SessionOutbox outbox = new SessionOutbox(session, queueCapacity, overflowPolicy, sentFrames, failedSends,
+                sendLatency);
+        try {
+            outbox.subscribe(subscriptionFrom(session.getRequestParameterMap()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid subscription on session {}: {}", session.getId(), e.getMessage());
+        }
+        outboxes.put(session.getId(), outbox);
+        log.debug("WebSocket connection established: {}", session.getId());
+    }
+
+    // Clients may replace their subscription by sending {"vendorIds":[...],"statuses":[...]}
+    @OnMessage
+    public void onMessage(Session session, String message) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox == null) {
+            return;
+        }
+        try {
+            outbox.subscribe(objectMapper.readValue(message, EventSubscription.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring invalid subscription from session {}: {}", session.getId(), e.getOriginalMessage());
+        }
     }
 
     // This method is called when a WebSocket connection is closed.
     @OnClose
     public void onClose(Session session) {
-        sessions.remove(session);
-        System.out.println("WebSocket connection closed for session ID: " + session.getId());
+        SessionOutbox outbox = outboxes.remove(session.getId());
+        if (outbox != null) {
+            outbox.close();
+        }
+        log.debug("WebSocket connection closed: {}", session.getId());
     }
 
     // This method is called when an error occurs on the WebSocket connection.
     @OnError
     public void onError(Session session, Throwable throwable) {
-        System.err.println("WebSocket error on session ID: " + session.getId() + ". Error: " + throwable.getMessage());
+        log.warn("WebSocket error on session {}: {}", session.getId(), throwable.getMessage());
+    }
+
+    /**
+     * Queues a status change for the next coalesced frame. Called by the
+     * {@link OutboxRelay}, so the change is already committed.
+     */
+    @EventListener
+    public void onTransactionEvent(TransactionEvent event) {
+        if (outboxes.isEmpty()) {
+            return;
+        }
+        // Latest state wins, but keep the status the transaction had at the start of the window
+        pendingEvents.merge(event.transactionId(), event,
+                (earlier, latest) -> latest.withFromStatus(earlier.fromStatus(), earlier.fromStatusSince()));
     }
 
     /**
-     * Broadcasts a message to all connected WebSocket clients.
-     * The message is sent as a JSON string.
+     * Broadcasts a free-form message to all connected WebSocket clients as
+     * {@code {"message": "..."}}. Never blocks on the network: the frame is
+     * queued on every session and delivered asynchronously.
      *
      * @param message The message to be broadcasted.
      */
     public void broadcast(String message) {
-        synchronized (sessions) {
-            for (Session session : sessions) {
-                try {
-                    // Send the message to the client, converting it to a JSON object
-                    // to match the front-end's expectation.
-                    session.getBasicRemote().sendText("{\"message\": \"" + message + "\"}");
-                } catch (IOException e) {
-                    System.err.println("Failed to send message to session " + session.getId() + ": " + e.getMessage());
+        try {
+            offerToAll(objectMapper.writeValueAsString(Map.of("message", message)));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode broadcast message: {}", e.getMessage());
+        }
+    }
+
+    void flushEvents() {
+        try {
+            if (pendingEvents.isEmpty()) {
+                return;
+            }
+            List<TransactionEvent> events = new ArrayList<>(pendingEvents.size());
+            List<String> encoded = new ArrayList<>(pendingEvents.size());
+            for (UUID transactionId : pendingEvents.keySet()) {
+                TransactionEvent event = pendingEvents.remove(transactionId);
+                if (event != null) {
+                    events.add(event);
+                    encoded.add(objectMapper.writeValueAsString(event));
                 }
             }
+
+            // Unfiltered sessions all share the same frames
+            List<String> sharedFrames = null;
+            for (SessionOutbox outbox : outboxes.values()) {
+                EventSubscription subscription = outbox.subscription();
+                if (subscription.isAll()) {
+                    if (sharedFrames == null) {
+                        sharedFrames = buildFrames(events, encoded, EventSubscription.ALL);
+                    }
+                    offerAll(outbox, sharedFrames);
+                } else {
+                    offerAll(outbox, buildFrames(events, encoded, subscription));
+                }
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic flush
+            log.error("WebSocket event flush failed", e);
+        }
+    }
+
+    private static List<String> buildFrames(List<TransactionEvent> events, List<String> encoded,
+                                            EventSubscription subscription) {
+        List<String> frames = new ArrayList<>(1);
+        StringBuilder frame = null;
+        int inFrame = 0;
+        for (int i = 0; i < events.size(); i++) {
+            if (!subscription.matches(events.get(i))) {
+                continue;
+            }
+            if (frame == null) {
+                frame = new StringBuilder(256 * Math.min(events.size(), MAX_EVENTS_PER_FRAME))
+                        .append("{\"type\":\"transactions\",\"events\":[");
+            } else {
+                frame.append(',');
+            }
+            frame.append(encoded.get(i));
+            if (++inFrame == MAX_EVENTS_PER_FRAME) {
+                frames.add(frame.append("]}").toString());
+                frame = null;
+                inFrame = 0;
+            }
+        }
+        if (frame != null) {
+            frames.add(frame.append("]}").toString());
+        }
+        return frames;
+    }
+
+    private void offerToAll(String frame) {
+        for (SessionOutbox outbox : outboxes.values()) {
+            offer(outbox, frame);
+        }
+    }
+
+    private void offerAll(SessionOutbox outbox, List<String> frames) {
+        for (String frame : frames) {
+            if (!offer(outbox, frame)) {
+                return;
+            }
+        }
+    }
+
+    // Returns false once the session has been dropped for being too slow
+    private boolean offer(SessionOutbox outbox, String frame) {
+        switch (outbox.offer(frame)) {
+            case DROPPED_OLDEST -> droppedFrames.increment();
+            case OVERFLOWED -> {
+                disconnectSlowSession(outbox);
+                return false;
+            }
+            case CLOSED -> {
+                return false;
+            }
+            default -> { }
+        }
+        return true;
+    }
+
+    private void disconnectSlowSession(SessionOutbox outbox) {
+        Session session = outbox.session();
+        outboxes.remove(session.getId());
+        slowDisconnects.increment();
+        closer.execute(() -> {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Outbound queue overflow"));
+            } catch (IOException e) {
+                log.warn("Failed to close slow session {}: {}", session.getId(), e.getMessage());
+            }
+        });
+        log.warn("Disconnected slow WebSocket session {} (queue full)", session.getId());
+    }
+
+    // Parses ?vendorId=a,b&status=ESCROW,SETTLED from the handshake
+    private static EventSubscription subscriptionFrom(Map<String, List<String>> params) {
+        Set<UUID> vendorIds = new HashSet<>();
+        for (String value : splitParam(params.get("vendorId"))) {
+            vendorIds.add(UUID.fromString(value));
+        }
+        Set<TransactionStatus> statuses = new HashSet<>();
+        for (String value : splitParam(params.get("status"))) {
+            statuses.add(TransactionStatus.valueOf(value));
+        }
+        return new EventSubscription(vendorIds, statuses);
+    }
+
+    private static List<String> splitParam(List<String> values) {
+        List<String> parts = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                for (String part : value.split(",")) {
+                    if (!part.isBlank()) {
+                        parts.add(part.trim());
+                    }
+                }
+            }
+        }
+        return parts;
+    }
+
+    public WebSocketStats stats() {
+        long queued = 0;
+        int maxDepth = 0;
+        for (SessionOutbox outbox : outboxes.values()) {
+            int depth = outbox.depth();
+            queued += depth;
+            maxDepth = Math.max(maxDepth, depth);
         }
+        return new WebSocketStats(outboxes.size(), queued, maxDepth, sentFrames.sum(),
+                failedSends.sum(), droppedFrames.sum(), slowDisconnects.sum());
     }
-}
\ No newline at end of file
+}
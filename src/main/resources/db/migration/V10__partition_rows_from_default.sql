@@ -0,0 +1,68 @@
+-- ensure_monthly_partitions (V4) could not create a month whose rows had already
+-- landed in the DEFAULT partition, e.g. after downtime spanning the months-ahead
+-- window: CREATE TABLE ... PARTITION OF fails while DEFAULT holds rows of the new
+-- range, and the month stayed in DEFAULT for good. Such a month is now created
+-- with DEFAULT detached and its rows moved over, and the loop also starts at the
+-- earliest month found in DEFAULT. Contains $$ bodies, so it runs as one statement.
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent TEXT, from_month DATE, to_month DATE)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    month DATE;
+    next_month DATE;
+    partition_name TEXT;
+    default_name TEXT;
+    partition_key TEXT;
+    earliest_parked DATE;
+    has_rows BOOLEAN;
+    created INT := 0;
+BEGIN
+    SELECT a.attname INTO partition_key
+    FROM pg_partitioned_table pt
+    JOIN pg_attribute a ON a.attrelid = pt.partrelid AND a.attnum = pt.partattrs[0]
+    WHERE pt.partrelid = parent::regclass;
+
+    SELECT c.relname INTO default_name
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = parent::regclass AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT';
+
+    month := date_trunc('month', from_month)::date;
+    IF default_name IS NOT NULL THEN
+        EXECUTE format('SELECT date_trunc(''month'', min(%I))::date FROM %I', partition_key, default_name)
+            INTO earliest_parked;
+        IF earliest_parked < month THEN
+            month := earliest_parked;
+        END IF;
+    END IF;
+
+    WHILE month <= to_month LOOP
+        partition_name := parent || '_' || to_char(month, 'YYYY_MM');
+        next_month := (month + INTERVAL '1 month')::date;
+        IF to_regclass(partition_name) IS NULL THEN
+            has_rows := false;
+            IF default_name IS NOT NULL THEN
+                EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                               default_name, partition_key, month, partition_key, next_month)
+                    INTO has_rows;
+            END IF;
+            IF has_rows THEN
+                -- Writers of the parent wait on its lock until this transaction commits
+                EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, default_name);
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, parent, month, next_month);
+                EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                                   || 'INSERT INTO %I SELECT * FROM moved',
+                               default_name, partition_key, month, partition_key, next_month, parent);
+                EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent, default_name);
+                RAISE NOTICE 'Moved rows of % out of %', partition_name, default_name;
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, parent, month, next_month);
+            END IF;
+            created := created + 1;
+        END IF;
+        month := next_month;
+    END LOOP;
+    RETURN created;
+END
+$$;
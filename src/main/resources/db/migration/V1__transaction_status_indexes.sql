@@ -0,0 +1,15 @@
+-- Sweepers (EscrowSweep, RetryJob, SettlementJob, admin patch) filter on status and
+-- walk oldest-first by updated_at; without this every sweep is a sequential scan.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_status_updated_at
+    ON transaction (current_status, updated_at);
+
+-- Per-vendor listings, newest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_vendor_created_at
+    ON transaction (vendor_id, created_at);
+
+-- Only the in-flight statuses are ever swept, and they are a small slice of the table.
+-- INCLUDE makes it covering for TransactionSummary, so sweeps never touch the heap's jsonb.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_active_status
+    ON transaction (current_status, updated_at)
+    INCLUDE (id, amount, currency, vendor_id, channel, retry_count, simulated_success_rate)
+    WHERE current_status IN ('INITIATED', 'ESCROW', 'FAILED', 'RETRY_PENDING');
@@ -0,0 +1,8 @@
+-- Retry due-index: each retry tick reads only FAILED rows whose next attempt is due.
+-- Rows that failed before next_attempt_at existed are due straight away.
+UPDATE transaction SET next_attempt_at = updated_at
+WHERE current_status = 'FAILED' AND next_attempt_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_retry_due
+    ON transaction (next_attempt_at)
+    WHERE current_status = 'FAILED';
@@ -0,0 +1,6 @@
+-- trace.id moves from IDENTITY to the pooled trace_seq (created by Hibernate), so
+-- ids can be allocated in blocks and trace inserts batched.
+ALTER TABLE trace ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Start past every existing id, leaving a full block of headroom for the pooled ranges
+SELECT setval('trace_seq', COALESCE((SELECT max(id) FROM trace), 0) + 50);
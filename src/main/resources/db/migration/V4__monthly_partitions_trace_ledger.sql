@@ -0,0 +1,63 @@
+-- Monthly range partitions for the append-only trace and ledger_entry tables.
+-- Contains $$ bodies, so SchemaMigrator runs it as one statement: the whole
+-- conversion commits or rolls back together.
+
+-- Creates the missing monthly partitions of parent between the two months (inclusive).
+-- Also called by PartitionManager to keep partitions created ahead of time.
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent TEXT, from_month DATE, to_month DATE)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    month DATE := date_trunc('month', from_month)::date;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE month <= to_month LOOP
+        partition_name := parent || '_' || to_char(month, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent, month, (month + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        month := (month + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- trace: PK must include the partition key
+ALTER TABLE trace RENAME TO trace_unpartitioned;
+CREATE TABLE trace (LIKE trace_unpartitioned INCLUDING DEFAULTS INCLUDING STORAGE)
+    PARTITION BY RANGE (trace_time);
+ALTER TABLE trace ADD PRIMARY KEY (id, trace_time);
+-- Safety net for rows outside every monthly partition; normally empty
+CREATE TABLE trace_default PARTITION OF trace DEFAULT;
+SELECT ensure_monthly_partitions('trace',
+        COALESCE((SELECT min(trace_time) FROM trace_unpartitioned), now())::date,
+        (now() + INTERVAL '2 months')::date);
+INSERT INTO trace (id, transaction_id, step_name, dto_before, dto_after, error_stack, retry_count, trace_time)
+SELECT id, transaction_id, step_name, dto_before, dto_after, error_stack, retry_count, COALESCE(trace_time, now())
+FROM trace_unpartitioned;
+DROP TABLE trace_unpartitioned;
+CREATE INDEX idx_trace_transaction_time ON trace (transaction_id, trace_time DESC);
+
+-- ledger_entry: the IDENTITY column becomes a plain sequence default, which
+-- partitioned tables support on every Postgres version we run. On a fresh database
+-- Hibernate has created the table from the current entity, without the amount
+-- column this copies (V8 drops it); elsewhere this is a no-op
+ALTER TABLE ledger_entry ADD COLUMN IF NOT EXISTS amount DOUBLE PRECISION;
+ALTER TABLE ledger_entry RENAME TO ledger_entry_unpartitioned;
+CREATE TABLE ledger_entry (LIKE ledger_entry_unpartitioned INCLUDING STORAGE)
+    PARTITION BY RANGE (entry_timestamp);
+ALTER TABLE ledger_entry ADD PRIMARY KEY (id, entry_timestamp);
+CREATE SEQUENCE IF NOT EXISTS ledger_entry_seq OWNED BY ledger_entry.id;
+SELECT setval('ledger_entry_seq', COALESCE((SELECT max(id) FROM ledger_entry_unpartitioned), 0) + 1, false);
+ALTER TABLE ledger_entry ALTER COLUMN id SET DEFAULT nextval('ledger_entry_seq');
+CREATE TABLE ledger_entry_default PARTITION OF ledger_entry DEFAULT;
+SELECT ensure_monthly_partitions('ledger_entry',
+        COALESCE((SELECT min(entry_timestamp) FROM ledger_entry_unpartitioned), now())::date,
+        (now() + INTERVAL '2 months')::date);
+INSERT INTO ledger_entry (id, transaction_id, type, amount, entry_timestamp, description)
+SELECT id, transaction_id, type, amount, COALESCE(entry_timestamp, now()), description
+FROM ledger_entry_unpartitioned;
+DROP TABLE ledger_entry_unpartitioned;
+CREATE INDEX idx_ledger_entry_transaction_time ON ledger_entry (transaction_id, entry_timestamp DESC);
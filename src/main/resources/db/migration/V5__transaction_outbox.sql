@@ -0,0 +1,15 @@
+-- Outbox for transaction status events: written in the same transaction as the
+-- status change, drained by OutboxRelay. Rows are deleted as they are relayed, so
+-- the table stays small but churns; vacuum it early rather than at 20% dead rows.
+CREATE TABLE IF NOT EXISTS transaction_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    transaction_id UUID NOT NULL,
+    vendor_id UUID,
+    channel VARCHAR(255),
+    amount NUMERIC(38, 2),
+    currency VARCHAR(255),
+    from_status VARCHAR(32),
+    to_status VARCHAR(32) NOT NULL,
+    from_status_since TIMESTAMPTZ,
+    occurred_at TIMESTAMPTZ NOT NULL
+) WITH (autovacuum_vacuum_scale_factor = 0.01, autovacuum_vacuum_threshold = 1000);
@@ -0,0 +1,5 @@
+-- Backs the Redis idempotency cache of POST /api/transactions/initiate: a retry that
+-- misses the cache (expired, evicted, Redis down) still cannot create a second transaction.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_transaction_vendor_idempotency_key
+    ON transaction (vendor_id, idempotency_key)
+    WHERE idempotency_key IS NOT NULL;
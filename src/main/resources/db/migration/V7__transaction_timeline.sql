@@ -0,0 +1,38 @@
+-- Per-transaction timeline: an append-only log of typed events numbered 1, 2, 3...
+-- per transaction, and a snapshot of the current state kept up to date by the same
+-- statement that appends (TransactionTimelineRepository). The snapshot row also
+-- hands out the sequence numbers: appends to one transaction serialize on it.
+CREATE TABLE IF NOT EXISTS transaction_event_log (
+    transaction_id UUID NOT NULL,
+    seq BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    from_status VARCHAR(32),
+    to_status VARCHAR(32) NOT NULL,
+    from_status_since TIMESTAMPTZ,
+    occurred_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (transaction_id, seq)
+);
+
+CREATE TABLE IF NOT EXISTS transaction_snapshot (
+    transaction_id UUID PRIMARY KEY,
+    last_seq BIGINT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    status_since TIMESTAMPTZ NOT NULL,
+    first_event_at TIMESTAMPTZ NOT NULL,
+    last_event_at TIMESTAMPTZ NOT NULL,
+    failed_retries INT NOT NULL DEFAULT 0
+) WITH (fillfactor = 80); -- rewritten on every event: leave room for HOT updates
+
+-- Transactions from before the log get one BACKFILLED event carrying the state they are in now
+INSERT INTO transaction_event_log (transaction_id, seq, event_type, from_status, to_status, from_status_since, occurred_at)
+SELECT id, 1, 'BACKFILLED', NULL, current_status, NULL, COALESCE(updated_at, created_at, now())
+FROM transaction
+WHERE current_status IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+INSERT INTO transaction_snapshot (transaction_id, last_seq, status, status_since, first_event_at, last_event_at)
+SELECT id, 1, current_status, COALESCE(updated_at, created_at, now()),
+       COALESCE(created_at, updated_at, now()), COALESCE(updated_at, created_at, now())
+FROM transaction
+WHERE current_status IS NOT NULL
+ON CONFLICT DO NOTHING;
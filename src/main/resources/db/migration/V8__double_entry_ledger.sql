@@ -0,0 +1,93 @@
+-- Double-entry ledger in integer minor units. ledger_entry rows become legs:
+-- every posting writes a DEBIT and a CREDIT leg of the same amount_minor, and
+-- ledger_balance keeps the running totals per vendor, account and currency,
+-- advanced by the statement that posts (LedgerBatchRepository.postAll).
+-- Contains $$ bodies, so SchemaMigrator runs it as one statement: the
+-- conversion commits or rolls back together.
+
+-- ISO 4217 exponent of a currency, as java.util.Currency reports it; 2 for
+-- codes without one. Must stay in step with LedgerPosting.minorUnitExponent.
+CREATE OR REPLACE FUNCTION currency_minor_exponent(code TEXT)
+RETURNS INT LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE
+        WHEN code IN ('ADP', 'BEF', 'BIF', 'BYB', 'BYR', 'CLP', 'DJF', 'ESP', 'GNF', 'GRD', 'ISK', 'ITL',
+                      'JPY', 'KMF', 'KRW', 'LUF', 'MGF', 'PTE', 'PYG', 'ROL', 'RWF', 'TPE', 'TRL', 'UGX',
+                      'UYI', 'VND', 'VUV', 'XAF', 'XOF', 'XPF') THEN 0
+        WHEN code IN ('BHD', 'IQD', 'JOD', 'KWD', 'LYD', 'OMR', 'TND') THEN 3
+        WHEN code = 'CLF' THEN 4
+        ELSE 2
+    END
+$$;
+
+ALTER TABLE ledger_entry
+    ADD COLUMN IF NOT EXISTS vendor_id UUID,
+    ADD COLUMN IF NOT EXISTS account VARCHAR(32),
+    ADD COLUMN IF NOT EXISTS direction VARCHAR(6),
+    ADD COLUMN IF NOT EXISTS amount_minor BIGINT,
+    ADD COLUMN IF NOT EXISTS currency VARCHAR(255);
+
+-- Existing rows were one-sided doubles. Each becomes the debit leg of its type,
+-- re-derived from the exact transaction.amount (the double is only used for rows
+-- whose transaction is gone), and gets its credit leg. The arithmetic stays in
+-- numeric: an integer ^ would go through double precision. On a fresh database
+-- the table is empty and the amount column is only there because V4 adds it.
+DO $$
+BEGIN
+    UPDATE ledger_entry l
+    SET vendor_id = COALESCE(t.vendor_id, '00000000-0000-0000-0000-000000000000'),
+        currency = COALESCE(NULLIF(upper(trim(t.currency)), ''), 'XXX'),
+        amount_minor = round(COALESCE(t.amount, l.amount::numeric)
+                             * power(10::numeric, currency_minor_exponent(COALESCE(NULLIF(upper(trim(t.currency)), ''), 'XXX'))))
+    FROM transaction t
+    WHERE t.id = l.transaction_id AND l.amount_minor IS NULL;
+
+    UPDATE ledger_entry
+    SET vendor_id = '00000000-0000-0000-0000-000000000000',
+        currency = 'XXX',
+        amount_minor = round(COALESCE(amount, 0)::numeric * 100)
+    WHERE amount_minor IS NULL;
+
+    UPDATE ledger_entry
+    SET account = CASE type WHEN 'ESCROW' THEN 'CLEARING' ELSE 'ESCROW_HOLD' END,
+        direction = 'DEBIT'
+    WHERE account IS NULL;
+
+    INSERT INTO ledger_entry (transaction_id, vendor_id, type, account, direction, amount_minor, currency,
+                              entry_timestamp, description)
+    SELECT transaction_id, vendor_id, type,
+           CASE type WHEN 'ESCROW' THEN 'ESCROW_HOLD' WHEN 'SETTLEMENT' THEN 'VENDOR_PAYABLE' ELSE 'CLEARING' END,
+           'CREDIT', amount_minor, currency, entry_timestamp, description
+    FROM ledger_entry
+    WHERE amount IS NOT NULL;
+
+    ALTER TABLE ledger_entry DROP COLUMN amount;
+END
+$$;
+
+ALTER TABLE ledger_entry
+    ALTER COLUMN vendor_id SET NOT NULL,
+    ALTER COLUMN account SET NOT NULL,
+    ALTER COLUMN direction SET NOT NULL,
+    ALTER COLUMN amount_minor SET NOT NULL,
+    ALTER COLUMN currency SET NOT NULL;
+
+CREATE TABLE IF NOT EXISTS ledger_balance (
+    vendor_id UUID NOT NULL,
+    account VARCHAR(32) NOT NULL,
+    currency VARCHAR(255) NOT NULL,
+    debits_minor BIGINT NOT NULL DEFAULT 0,
+    credits_minor BIGINT NOT NULL DEFAULT 0,
+    balance_minor BIGINT GENERATED ALWAYS AS (debits_minor - credits_minor) STORED,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (vendor_id, account, currency)
+) WITH (fillfactor = 70); -- a few hot rows updated on every posting: keep the updates HOT
+
+INSERT INTO ledger_balance (vendor_id, account, currency, debits_minor, credits_minor, entry_count)
+SELECT vendor_id, account, currency,
+       COALESCE(sum(amount_minor) FILTER (WHERE direction = 'DEBIT'), 0),
+       COALESCE(sum(amount_minor) FILTER (WHERE direction = 'CREDIT'), 0),
+       count(*)
+FROM ledger_entry
+GROUP BY vendor_id, account, currency
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,37 @@
+-- Incremental transaction/ledger reconciliation (LedgerReconciliationService).
+-- Passes walk transactions by (updated_at, id) and ledger legs by id from a
+-- stored watermark, so each one reads only what changed since the last.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_updated_at_id
+    ON transaction (updated_at, id);
+
+-- One row per reconciliation; its row lock also keeps replicas from working the same page
+CREATE TABLE IF NOT EXISTS reconciliation_watermark (
+    name VARCHAR(64) PRIMARY KEY,
+    transaction_updated_at TIMESTAMPTZ NOT NULL,
+    transaction_id UUID NOT NULL,
+    entry_id BIGINT NOT NULL,
+    entry_timestamp TIMESTAMP NOT NULL,
+    checked_total BIGINT NOT NULL DEFAULT 0,
+    advanced_at TIMESTAMPTZ
+);
+
+-- Starts from the beginning: the first passes check the existing rows page by page
+INSERT INTO reconciliation_watermark (name, transaction_updated_at, transaction_id, entry_id, entry_timestamp)
+VALUES ('transaction-ledger', 'epoch', '00000000-0000-0000-0000-000000000000', 0, 'epoch')
+ON CONFLICT DO NOTHING;
+
+-- Open findings only: a transaction's rows are replaced each time it is checked,
+-- so the table holds what is wrong now and stays small
+CREATE TABLE IF NOT EXISTS reconciliation_discrepancy (
+    transaction_id UUID NOT NULL,
+    ledger_type VARCHAR(32) NOT NULL,
+    kind VARCHAR(32) NOT NULL,
+    transaction_status VARCHAR(32),
+    detail TEXT NOT NULL,
+    first_detected_at TIMESTAMPTZ NOT NULL,
+    last_checked_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (transaction_id, ledger_type, kind)
+);
+
+CREATE INDEX IF NOT EXISTS idx_reconciliation_discrepancy_detected
+    ON reconciliation_discrepancy (first_detected_at DESC);
@@ -0,0 +1,12 @@
+-- Writes a cache entry unless the id was invalidated since the value was read.
+-- KEYS[1] = cache entry, KEYS[2] = invalidation generation of the id
+-- ARGV[1] = value, ARGV[2] = generation seen before the database read ('' if none),
+-- ARGV[3] = entry TTL in ms
+--
+-- Every invalidation flush INCRs the generation, so a changed generation means
+-- the row was committed after the read and the value may be stale.
+if (redis.call('GET', KEYS[2]) or '') ~= ARGV[2] then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+return 1
@@ -0,0 +1,23 @@
+-- Atomically claims due escrow timers.
+-- KEYS[1] = pending timers (score = due time, epoch ms)
+-- KEYS[2] = in-flight timers (score = lease expiry, epoch ms)
+-- ARGV[1] = now, ARGV[2] = max entries to claim, ARGV[3] = lease expiry for claimed entries
+--
+-- Entries whose lease expired (the claiming replica died before acking) are
+-- handed out again first, then fresh due entries. Every returned member is
+-- moved into the in-flight set until the caller acks it with ZREM.
+local claimed = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+local remaining = tonumber(ARGV[2]) - #claimed
+if remaining > 0 then
+    local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, remaining)
+    if #due > 0 then
+        redis.call('ZREM', KEYS[1], unpack(due))
+        for _, member in ipairs(due) do
+            table.insert(claimed, member)
+        end
+    end
+end
+for _, member in ipairs(claimed) do
+    redis.call('ZADD', KEYS[2], ARGV[3], member)
+end
+return claimed
@@ -0,0 +1,81 @@
+package com.tracktrove.config;
+
+import com.tracktrove.support.LocalStandIns;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Re-runs of the migrator against a Postgres the application already migrated. */
+class SchemaMigratorTest {
+
+    private static LocalStandIns standIns;
+    private static JdbcTemplate jdbcTemplate;
+    private static SchemaMigrator migrator;
+    private static String v1Checksum;
+
+    @BeforeAll
+    static void migrateDatabase() {
+        standIns = LocalStandIns.start();
+        standIns.startApplication(Map.of("server.port", 0)).close();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                (String) standIns.springProperties().get("spring.datasource.url"), "postgres", ""));
+        migrator = new SchemaMigrator(jdbcTemplate, null);
+        v1Checksum = jdbcTemplate.queryForObject(
+                "SELECT checksum FROM schema_migration WHERE version = 1", String.class);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        standIns.close();
+    }
+
+    @AfterEach
+    void restoreV1() {
+        jdbcTemplate.update("UPDATE schema_migration SET checksum = ?, success = true WHERE version = 1", v1Checksum);
+    }
+
+    @Test
+    void everyAppliedVersionHasAChecksum() {
+        assertNotNull(v1Checksum);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM schema_migration WHERE checksum IS NULL OR NOT success", Integer.class));
+        assertDoesNotThrow(migrator::migrate);
+    }
+
+    @Test
+    void rowsFromBeforeChecksumsAreBaselined() throws Exception {
+        jdbcTemplate.update("UPDATE schema_migration SET checksum = NULL WHERE version = 1");
+
+        migrator.migrate();
+
+        assertEquals(v1Checksum, jdbcTemplate.queryForObject(
+                "SELECT checksum FROM schema_migration WHERE version = 1", String.class));
+    }
+
+    @Test
+    void refusesToStartWhenAnAppliedScriptWasEdited() {
+        jdbcTemplate.update("UPDATE schema_migration SET checksum = 'edited' WHERE version = 1");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, migrator::migrate);
+        assertTrue(e.getMessage().startsWith("Migration V1 was edited"), e.getMessage());
+    }
+
+    @Test
+    void refusesToStartAfterAPartialFailure() {
+        jdbcTemplate.update("UPDATE schema_migration SET success = false WHERE version = 1");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, migrator::migrate);
+        assertTrue(e.getMessage().startsWith("Migration V1 failed part-way"), e.getMessage());
+    }
+}
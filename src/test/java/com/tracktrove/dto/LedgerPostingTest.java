@@ -0,0 +1,61 @@
+package com.tracktrove.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LedgerPostingTest {
+
+    @Test
+    void exponentFollowsIso4217WithTwoAsFallback() {
+        assertEquals(0, LedgerPosting.minorUnitExponent("JPY"));
+        assertEquals(2, LedgerPosting.minorUnitExponent("USD"));
+        assertEquals(3, LedgerPosting.minorUnitExponent("KWD"));
+        // XXX is an ISO code without a minor unit; the others are not codes at all
+        assertEquals(2, LedgerPosting.minorUnitExponent("XXX"));
+        assertEquals(2, LedgerPosting.minorUnitExponent("NOPE"));
+        assertEquals(2, LedgerPosting.minorUnitExponent(null));
+    }
+
+    @Test
+    void roundsHalfEvenAtExponentZero() {
+        assertEquals(1500, LedgerPosting.toMinorUnits(new BigDecimal("1500"), "JPY"));
+        assertEquals(0, LedgerPosting.toMinorUnits(new BigDecimal("0.5"), "JPY"));
+        assertEquals(2, LedgerPosting.toMinorUnits(new BigDecimal("1.5"), "JPY"));
+        assertEquals(2, LedgerPosting.toMinorUnits(new BigDecimal("2.5"), "JPY"));
+        assertEquals(3, LedgerPosting.toMinorUnits(new BigDecimal("2.51"), "JPY"));
+    }
+
+    @Test
+    void roundsHalfEvenAtExponentTwo() {
+        assertEquals(1010, LedgerPosting.toMinorUnits(new BigDecimal("10.1"), "USD"));
+        assertEquals(1000, LedgerPosting.toMinorUnits(new BigDecimal("10.005"), "USD"));
+        assertEquals(1002, LedgerPosting.toMinorUnits(new BigDecimal("10.015"), "USD"));
+        assertEquals(1001, LedgerPosting.toMinorUnits(new BigDecimal("10.0051"), "USD"));
+        assertEquals(-1002, LedgerPosting.toMinorUnits(new BigDecimal("-10.015"), "USD"));
+    }
+
+    @Test
+    void roundsHalfEvenAtExponentThree() {
+        assertEquals(290, LedgerPosting.toMinorUnits(new BigDecimal("0.29"), "KWD"));
+        assertEquals(1234, LedgerPosting.toMinorUnits(new BigDecimal("1.2345"), "KWD"));
+        assertEquals(1236, LedgerPosting.toMinorUnits(new BigDecimal("1.2355"), "KWD"));
+    }
+
+    @Test
+    void missingAmountIsZero() {
+        assertEquals(0, LedgerPosting.toMinorUnits(null, "USD"));
+    }
+
+    @Test
+    void amountBeyondLongRangeIsRejected() {
+        assertEquals(Long.MAX_VALUE, LedgerPosting.toMinorUnits(new BigDecimal("92233720368547758.07"), "USD"));
+        assertThrows(ArithmeticException.class,
+                () -> LedgerPosting.toMinorUnits(new BigDecimal("92233720368547758.08"), "USD"));
+        assertThrows(ArithmeticException.class,
+                () -> LedgerPosting.toMinorUnits(new BigDecimal("9223372036854775808"), "JPY"));
+    }
+}
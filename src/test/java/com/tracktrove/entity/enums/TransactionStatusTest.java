@@ -0,0 +1,69 @@
+package com.tracktrove.entity.enums;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static com.tracktrove.entity.enums.TransactionStatus.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionStatusTest {
+
+    // The whole transition table, written out: target -> the statuses it may be entered from
+    private static final Map<TransactionStatus, Set<TransactionStatus>> EXPECTED = Map.ofEntries(
+            Map.entry(INITIATED, EnumSet.noneOf(TransactionStatus.class)),
+            Map.entry(ESCROW, EnumSet.of(INITIATED, FAILED)),
+            Map.entry(COMPLETED, EnumSet.noneOf(TransactionStatus.class)),
+            Map.entry(FAILED, EnumSet.noneOf(TransactionStatus.class)),
+            Map.entry(REFUNDED, EnumSet.noneOf(TransactionStatus.class)),
+            Map.entry(SETTLED, EnumSet.of(ESCROW)),
+            Map.entry(DISPUTED, EnumSet.noneOf(TransactionStatus.class)),
+            Map.entry(RETRIED, EnumSet.noneOf(TransactionStatus.class)),
+            // Manual retry from anything not final, including a retry already pending
+            Map.entry(RETRY_PENDING, EnumSet.of(INITIATED, ESCROW, FAILED, REFUNDED, DISPUTED, RETRIED,
+                    RETRY_PENDING, DISPUTE_OPEN, DISPUTE_RESOLVED)),
+            Map.entry(DISPUTE_OPEN, EnumSet.of(SETTLED)),
+            Map.entry(DISPUTE_RESOLVED, EnumSet.of(DISPUTE_OPEN)),
+            Map.entry(PERMANENTLY_FAILED, EnumSet.of(FAILED)));
+
+    static Stream<Arguments> everyTransition() {
+        return Stream.of(values()).flatMap(from -> Stream.of(values()).map(to ->
+                Arguments.of(from, to, EXPECTED.get(to).contains(from))));
+    }
+
+    @Test
+    void tableCoversEveryStatus() {
+        assertEquals(EnumSet.allOf(TransactionStatus.class), EnumSet.copyOf(EXPECTED.keySet()));
+    }
+
+    @ParameterizedTest(name = "{0} -> {1}: {2}")
+    @MethodSource("everyTransition")
+    void canTransitionToFollowsTheTable(TransactionStatus from, TransactionStatus to, boolean allowed) {
+        assertEquals(allowed, from.canTransitionTo(to));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransactionStatus.class)
+    void allowedFromMatchesTheTable(TransactionStatus to) {
+        assertEquals(EXPECTED.get(to), to.allowedFrom());
+    }
+
+    @Test
+    void manualRetryIsRefusedOnlyFromFinalStatuses() {
+        assertEquals(EnumSet.of(SETTLED, COMPLETED, PERMANENTLY_FAILED),
+                EnumSet.complementOf(EnumSet.copyOf(RETRY_PENDING.allowedFrom())));
+    }
+
+    @Test
+    void allowedFromIsReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> SETTLED.allowedFrom().add(INITIATED));
+    }
+}
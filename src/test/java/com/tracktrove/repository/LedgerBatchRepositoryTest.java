@@ -0,0 +1,110 @@
+package com.tracktrove.repository;
+
+import com.tracktrove.dto.LedgerPosting;
+import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.support.LocalStandIns;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** {@link LedgerBatchRepository#postAll} against a migrated Postgres. */
+class LedgerBatchRepositoryTest {
+
+    private static LocalStandIns standIns;
+    private static ConfigurableApplicationContext context;
+    private static LedgerBatchRepository repository;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startApplication() {
+        standIns = LocalStandIns.start();
+        context = standIns.startApplication(Map.of("server.port", 0));
+        repository = context.getBean(LedgerBatchRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopApplication() {
+        context.close();
+        standIns.close();
+    }
+
+    @Test
+    void everyPostingWritesBalancedLegs() {
+        UUID vendorId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        repository.postAll(List.of(
+                new LedgerPosting(first, vendorId, LedgerType.ESCROW, 1010, "USD", "escrow"),
+                new LedgerPosting(first, vendorId, LedgerType.SETTLEMENT, 1010, "USD", "settle"),
+                new LedgerPosting(second, vendorId, LedgerType.ESCROW, 1500, "JPY", "escrow")), LocalDateTime.now());
+
+        assertEquals(6, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM ledger_entry WHERE vendor_id = ?", Integer.class, vendorId));
+        // Per transaction and type: one debit and one credit leg of the same amount
+        List<Map<String, Object>> unbalanced = jdbcTemplate.queryForList("""
+                SELECT transaction_id, type FROM ledger_entry WHERE vendor_id = ?
+                GROUP BY transaction_id, type
+                HAVING count(*) FILTER (WHERE direction = 'DEBIT') <> 1
+                    OR count(*) FILTER (WHERE direction = 'CREDIT') <> 1
+                    OR sum(CASE direction WHEN 'DEBIT' THEN amount_minor ELSE -amount_minor END) <> 0""",
+                vendorId);
+        assertEquals(List.of(), unbalanced);
+        assertEquals(Map.of("account", "CLEARING", "direction", "DEBIT", "amount_minor", 1500L),
+                leg(vendorId, second, "DEBIT"));
+        assertEquals(Map.of("account", "ESCROW_HOLD", "direction", "CREDIT", "amount_minor", 1500L),
+                leg(vendorId, second, "CREDIT"));
+    }
+
+    @Test
+    void postingAdvancesRunningBalances() {
+        UUID vendorId = UUID.randomUUID();
+        List<LedgerPosting> escrowThenSettle = List.of(
+                new LedgerPosting(UUID.randomUUID(), vendorId, LedgerType.ESCROW, 1010, "USD", "escrow"),
+                new LedgerPosting(UUID.randomUUID(), vendorId, LedgerType.SETTLEMENT, 400, "USD", "settle"));
+
+        repository.postAll(escrowThenSettle, LocalDateTime.now());
+        assertEquals(List.of(
+                        balance("CLEARING", 1010, 0, 1010, 1),
+                        balance("ESCROW_HOLD", 400, 1010, -610, 2),
+                        balance("VENDOR_PAYABLE", 0, 400, -400, 1)),
+                balances(vendorId));
+
+        // A second batch adds to the existing rows rather than replacing them
+        repository.postAll(escrowThenSettle, LocalDateTime.now());
+        assertEquals(List.of(
+                        balance("CLEARING", 2020, 0, 2020, 2),
+                        balance("ESCROW_HOLD", 800, 2020, -1220, 4),
+                        balance("VENDOR_PAYABLE", 0, 800, -800, 2)),
+                balances(vendorId));
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT sum(balance_minor) FROM ledger_balance WHERE vendor_id = ?", Long.class, vendorId));
+    }
+
+    private static Map<String, Object> leg(UUID vendorId, UUID transactionId, String direction) {
+        return jdbcTemplate.queryForMap("""
+                SELECT account, direction, amount_minor FROM ledger_entry
+                WHERE vendor_id = ? AND transaction_id = ? AND direction = ?""", vendorId, transactionId, direction);
+    }
+
+    private static List<Map<String, Object>> balances(UUID vendorId) {
+        return jdbcTemplate.queryForList("""
+                SELECT account, debits_minor, credits_minor, balance_minor, entry_count FROM ledger_balance
+                WHERE vendor_id = ? AND currency = 'USD' ORDER BY account""", vendorId);
+    }
+
+    private static Map<String, Object> balance(String account, long debits, long credits, long balance, long entries) {
+        return Map.of("account", account, "debits_minor", debits, "credits_minor", credits,
+                "balance_minor", balance, "entry_count", entries);
+    }
+}
@@ -0,0 +1,44 @@
+package com.tracktrove.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExponentialBackoffPolicyTest {
+
+    @Test
+    void delayGrowsByMultiplierUntilCapped() {
+        RetryPolicy policy = new ExponentialBackoffPolicy(
+                Duration.ofSeconds(10), 2.0, Duration.ofSeconds(60), 0.0, 5, () -> 0.5);
+
+        assertEquals(Duration.ofSeconds(10), policy.backoff(1));
+        assertEquals(Duration.ofSeconds(20), policy.backoff(2));
+        assertEquals(Duration.ofSeconds(40), policy.backoff(3));
+        assertEquals(Duration.ofSeconds(60), policy.backoff(4));
+        assertEquals(Duration.ofSeconds(60), policy.backoff(1_000));
+    }
+
+    @Test
+    void jitterTakesRandomShareOffTheDelay() {
+        RetryPolicy noJitterDrawn = new ExponentialBackoffPolicy(
+                Duration.ofSeconds(10), 2.0, Duration.ofMinutes(5), 0.5, 3, () -> 0.0);
+        RetryPolicy fullJitterDrawn = new ExponentialBackoffPolicy(
+                Duration.ofSeconds(10), 2.0, Duration.ofMinutes(5), 0.5, 3, () -> 1.0);
+
+        assertEquals(Duration.ofSeconds(20), noJitterDrawn.backoff(2));
+        assertEquals(Duration.ofSeconds(10), fullJitterDrawn.backoff(2));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialBackoffPolicy(
+                Duration.ofMinutes(2), 2.0, Duration.ofMinutes(1), 0.0, 3));
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialBackoffPolicy(
+                Duration.ofSeconds(1), 0.5, Duration.ofMinutes(1), 0.0, 3));
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialBackoffPolicy(
+                Duration.ofSeconds(1), 2.0, Duration.ofMinutes(1), 1.5, 3));
+    }
+}
@@ -0,0 +1,30 @@
+package com.tracktrove.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RetryPolicyRegistryTest {
+
+    @Test
+    void prefersVendorThenChannelThenDefault() {
+        UUID vendorId = UUID.randomUUID();
+        RetryPolicyProperties properties = new RetryPolicyProperties();
+        RetryPolicyProperties.Settings upi = new RetryPolicyProperties.Settings();
+        upi.setMaxAttempts(5);
+        properties.getChannels().put("UPI", upi);
+        RetryPolicyProperties.Settings vendor = new RetryPolicyProperties.Settings();
+        vendor.setMaxAttempts(1);
+        properties.getVendors().put(vendorId, vendor);
+
+        RetryPolicyRegistry registry = new RetryPolicyRegistry(properties);
+
+        assertEquals(1, registry.policyFor(vendorId, "UPI").maxAttempts());
+        assertEquals(5, registry.policyFor(UUID.randomUUID(), "UPI").maxAttempts());
+        assertEquals(3, registry.policyFor(null, "CARD").maxAttempts());
+        assertSame(registry.policyFor(null, null), registry.policyFor(UUID.randomUUID(), "CARD"));
+    }
+}
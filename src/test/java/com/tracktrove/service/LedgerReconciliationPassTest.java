@@ -0,0 +1,174 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.LedgerPosting;
+import com.tracktrove.dto.ReconciliationReport;
+import com.tracktrove.dto.ReconciliationRun;
+import com.tracktrove.entity.enums.DiscrepancyKind;
+import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.repository.LedgerBatchRepository;
+import com.tracktrove.repository.ReconciliationRepository;
+import com.tracktrove.support.LocalStandIns;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Incremental passes of {@link LedgerReconciliationService} over a migrated Postgres,
+ * with pages of three rows so every pass crosses several watermark positions.
+ */
+class LedgerReconciliationPassTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private static LocalStandIns standIns;
+    private static JdbcTemplate jdbcTemplate;
+    private static LedgerBatchRepository ledger;
+    private static LedgerReconciliationService reconciliation;
+
+    @BeforeAll
+    static void migrateDatabase() {
+        standIns = LocalStandIns.start();
+        // Boot once for the schema, then stop it so no scheduler touches the rows under test
+        standIns.startApplication(Map.of("server.port", 0)).close();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                (String) standIns.springProperties().get("spring.datasource.url"), "postgres", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ledger = new LedgerBatchRepository(jdbcTemplate);
+        reconciliation = new LedgerReconciliationService(new ReconciliationRepository(jdbcTemplate),
+                new DataSourceTransactionManager(dataSource), Duration.ofSeconds(1), PAGE_SIZE, 100);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        standIns.close();
+    }
+
+    @Test
+    void passesResumeFromTheWatermark() {
+        reconciliation.reconcile();
+        long checkedBefore = report().checkedTotal();
+        UUID vendorId = UUID.randomUUID();
+        List<UUID> transactions = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            transactions.add(insertEscrowTransaction(vendorId, "10 minutes"));
+        }
+        // Five of the seven are posted, plus the legs of a transaction that does not exist
+        List<LedgerPosting> postings = new ArrayList<>();
+        for (UUID id : transactions.subList(0, 5)) {
+            postings.add(escrow(id, vendorId));
+        }
+        UUID orphan = UUID.randomUUID();
+        postings.add(escrow(orphan, vendorId));
+        List<UUID> checked = new ArrayList<>(transactions);
+        checked.add(orphan);
+        ledger.postAll(postings, LocalDateTime.now().minusMinutes(10));
+
+        // 7 transactions and 12 legs in pages of 3: 3 transaction pages, 4 ledger pages
+        ReconciliationRun first = reconciliation.reconcile();
+        assertTrue(first.ran());
+        assertTrue(first.caughtUp());
+        assertEquals(7, first.pages());
+        assertEquals(Map.of(DiscrepancyKind.MISSING, 2L, DiscrepancyKind.ORPHANED, 1L), openFor(checked));
+        assertEquals(checkedBefore + first.checked(), report().checkedTotal());
+
+        // Nothing changed: the next pass starts at the watermark and finds no rows
+        ReconciliationRun idle = reconciliation.reconcile();
+        assertEquals(0, idle.pages());
+        assertEquals(0, idle.checked());
+        assertTrue(idle.caughtUp());
+        assertEquals(Map.of(DiscrepancyKind.MISSING, 2L, DiscrepancyKind.ORPHANED, 1L), openFor(checked));
+
+        // A late posting is picked up from the ledger side and clears its finding
+        UUID postedLate = transactions.get(5);
+        ledger.postAll(List.of(escrow(postedLate, vendorId)), LocalDateTime.now().minusSeconds(5));
+        ReconciliationRun ledgerSide = reconciliation.reconcile();
+        assertEquals(1, ledgerSide.pages());
+        assertEquals(1, ledgerSide.checked());
+        assertEquals(Map.of(DiscrepancyKind.MISSING, 1L, DiscrepancyKind.ORPHANED, 1L), openFor(checked));
+
+        // A status change is picked up from the transaction side
+        UUID settled = transactions.get(0);
+        jdbcTemplate.update("""
+                UPDATE transaction SET current_status = 'SETTLED', updated_at = now() - interval '5 seconds'
+                WHERE id = ?""", settled);
+        ReconciliationRun transactionSide = reconciliation.reconcile();
+        assertEquals(1, transactionSide.pages());
+        assertEquals(1, transactionSide.checked());
+        assertEquals(Map.of(DiscrepancyKind.MISSING, 2L, DiscrepancyKind.ORPHANED, 1L), openFor(checked));
+        assertEquals(List.of(new LedgerDiscrepancyKey(LedgerType.SETTLEMENT, DiscrepancyKind.MISSING)),
+                openFor(settled));
+        assertEquals(jdbcTemplate.queryForObject("SELECT updated_at FROM transaction WHERE id = ?",
+                Instant.class, settled), report().transactionWatermark());
+    }
+
+    @Test
+    void rowsInsideTheLagWaitForTheNextPass() {
+        reconciliation.reconcile();
+        UUID vendorId = UUID.randomUUID();
+        UUID recent = insertEscrowTransaction(vendorId, "0 seconds");
+
+        ReconciliationRun tooEarly = reconciliation.reconcile();
+        assertEquals(0, tooEarly.checked());
+        assertEquals(List.of(), openFor(recent));
+
+        jdbcTemplate.update("UPDATE transaction SET updated_at = now() - interval '5 seconds' WHERE id = ?", recent);
+        ReconciliationRun later = reconciliation.reconcile();
+        assertEquals(1, later.checked());
+        assertEquals(List.of(new LedgerDiscrepancyKey(LedgerType.ESCROW, DiscrepancyKind.MISSING)), openFor(recent));
+    }
+
+    private static UUID insertEscrowTransaction(UUID vendorId, String age) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO transaction (id, vendor_id, amount, currency, current_status, retry_count,
+                                         created_at, updated_at)
+                VALUES (?, ?, 10.10, 'USD', 'ESCROW', 0, now() - ?::interval, now() - ?::interval)""",
+                id, vendorId, age, age);
+        return id;
+    }
+
+    private static LedgerPosting escrow(UUID transactionId, UUID vendorId) {
+        return new LedgerPosting(transactionId, vendorId, LedgerType.ESCROW, 1010, "USD", "escrow");
+    }
+
+    private static ReconciliationReport report() {
+        return reconciliation.report(50);
+    }
+
+    private record LedgerDiscrepancyKey(LedgerType type, DiscrepancyKind kind) {
+    }
+
+    private static List<LedgerDiscrepancyKey> openFor(UUID transactionId) {
+        return jdbcTemplate.query("""
+                SELECT ledger_type, kind FROM reconciliation_discrepancy WHERE transaction_id = ?
+                ORDER BY ledger_type, kind""",
+                (rs, rowNum) -> new LedgerDiscrepancyKey(LedgerType.valueOf(rs.getString(1)),
+                        DiscrepancyKind.valueOf(rs.getString(2))), transactionId);
+    }
+
+    // Open discrepancies per kind among the given transactions
+    private static Map<DiscrepancyKind, Long> openFor(List<UUID> transactionIds) {
+        Map<DiscrepancyKind, Long> open = new EnumMap<>(DiscrepancyKind.class);
+        for (UUID id : transactionIds) {
+            for (LedgerDiscrepancyKey key : openFor(id)) {
+                open.merge(key.kind(), 1L, Long::sum);
+            }
+        }
+        return open;
+    }
+}
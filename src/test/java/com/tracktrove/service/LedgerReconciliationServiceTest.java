@@ -0,0 +1,183 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.LedgerDiscrepancy;
+import com.tracktrove.entity.enums.DiscrepancyKind;
+import com.tracktrove.entity.enums.LedgerDirection;
+import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.ReconciliationRepository.LegRow;
+import com.tracktrove.repository.ReconciliationRepository.TransactionRow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Uuid order and the merge-join checks of {@link LedgerReconciliationService}, without a database. */
+class LedgerReconciliationServiceTest {
+
+    private static final UUID LOW = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID BELOW_HIGH_BIT = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+    private static final UUID HIGH_BIT = UUID.fromString("80000000-0000-0000-0000-000000000000");
+    private static final UUID TOP = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+
+    @Test
+    void uuidOrderIsUnsignedLikePostgres() {
+        Comparator<UUID> order = LedgerReconciliationService.UUID_ORDER;
+        // UUID.compareTo is signed and puts these the other way round
+        assertTrue(BELOW_HIGH_BIT.compareTo(HIGH_BIT) > 0);
+        assertTrue(order.compare(BELOW_HIGH_BIT, HIGH_BIT) < 0);
+        assertTrue(order.compare(HIGH_BIT, TOP) < 0);
+        assertTrue(order.compare(LOW, HIGH_BIT) < 0);
+        assertEquals(0, order.compare(HIGH_BIT, UUID.fromString(HIGH_BIT.toString())));
+        // Same high half: the low half decides, also unsigned
+        assertTrue(order.compare(UUID.fromString("00000000-0000-0000-7fff-ffffffffffff"),
+                UUID.fromString("00000000-0000-0000-8000-000000000000")) < 0);
+    }
+
+    @Test
+    void uuidOrderMatchesBytewiseTextOrder() {
+        List<UUID> ids = new ArrayList<>(List.of(LOW, BELOW_HIGH_BIT, HIGH_BIT, TOP));
+        for (int i = 0; i < 200; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        // Lower-case hex compares bytewise as Postgres compares uuids
+        assertEquals(ids.stream().sorted(Comparator.comparing(UUID::toString)).toList(),
+                ids.stream().sorted(LedgerReconciliationService.UUID_ORDER).toList());
+    }
+
+    @Test
+    void postingsMatchingTheStatusAreClean() {
+        UUID id = UUID.randomUUID();
+        List<LedgerDiscrepancy> findings = join(
+                List.of(transaction(id, TransactionStatus.SETTLED, "10.10", "usd")),
+                Stream.concat(posting(id, LedgerType.ESCROW, 1010, "USD"),
+                        posting(id, LedgerType.SETTLEMENT, 1010, "USD")).toList());
+        assertEquals(List.of(), findings);
+    }
+
+    @Test
+    void reportsMissingPosting() {
+        UUID id = UUID.randomUUID();
+        List<LedgerDiscrepancy> findings = join(
+                List.of(transaction(id, TransactionStatus.SETTLED, "10.10", "USD")),
+                posting(id, LedgerType.ESCROW, 1010, "USD").toList());
+        assertEquals(Set.of(finding(id, LedgerType.SETTLEMENT, DiscrepancyKind.MISSING)), kinds(findings));
+        assertEquals(TransactionStatus.SETTLED, findings.get(0).status());
+    }
+
+    @Test
+    void reportsDuplicatePosting() {
+        UUID id = UUID.randomUUID();
+        List<LedgerDiscrepancy> findings = join(
+                List.of(transaction(id, TransactionStatus.ESCROW, "10.10", "USD")),
+                Stream.concat(posting(id, LedgerType.ESCROW, 1010, "USD"),
+                        posting(id, LedgerType.ESCROW, 1010, "USD")).toList());
+        assertEquals(Set.of(finding(id, LedgerType.ESCROW, DiscrepancyKind.DUPLICATE)), kinds(findings));
+    }
+
+    @Test
+    void reportsPostingTheStatusRulesOut() {
+        UUID id = UUID.randomUUID();
+        List<LedgerDiscrepancy> findings = join(
+                List.of(transaction(id, TransactionStatus.INITIATED, "10.10", "USD")),
+                posting(id, LedgerType.ESCROW, 1010, "USD").toList());
+        assertEquals(Set.of(finding(id, LedgerType.ESCROW, DiscrepancyKind.UNEXPECTED)), kinds(findings));
+    }
+
+    @Test
+    void reportsAmountAndCurrencyMismatch() {
+        UUID wrongAmount = new UUID(1, 1);
+        UUID wrongCurrency = new UUID(1, 2);
+        List<LedgerDiscrepancy> findings = join(
+                List.of(transaction(wrongAmount, TransactionStatus.ESCROW, "10.10", "USD"),
+                        transaction(wrongCurrency, TransactionStatus.ESCROW, "1500", "JPY")),
+                Stream.concat(posting(wrongAmount, LedgerType.ESCROW, 1000, "USD"),
+                        posting(wrongCurrency, LedgerType.ESCROW, 1500, "USD")).toList());
+        assertEquals(Set.of(finding(wrongAmount, LedgerType.ESCROW, DiscrepancyKind.AMOUNT_MISMATCH),
+                        finding(wrongCurrency, LedgerType.ESCROW, DiscrepancyKind.AMOUNT_MISMATCH)),
+                kinds(findings));
+    }
+
+    @Test
+    void reportsUnpairedLegs() {
+        UUID id = UUID.randomUUID();
+        List<LedgerDiscrepancy> findings = join(
+                List.of(transaction(id, TransactionStatus.ESCROW, "10.10", "USD")),
+                List.of(leg(id, LedgerType.ESCROW, LedgerDirection.DEBIT, 1010, "USD")));
+        assertEquals(Set.of(finding(id, LedgerType.ESCROW, DiscrepancyKind.UNBALANCED)), kinds(findings));
+    }
+
+    @Test
+    void reportsLegsOfMissingTransaction() {
+        UUID id = UUID.randomUUID();
+        List<LedgerDiscrepancy> findings = join(List.of(), posting(id, LedgerType.REFUND, 500, "EUR").toList());
+        assertEquals(Set.of(finding(id, LedgerType.REFUND, DiscrepancyKind.ORPHANED)), kinds(findings));
+        assertNull(findings.get(0).status());
+    }
+
+    @Test
+    void joinsAcrossTheHighBitInUuidOrder() {
+        // Transactions with no legs on either side of an orphan and of a clean transaction
+        List<LedgerDiscrepancy> findings = join(
+                List.of(transaction(LOW, TransactionStatus.ESCROW, "1", "USD"),
+                        transaction(HIGH_BIT, TransactionStatus.ESCROW, "1", "USD"),
+                        transaction(TOP, TransactionStatus.ESCROW, "1", "USD")),
+                Stream.concat(posting(BELOW_HIGH_BIT, LedgerType.ESCROW, 100, "USD"),
+                        posting(HIGH_BIT, LedgerType.ESCROW, 100, "USD")).toList());
+        assertEquals(Set.of(finding(LOW, LedgerType.ESCROW, DiscrepancyKind.MISSING),
+                        finding(BELOW_HIGH_BIT, LedgerType.ESCROW, DiscrepancyKind.ORPHANED),
+                        finding(TOP, LedgerType.ESCROW, DiscrepancyKind.MISSING)),
+                kinds(findings));
+    }
+
+    private static List<LedgerDiscrepancy> join(List<TransactionRow> transactions, List<LegRow> legs) {
+        List<LedgerDiscrepancy> findings = new ArrayList<>();
+        LedgerReconciliationService.MergeJoin join =
+                new LedgerReconciliationService.MergeJoin(transactions, findings, Instant.now());
+        legs.stream()
+                .sorted(Comparator.comparing(LegRow::transactionId, LedgerReconciliationService.UUID_ORDER))
+                .forEach(join::accept);
+        join.finish();
+        return findings;
+    }
+
+    private static TransactionRow transaction(UUID id, TransactionStatus status, String amount, String currency) {
+        return new TransactionRow(id, status, new BigDecimal(amount), currency, Instant.now());
+    }
+
+    private static Stream<LegRow> posting(UUID transactionId, LedgerType type, long amountMinor, String currency) {
+        return Stream.of(leg(transactionId, type, LedgerDirection.DEBIT, amountMinor, currency),
+                leg(transactionId, type, LedgerDirection.CREDIT, amountMinor, currency));
+    }
+
+    private static LegRow leg(UUID transactionId, LedgerType type, LedgerDirection direction, long amountMinor,
+                              String currency) {
+        return new LegRow(transactionId, type, direction, amountMinor, currency);
+    }
+
+    private record Finding(UUID transactionId, LedgerType type, DiscrepancyKind kind) {
+    }
+
+    private static Finding finding(UUID transactionId, LedgerType type, DiscrepancyKind kind) {
+        return new Finding(transactionId, type, kind);
+    }
+
+    private static Set<Finding> kinds(List<LedgerDiscrepancy> findings) {
+        Set<Finding> kinds = findings.stream()
+                .map(d -> finding(d.transactionId(), d.ledgerType(), d.kind()))
+                .collect(Collectors.toSet());
+        assertEquals(findings.size(), kinds.size(), "one finding per transaction, type and kind");
+        return kinds;
+    }
+}
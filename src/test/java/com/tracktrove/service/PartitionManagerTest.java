@@ -0,0 +1,94 @@
+package com.tracktrove.service;
+
+import com.tracktrove.dto.LedgerPosting;
+import com.tracktrove.entity.enums.LedgerType;
+import com.tracktrove.repository.LedgerBatchRepository;
+import com.tracktrove.support.LocalStandIns;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Months whose rows already sit in the DEFAULT partition, against a migrated Postgres. */
+class PartitionManagerTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static LocalStandIns standIns;
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateDatabase() {
+        standIns = LocalStandIns.start();
+        // Boot once for the schema, then stop it so its own partition upkeep stays out of the way
+        standIns.startApplication(Map.of("server.port", 0)).close();
+        dataSource = new DriverManagerDataSource(
+                (String) standIns.springProperties().get("spring.datasource.url"), "postgres", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        standIns.close();
+    }
+
+    @Test
+    void rowsParkedInDefaultMoveToTheirMonthOnceItIsCreated() {
+        LocalDateTime ahead = LocalDateTime.now().plusMonths(5);
+        LocalDateTime behind = LocalDateTime.now().minusMonths(14);
+        UUID vendorId = UUID.randomUUID();
+        LedgerBatchRepository ledger = new LedgerBatchRepository(jdbcTemplate);
+        ledger.postAll(List.of(posting(vendorId)), ahead);
+        ledger.postAll(List.of(posting(vendorId)), behind);
+
+        // Months behind are created as soon as their rows are found in DEFAULT; the later
+        // month is past the regular window, so its rows stay parked and are reported
+        PartitionManager regular = partitionManager(2);
+        regular.ensureUpcomingPartitions();
+        assertEquals(2L, count(partition(behind), vendorId));
+        assertEquals(2L, count("ledger_entry_default", vendorId));
+        assertEquals(2, regular.defaultPartitionRows("ledger_entry"));
+
+        // Once the window reaches the month, its partition is created and the rows follow
+        PartitionManager catchingUp = partitionManager(6);
+        catchingUp.ensureUpcomingPartitions();
+        assertEquals(2L, count(partition(ahead), vendorId));
+        assertEquals(0L, count("ledger_entry_default", vendorId));
+        assertEquals(0, catchingUp.defaultPartitionRows("ledger_entry"));
+        assertEquals(4L, count("ledger_entry", vendorId));
+        // DEFAULT is attached again and still catches rows outside every partition
+        ledger.postAll(List.of(posting(vendorId)), LocalDateTime.now().plusYears(3));
+        assertEquals(2L, count("ledger_entry_default", vendorId));
+    }
+
+    private static PartitionManager partitionManager(int monthsAhead) {
+        return new PartitionManager(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                monthsAhead, 6, 84, Path.of("target", "partition-archive"));
+    }
+
+    private static LedgerPosting posting(UUID vendorId) {
+        return new LedgerPosting(UUID.randomUUID(), vendorId, LedgerType.ESCROW, 100, "USD", "parked");
+    }
+
+    private static String partition(LocalDateTime month) {
+        return "ledger_entry_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static long count(String table, UUID vendorId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE vendor_id = ?",
+                Long.class, vendorId);
+    }
+}
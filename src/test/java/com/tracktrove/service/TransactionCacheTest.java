@@ -0,0 +1,100 @@
+package com.tracktrove.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracktrove.config.RedisConfig;
+import com.tracktrove.dto.TransactionStatusView;
+import com.tracktrove.entity.enums.TransactionStatus;
+import com.tracktrove.repository.TransactionRepository;
+import com.tracktrove.support.LocalStandIns;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Redis write-back of {@link TransactionCache} against a real Redis. */
+class TransactionCacheTest {
+
+    private static LocalStandIns standIns;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void startRedis() {
+        standIns = LocalStandIns.start();
+        int port = (Integer) standIns.springProperties().get("spring.data.redis.port");
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        standIns.close();
+    }
+
+    @Test
+    void loadedValueIsSharedThroughRedis() {
+        UUID id = UUID.randomUUID();
+        TransactionRepository repository = mock(TransactionRepository.class);
+        when(repository.findStatusViewById(id)).thenReturn(Optional.of(view(id, TransactionStatus.ESCROW)));
+
+        cache(repository).getStatus(id);
+        TransactionCache otherReplica = cache(repository);
+
+        assertEquals(TransactionStatus.ESCROW, otherReplica.getStatus(id).orElseThrow().currentStatus());
+        assertEquals(1, otherReplica.stats().redisHits());
+        verify(repository, times(1)).findStatusViewById(id);
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationDoesNotCacheTheOldRow() {
+        UUID id = UUID.randomUUID();
+        TransactionRepository repository = mock(TransactionRepository.class);
+        TransactionCache reader = cache(repository);
+        TransactionCache writer = cache(mock(TransactionRepository.class));
+        // The reader gets the old row; the change commits on another replica and its
+        // invalidation is flushed before the reader writes back
+        when(repository.findStatusViewById(id)).thenAnswer(invocation -> {
+            writer.invalidate(id);
+            writer.flushInvalidations();
+            return Optional.of(view(id, TransactionStatus.ESCROW));
+        });
+
+        reader.getStatus(id);
+
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey("txn-cache:status:" + id)));
+        TransactionRepository current = mock(TransactionRepository.class);
+        when(current.findStatusViewById(id)).thenReturn(Optional.of(view(id, TransactionStatus.SETTLED)));
+        TransactionCache otherReplica = cache(current);
+        assertEquals(TransactionStatus.SETTLED, otherReplica.getStatus(id).orElseThrow().currentStatus());
+        // A load after the invalidation caches again
+        assertTrue(Boolean.TRUE.equals(redisTemplate.hasKey("txn-cache:status:" + id)));
+    }
+
+    private static TransactionCache cache(TransactionRepository repository) {
+        return new TransactionCache(repository, redisTemplate, new RedisMessageListenerContainer(),
+                new RedisConfig().cacheSetIfGenerationScript(), new ObjectMapper().findAndRegisterModules(),
+                1000, Duration.ofSeconds(30), Duration.ofMinutes(5), 20);
+    }
+
+    private static TransactionStatusView view(UUID id, TransactionStatus status) {
+        return new TransactionStatusView(id, status, Instant.now());
+    }
+}
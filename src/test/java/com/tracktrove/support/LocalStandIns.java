@@ -0,0 +1,107 @@
+package com.tracktrove.support;
+
+import com.tracktrove.TracktroveBackendApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Throwaway Postgres and Redis processes for benchmarks and load runs: real
+ * server binaries unpacked from the test classpath onto free local ports, so
+ * every SQL feature and Lua script the application relies on behaves as in
+ * production, with no Docker or shared database involved.
+ *
+ * <p>Postgres refuses to run as root; run these from a regular user.
+ */
+public final class LocalStandIns implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final RedisServer redis;
+    private final int redisPort;
+
+    private LocalStandIns(EmbeddedPostgres postgres, RedisServer redis, int redisPort) {
+        this.postgres = postgres;
+        this.redis = redis;
+        this.redisPort = redisPort;
+    }
+
+    public static LocalStandIns start() {
+        EmbeddedPostgres postgres = null;
+        try {
+            postgres = EmbeddedPostgres.builder()
+                    // Durability is irrelevant for a throwaway cluster and only adds fsync noise
+                    .setServerConfig("fsync", "off")
+                    .setServerConfig("synchronous_commit", "off")
+                    .setServerConfig("max_connections", "200")
+                    .start();
+            int redisPort = freePort();
+            RedisServer redis = new RedisServer(redisPort);
+            redis.start();
+            return new LocalStandIns(postgres, redis, redisPort);
+        } catch (IOException e) {
+            closeQuietly(postgres);
+            throw new UncheckedIOException("Could not start local Postgres/Redis stand-ins", e);
+        }
+    }
+
+    /** Spring properties pointing the application at the stand-ins. */
+    public Map<String, Object> springProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url",
+                "jdbc:postgresql://localhost:" + postgres.getPort() + "/postgres?reWriteBatchedInserts=true");
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.data.redis.host", "localhost");
+        properties.put("spring.data.redis.port", redisPort);
+        return properties;
+    }
+
+    /**
+     * Boots the full application against the stand-ins.
+     *
+     * @param overrides extra properties, applied on top of the stand-in ones.
+     */
+    public ConfigurableApplicationContext startApplication(Map<String, Object> overrides) {
+        Map<String, Object> properties = springProperties();
+        properties.putAll(overrides);
+        // As command-line arguments: builder properties are only defaults and lose to application.yaml
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(TracktroveBackendApplication.class).run(args);
+    }
+
+    @Override
+    public void close() {
+        try {
+            redis.stop();
+        } catch (IOException e) {
+            // Process is gone either way once the JVM exits
+        }
+        closeQuietly(postgres);
+    }
+
+    private static void closeQuietly(EmbeddedPostgres postgres) {
+        if (postgres == null) {
+            return;
+        }
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            // Leaves a temp directory behind at worst
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}